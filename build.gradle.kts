@@ -5,6 +5,7 @@ import java.lang.System.getenv
   `maven-publish`
   signing
   alias(libs.plugins.nexus)
+  alias(libs.plugins.jmh)
 }
 
 group = "io.arrow-kt"
@@ -18,9 +19,76 @@ tasks.named<JavaCompile>("compileJava") {
 }
 
 tasks.test {
-  useJUnitPlatform()
+  useJUnitPlatform {
+    excludeTags("stress", "allocation")
+  }
+}
+
+val allocationTest by tasks.registering(Test::class) {
+  description = "Checks the allocations of the recipes against a recorded baseline, see RecipeAllocationTest."
+  group = "verification"
+  testClassesDirs = sourceSets.test.get().output.classesDirs
+  classpath = sourceSets.test.get().runtimeClasspath
+  useJUnitPlatform {
+    includeTags("allocation")
+  }
+  providers.gradleProperty("arrow.allocation.updateBaseline").orNull?.let {
+    systemProperty("arrow.allocation.updateBaseline", it)
+  }
+}
+
+val stressTest by tasks.registering(Test::class) {
+  description = "Runs the recipes over generated corpora, see CorpusScaleTest."
+  group = "verification"
+  testClassesDirs = sourceSets.test.get().output.classesDirs
+  classpath = sourceSets.test.get().runtimeClasspath
+  useJUnitPlatform {
+    includeTags("stress")
+  }
+  maxHeapSize = "8g"
+  providers.gradleProperty("arrow.stress.sizes").orNull?.let { systemProperty("arrow.stress.sizes", it) }
+}
+
+val generator by sourceSets.creating
+
+// The JFR events of the recipes, loaded by arrow.RecipeEvents when running on Java 11 or later.
+val java11 by sourceSets.creating {
+  compileClasspath += sourceSets.main.get().output
+}
+
+configurations["java11Implementation"].extendsFrom(configurations.implementation.get())
+
+tasks.named<JavaCompile>("compileJava11Java") {
+  options.release.set(11)
+}
+
+tasks.jar {
+  from(java11.output)
+}
+
+val generatedDeprecationTable = layout.buildDirectory.dir("generated/deprecations")
+
+val generateDeprecationTable by tasks.registering(JavaExec::class) {
+  description = "Generates the table of arrow.RewriteDeprecatedApi from the arrow-core-jvm jar on the test runtime classpath."
+  group = "build"
+  classpath = generator.runtimeClasspath
+  mainClass.set("arrow.generator.DeprecationTableGenerator")
+  val manual = file("src/generator/resources/manual-deprecations.tsv")
+  val arrowCore = configurations.testRuntimeClasspath.map { classpath -> classpath.filter { it.name.startsWith("arrow-core-jvm") } }
+  inputs.file(manual)
+  inputs.files(arrowCore)
+  outputs.dir(generatedDeprecationTable)
+  argumentProviders.add(CommandLineArgumentProvider {
+    listOf(
+      generatedDeprecationTable.get().file("META-INF/rewrite/arrow-deprecations.tsv").asFile.path,
+      manual.path
+    ) + arrowCore.get().files.map { it.path }
+  })
 }
 
+// The table is generated on every build of the resources, it is not maintained by hand.
+sourceSets.main.get().resources.srcDir(files(generatedDeprecationTable).builtBy(generateDeprecationTable))
+
 dependencies {
   annotationProcessor(libs.lombok)
   compileOnly(libs.lombok)
@@ -33,6 +101,24 @@ dependencies {
   testRuntimeOnly(libs.arrow.core)
   testRuntimeOnly(libs.junit.jupiter.engine)
   testRuntimeOnly(libs.lombok)
+  testRuntimeOnly(java11.output)
+  testImplementation(generator.output)
+  testImplementation(libs.asm)
+
+  "generatorImplementation"(libs.asm)
+
+  jmhImplementation(libs.rewrite.core)
+  jmhImplementation(libs.bundles.rewrite)
+  jmhRuntimeOnly(libs.arrow.core)
+  jmhRuntimeOnly(java11.output)
+}
+
+jmh {
+  jmhVersion.set(libs.versions.jmh)
+  includeTests.set(true)
+  profilers.add("gc")
+  resultFormat.set("JSON")
+  findProperty("lstCache")?.let { jvmArgsAppend.add("-Darrow.benchmarks.lstCache=$it") }
 }
 
 java {
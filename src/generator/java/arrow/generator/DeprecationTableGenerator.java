@@ -0,0 +1,324 @@
+package arrow.generator;
+
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates the mapping table of `arrow.RewriteDeprecatedApi` from the class files of the `arrow-core-jvm` jar, see
+ * `arrow.DeprecatedApiTable` for the format.
+ * <p>
+ * Every public method annotated with `@Deprecated(replaceWith = ReplaceWith(..))` becomes a row, when the replacement is
+ * a call of another function with the same arguments, like `ReplaceWith("onRight(f)")`. The `kotlin.Metadata` of the
+ * class tells top-level functions apart from members, and the parameter names come from the local variable table. A
+ * name is only rewritten when all of its callable overloads in a class map to the same row, since the method patterns
+ * of the table match any arguments.
+ * <p>
+ * It runs as `./gradlew generateDeprecationTable` before the resources are processed, so the table is never maintained
+ * by hand. The rows of the manual table are written first, so they take precedence over the generated rows.
+ * <pre>
+ * DeprecationTableGenerator &lt;output&gt; &lt;manual table&gt; &lt;jar&gt;...
+ * </pre>
+ */
+public final class DeprecationTableGenerator {
+    private static final Pattern CALL = Pattern.compile("(?:this\\.)?([A-Za-z_][A-Za-z0-9_]*)(?:<[^()]*>)?\\((.*)\\)");
+
+    // Kinds of `kotlin.Metadata`.
+    private static final int CLASS = 1;
+    private static final int FILE_FACADE = 2;
+    private static final int MULTI_FILE_CLASS_PART = 5;
+
+    // The rows by method pattern, `null` when the overloads of the pattern do not agree on a row.
+    private final Map<String, String> rows = new TreeMap<>();
+
+    private DeprecationTableGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: DeprecationTableGenerator <output> <manual table> <jar>...");
+        }
+        Path output = Paths.get(args[0]);
+        List<String> manual = Files.readAllLines(Paths.get(args[1]), StandardCharsets.UTF_8);
+
+        DeprecationTableGenerator generator = new DeprecationTableGenerator();
+        List<String> jarNames = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            Path jar = Paths.get(args[i]);
+            jarNames.add(jar.getFileName().toString());
+            generator.read(jar);
+        }
+
+        Set<String> manualPatterns = new HashSet<>();
+        for (String line : manual) {
+            if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                manualPatterns.add(line.substring(0, line.indexOf('\t')));
+            }
+        }
+
+        int generated = 0;
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            out.write("# Deprecated Arrow APIs and their replacements, applied by arrow.RewriteDeprecatedApi. See DeprecatedApiTable for the\n");
+            out.write("# format: methodPattern, newMethodName, newMethodImport, flags, removedImports, separated by tabs, `-` for empty.\n");
+            out.write("# Generated from " + String.join(", ", jarNames) + " by `./gradlew generateDeprecationTable`.\n");
+            out.write("# Add rows to src/generator/resources/manual-deprecations.tsv instead, they are written first.\n");
+            for (String line : manual) {
+                if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                    out.write(line);
+                    out.write('\n');
+                }
+            }
+            for (Map.Entry<String, String> row : generator.rows.entrySet()) {
+                if (row.getValue() != null && !manualPatterns.contains(row.getKey())) {
+                    out.write(row.getKey());
+                    out.write('\t');
+                    out.write(row.getValue());
+                    out.write('\n');
+                    generated++;
+                }
+            }
+        }
+        System.out.println("Wrote " + generated + " generated rows to " + output);
+    }
+
+    private void read(Path jar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = jarFile.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".class") && !entry.getName().endsWith("module-info.class")) {
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        new ClassReader(in).accept(new DeprecationCollector(), ClassReader.SKIP_FRAMES);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException("Failed to read " + entry.getName() + " in " + jar, e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The row of a deprecated method, or `null` when its replacement cannot be expressed as a row.
+     */
+    private static String row(String packageName, String name, boolean topLevel, List<String> parameterNames,
+                              DeprecatedAnnotation deprecated) {
+        if (deprecated.expression == null) {
+            return null;
+        }
+        Matcher call = CALL.matcher(deprecated.expression.replaceAll("\\s+", ""));
+        if (!call.matches() || !arguments(call.group(2)).equals(parameterNames)) {
+            return null;
+        }
+        String newName = call.group(1);
+
+        String newImport = null;
+        for (String anImport : deprecated.imports) {
+            if (anImport.equals(newName) || anImport.endsWith("." + newName)) {
+                newImport = anImport;
+            } else {
+                // The replacement needs more than the new function.
+                return null;
+            }
+        }
+        String oldImport = packageName.isEmpty() ? name : packageName + "." + name;
+        boolean removeOldImport = topLevel && newImport != null && !newImport.equals(oldImport);
+        return newName + '\t' + (newImport == null ? "-" : newImport) + '\t' + (removeOldImport ? "t" : "-") + "\t-";
+    }
+
+    private static List<String> arguments(String arguments) {
+        List<String> names = new ArrayList<>();
+        if (!arguments.isEmpty()) {
+            for (String argument : arguments.split(",", -1)) {
+                names.add(argument);
+            }
+        }
+        return names;
+    }
+
+    private void add(String methodPattern, String row) {
+        if (!rows.containsKey(methodPattern)) {
+            rows.put(methodPattern, row);
+        } else if (rows.get(methodPattern) != null && !rows.get(methodPattern).equals(row)) {
+            rows.put(methodPattern, null);
+        }
+    }
+
+    private static final class DeprecatedAnnotation {
+        String expression;
+        final List<String> imports = new ArrayList<>();
+        boolean hidden;
+    }
+
+    private final class DeprecationCollector extends ClassVisitor {
+        private String className;
+        private int kind;
+        private String multiFileClassName;
+        private boolean skip;
+        private final Map<String, CollectedMethod> methods = new LinkedHashMap<>();
+
+        DeprecationCollector() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            className = name;
+            skip = (access & Opcodes.ACC_PUBLIC) == 0 || (access & Opcodes.ACC_SYNTHETIC) != 0;
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            if (!"Lkotlin/Metadata;".equals(descriptor)) {
+                return null;
+            }
+            return new AnnotationVisitor(Opcodes.ASM9) {
+                @Override
+                public void visit(String name, Object value) {
+                    if ("k".equals(name)) {
+                        kind = (Integer) value;
+                    } else if ("xs".equals(name)) {
+                        multiFileClassName = (String) value;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            if (skip || (access & Opcodes.ACC_PUBLIC) == 0 || (access & (Opcodes.ACC_SYNTHETIC | Opcodes.ACC_BRIDGE)) != 0 ||
+                name.startsWith("<") || name.contains("$")) {
+                return null;
+            }
+            CollectedMethod method = new CollectedMethod(access, name, descriptor);
+            methods.put(name + descriptor, method);
+            return method;
+        }
+
+        @Override
+        public void visitEnd() {
+            if (skip || (kind != CLASS && kind != FILE_FACADE && kind != MULTI_FILE_CLASS_PART)) {
+                return;
+            }
+            boolean topLevel = kind != CLASS;
+            String declaringType = (kind == MULTI_FILE_CLASS_PART && multiFileClassName != null ? multiFileClassName : className)
+                    .replace('/', '.');
+            int lastDot = declaringType.lastIndexOf('.');
+            String packageName = lastDot < 0 ? "" : declaringType.substring(0, lastDot);
+
+            for (CollectedMethod method : methods.values()) {
+                if (method.deprecated != null && method.deprecated.hidden) {
+                    // Hidden declarations cannot be called from source, they do not affect the rewrite.
+                    continue;
+                }
+                String methodPattern = declaringType + " " + method.name + "(..)";
+                add(methodPattern, method.deprecated == null ?
+                        null :
+                        row(packageName, method.name, topLevel, method.parameterNames(), method.deprecated));
+            }
+        }
+    }
+
+    private static final class CollectedMethod extends MethodVisitor {
+        final String name;
+        private final boolean isStatic;
+        private final Type[] parameterTypes;
+        private final Map<Integer, String> localNames = new TreeMap<>();
+        DeprecatedAnnotation deprecated;
+
+        CollectedMethod(int access, String name, String descriptor) {
+            super(Opcodes.ASM9);
+            this.name = name;
+            this.isStatic = (access & Opcodes.ACC_STATIC) != 0;
+            this.parameterTypes = Type.getArgumentTypes(descriptor);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            if (!"Lkotlin/Deprecated;".equals(descriptor)) {
+                return null;
+            }
+            deprecated = new DeprecatedAnnotation();
+            return new AnnotationVisitor(Opcodes.ASM9) {
+                @Override
+                public void visitEnum(String name, String descriptor, String value) {
+                    if ("level".equals(name)) {
+                        deprecated.hidden = "HIDDEN".equals(value);
+                    }
+                }
+
+                @Override
+                public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+                    if (!"replaceWith".equals(name)) {
+                        return null;
+                    }
+                    return new AnnotationVisitor(Opcodes.ASM9) {
+                        @Override
+                        public void visit(String name, Object value) {
+                            if ("expression".equals(name)) {
+                                deprecated.expression = (String) value;
+                            }
+                        }
+
+                        @Override
+                        public AnnotationVisitor visitArray(String name) {
+                            return !"imports".equals(name) ? null : new AnnotationVisitor(Opcodes.ASM9) {
+                                @Override
+                                public void visit(String name, Object value) {
+                                    deprecated.imports.add((String) value);
+                                }
+                            };
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public void visitLocalVariable(String name, String descriptor, String signature, Label start, Label end, int index) {
+            localNames.putIfAbsent(index, name);
+        }
+
+        /**
+         * The names of the parameters as written in Kotlin, without the receiver of an extension function and the
+         * continuation of a suspend function. Unknown names never equal the arguments of a replacement.
+         */
+        List<String> parameterNames() {
+            List<String> names = new ArrayList<>();
+            int slot = isStatic ? 0 : 1;
+            for (Type parameterType : parameterTypes) {
+                String name = localNames.getOrDefault(slot, "?" + slot);
+                if (!name.startsWith("$this") && !"$completion".equals(name)) {
+                    names.add(name);
+                }
+                slot += parameterType.getSize();
+            }
+            return names;
+        }
+    }
+}
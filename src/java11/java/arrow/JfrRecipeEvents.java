@@ -0,0 +1,155 @@
+package arrow;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.openrewrite.internal.lang.Nullable;
+
+/**
+ * The {@link RecipeEvents} of a JVM with JFR, loaded by {@link RecipeEvents#load()}. Whether an event is enabled is
+ * read from its {@link EventType}, so nothing is allocated while recording is off.
+ */
+final class JfrRecipeEvents implements RecipeEvents {
+    private final EventType visit = EventType.getEventType(RecipeVisit.class);
+    private final EventType lambdaScan = EventType.getEventType(LambdaScan.class);
+    private final EventType importEdits = EventType.getEventType(ImportEdits.class);
+
+    @Override
+    @Nullable
+    public Object beginVisit() {
+        if (!visit.isEnabled()) {
+            return null;
+        }
+        RecipeVisit event = new RecipeVisit();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endVisit(Object event, String recipe, String sourcePath, boolean applicable, boolean changed) {
+        RecipeVisit e = (RecipeVisit) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.recipe = recipe;
+            e.sourcePath = sourcePath;
+            e.applicable = applicable;
+            e.changed = changed;
+            e.commit();
+        }
+    }
+
+    @Override
+    @Nullable
+    public Object beginLambdaScan() {
+        if (!lambdaScan.isEnabled()) {
+            return null;
+        }
+        LambdaScan event = new LambdaScan();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endLambdaScan(Object event, String recipe, String sourcePath, boolean found) {
+        LambdaScan e = (LambdaScan) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.recipe = recipe;
+            e.sourcePath = sourcePath;
+            e.found = found;
+            e.commit();
+        }
+    }
+
+    @Override
+    public boolean isImportEditsEnabled() {
+        return importEdits.isEnabled();
+    }
+
+    @Override
+    @Nullable
+    public Object beginImportEdits() {
+        if (!importEdits.isEnabled()) {
+            return null;
+        }
+        ImportEdits event = new ImportEdits();
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endImportEdits(Object event, String recipe, String sourcePath, int added, int removed) {
+        ImportEdits e = (ImportEdits) event;
+        e.end();
+        if (e.shouldCommit()) {
+            e.recipe = recipe;
+            e.sourcePath = sourcePath;
+            e.added = added;
+            e.removed = removed;
+            e.commit();
+        }
+    }
+
+    @Name("arrow.RecipeVisit")
+    @Label("Recipe Visit")
+    @Description("An Arrow recipe on a source file")
+    @Category({"Arrow", "Recipes"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class RecipeVisit extends Event {
+        @Label("Recipe")
+        String recipe;
+
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Applicable")
+        @Description("Whether the applicability test of the recipe passed")
+        boolean applicable;
+
+        @Label("Changed")
+        boolean changed;
+    }
+
+    @Name("arrow.LambdaScan")
+    @Label("Lambda Scan")
+    @Description("A search of a lambda for an invocation returning Validated")
+    @Category({"Arrow", "Recipes"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class LambdaScan extends Event {
+        @Label("Recipe")
+        String recipe;
+
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Found")
+        boolean found;
+    }
+
+    @Name("arrow.ImportEdits")
+    @Label("Import Edits")
+    @Description("The import changes of an Arrow recipe on a source file")
+    @Category({"Arrow", "Recipes"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class ImportEdits extends Event {
+        @Label("Recipe")
+        String recipe;
+
+        @Label("Source Path")
+        String sourcePath;
+
+        @Label("Added")
+        int added;
+
+        @Label("Removed")
+        int removed;
+    }
+}
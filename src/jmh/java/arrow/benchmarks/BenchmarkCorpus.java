@@ -0,0 +1,90 @@
+package arrow.benchmarks;
+
+import arrow.KotlinCorpusGenerator;
+import arrow.runner.LstCache;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kotlin sources shared by the benchmarks, generated by the {@link KotlinCorpusGenerator} of the test source set.
+ */
+public final class BenchmarkCorpus {
+
+    /**
+     * Fixed, so results of different runs and machines are comparable.
+     */
+    public static final long SEED = 42;
+
+    /**
+     * The directory of the {@link LstCache} the setup of the recipe benchmarks loads the corpus from, set with
+     * `./gradlew jmh -PlstCache=dir`. Without it the corpus is parsed.
+     */
+    public static final String LST_CACHE_PROPERTY = "arrow.benchmarks.lstCache";
+
+    private static final long LST_CACHE_BYTES = 4L * 1024 * 1024 * 1024;
+
+    private BenchmarkCorpus() {
+    }
+
+    public static List<Parser.Input> inputs(int fileCount) {
+        return generator(fileCount).inputs();
+    }
+
+    public static KotlinCorpusGenerator generator(int fileCount) {
+        return new KotlinCorpusGenerator().seed(SEED).files(fileCount);
+    }
+
+    public static List<SourceFile> parse(List<Parser.Input> inputs) {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        return new ArrayList<>(parser().build().parseInputs(inputs, null, ctx));
+    }
+
+    /**
+     * The parsed corpus, loaded from the {@link LstCache} when {@link #LST_CACHE_PROPERTY} is set.
+     */
+    public static List<SourceFile> parse(KotlinCorpusGenerator generator) {
+        String lstCache = System.getProperty(LST_CACHE_PROPERTY);
+        return lstCache == null ? parse(generator.inputs()) : parse(generator, new LstCache(Paths.get(lstCache), arrowCoreClasspath(), LST_CACHE_BYTES));
+    }
+
+    public static List<SourceFile> parse(KotlinCorpusGenerator generator, LstCache lstCache) {
+        Map<Path, byte[]> sources = new LinkedHashMap<>();
+        for (int i = 0; i < generator.fileCount(); i++) {
+            sources.put(generator.path(i), generator.source(i).getBytes(StandardCharsets.UTF_8));
+        }
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        return lstCache.parse(parser(), sources, null, ctx);
+    }
+
+    public static KotlinParser.Builder parser() {
+        return KotlinParser.builder()
+                .logCompilationWarningsAndErrors(false)
+                .classpath(arrowCoreClasspath());
+    }
+
+    /**
+     * The benchmarks may run from a shaded jar, so the jar name cannot be looked up on `java.class.path` like the
+     * tests do with `classpath("arrow-core-jvm")`. Resolve it from wherever `arrow.core.Either` was loaded instead.
+     */
+    static List<Path> arrowCoreClasspath() {
+        try {
+            Class<?> either = Class.forName("arrow.core.Either");
+            return Collections.singletonList(Paths.get(either.getProtectionDomain().getCodeSource().getLocation().toURI()));
+        } catch (ClassNotFoundException | URISyntaxException e) {
+            throw new IllegalStateException("arrow-core-jvm must be on the benchmark runtime classpath", e);
+        }
+    }
+}
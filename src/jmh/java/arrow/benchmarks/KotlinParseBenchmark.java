@@ -0,0 +1,64 @@
+package arrow.benchmarks;
+
+import arrow.KotlinCorpusGenerator;
+import arrow.runner.LstCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.Parser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures `KotlinParser` type attribution on its own, so it can be compared against {@link RecipeBenchmark} which
+ * only measures recipe execution, and against loading the same LSTs from an {@link LstCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class KotlinParseBenchmark {
+
+    @Param({"100", "1000"})
+    int fileCount;
+
+    private List<Parser.Input> inputs;
+    private KotlinCorpusGenerator generator;
+    private Path lstCacheDirectory;
+    private LstCache lstCache;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        inputs = BenchmarkCorpus.inputs(fileCount);
+        generator = BenchmarkCorpus.generator(fileCount);
+        lstCacheDirectory = Files.createTempDirectory("lst-cache");
+        lstCache = new LstCache(lstCacheDirectory, BenchmarkCorpus.arrowCoreClasspath(), Long.MAX_VALUE);
+        BenchmarkCorpus.parse(generator, lstCache);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteLstCache() throws IOException {
+        try (Stream<Path> files = Files.walk(lstCacheDirectory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void parse(RecipeBenchmark.FileCounter counter, Blackhole blackhole) {
+        blackhole.consume(BenchmarkCorpus.parse(inputs));
+        counter.files += inputs.size();
+    }
+
+    @Benchmark
+    public void loadFromLstCache(RecipeBenchmark.FileCounter counter, Blackhole blackhole) {
+        blackhole.consume(BenchmarkCorpus.parse(generator, lstCache));
+        counter.files += generator.fileCount();
+    }
+}
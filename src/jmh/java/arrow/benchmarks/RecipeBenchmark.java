@@ -0,0 +1,85 @@
+package arrow.benchmarks;
+
+import arrow.MeasuredRecipe;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.ListUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures recipe execution only: the corpus is parsed (and brought into the state the recipe expects) once per trial,
+ * so every invocation runs the recipe over the same pre-parsed LSTs.
+ * <p>
+ * The average time is the time per recipe over the whole corpus, the {@link FileCounter#files} counter is reported by
+ * JMH as files per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecipeBenchmark {
+
+    @Param({"RAISE_REFACTOR", "RAISE_REFACTOR_SINGLE_PASS", "VALIDATED_TO_EITHER",
+            "VALIDATED_TO_EITHER_SINGLE_PASS", "ADD_RAISE_EXTENSION_IMPORT", "RAISE_ENSURE_IMPORT",
+            "REWRITE_EFFECT_DSL", "CHANGE_TOP_LEVEL_FUNCTION", "CHANGE_VALIDATED_LAMBDA"})
+    MeasuredRecipe recipe;
+
+    @Param({"100", "1000"})
+    int fileCount;
+
+    private Recipe underTest;
+    private List<SourceFile> sourceFiles;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sourceFiles = BenchmarkCorpus.parse(BenchmarkCorpus.generator(fileCount));
+        for (String prerequisite : recipe.prerequisites()) {
+            sourceFiles = applyResults(sourceFiles, MeasuredRecipe.declarative(prerequisite).run(sourceFiles, ctx()));
+        }
+        underTest = recipe.recipe();
+    }
+
+    @Benchmark
+    public void run(FileCounter counter, Blackhole blackhole) {
+        blackhole.consume(underTest.run(sourceFiles, ctx()));
+        counter.files += sourceFiles.size();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class FileCounter {
+        public long files;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            files = 0;
+        }
+    }
+
+    static ExecutionContext ctx() {
+        return new InMemoryExecutionContext(Throwable::printStackTrace);
+    }
+
+    static List<SourceFile> applyResults(List<SourceFile> before, RecipeRun run) {
+        Map<UUID, SourceFile> after = new HashMap<>();
+        for (Result result : run.getResults()) {
+            if (result.getBefore() != null) {
+                after.put(result.getBefore().getId(), result.getAfter());
+            }
+        }
+        return ListUtils.map(before, s -> after.containsKey(s.getId()) ? after.get(s.getId()) : s);
+    }
+}
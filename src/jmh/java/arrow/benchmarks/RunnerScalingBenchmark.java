@@ -0,0 +1,53 @@
+package arrow.benchmarks;
+
+import arrow.runner.MigrationRunner;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.SourceFile;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MigrationRunner} running `arrow.RaiseRefactor` over pre-parsed LSTs with 1 up to 32 threads, to see
+ * how the parallel run scales with the number of cores.
+ * <p>
+ * The {@link RecipeBenchmark.FileCounter#files} counter is reported as files per second, which ideally grows linearly
+ * with the number of threads, up to the number of cores of the machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RunnerScalingBenchmark {
+
+    @Param({"1", "2", "4", "8", "16", "32"})
+    int threads;
+
+    @Param({"2000"})
+    int fileCount;
+
+    private MigrationRunner runner;
+    private List<SourceFile> sourceFiles;
+    private final Map<SourceFile, Long> sizes = new IdentityHashMap<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        sourceFiles = BenchmarkCorpus.parse(BenchmarkCorpus.generator(fileCount));
+        for (SourceFile sourceFile : sourceFiles) {
+            sizes.put(sourceFile, (long) sourceFile.printAll().length());
+        }
+        runner = new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), BenchmarkCorpus.parser())
+                .parallelism(threads);
+    }
+
+    @Benchmark
+    public void run(RecipeBenchmark.FileCounter counter, Blackhole blackhole) {
+        blackhole.consume(runner.run(sourceFiles, sizes::get));
+        counter.files += sourceFiles.size();
+    }
+}
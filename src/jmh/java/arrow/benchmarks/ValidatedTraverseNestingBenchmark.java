@@ -0,0 +1,65 @@
+package arrow.benchmarks;
+
+import arrow.ChangeValidatedLambda;
+import arrow.KotlinCorpusGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ChangeValidatedLambda} over `traverse` lambdas nested exactly {@link #depth} levels deep, to check that
+ * the cost of the rewrite grows linearly with the nesting depth.
+ * <p>
+ * The {@link LevelCounter#levels} counter is reported as nesting levels per second, which stays flat as the depth
+ * grows when the scaling is linear.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ValidatedTraverseNestingBenchmark {
+
+    @Param({"1", "4", "16", "64"})
+    int depth;
+
+    @Param({"50"})
+    int fileCount;
+
+    private Recipe underTest;
+    private List<SourceFile> sourceFiles;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        KotlinCorpusGenerator generator = BenchmarkCorpus.generator(fileCount)
+                .functionsPerFile(1, 1)
+                .nestingDepth(depth, depth);
+        for (KotlinCorpusGenerator.Feature feature : KotlinCorpusGenerator.Feature.values()) {
+            generator.density(feature, feature == KotlinCorpusGenerator.Feature.VALIDATED_TRAVERSE ? 1 : 0);
+        }
+        sourceFiles = BenchmarkCorpus.parse(generator);
+        underTest = new ChangeValidatedLambda();
+    }
+
+    @Benchmark
+    public void run(LevelCounter counter, Blackhole blackhole) {
+        blackhole.consume(underTest.run(sourceFiles, RecipeBenchmark.ctx()));
+        counter.levels += (long) sourceFiles.size() * depth;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class LevelCounter {
+        public long levels;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            levels = 0;
+        }
+    }
+}
@@ -5,11 +5,12 @@ import io.micrometer.core.lang.Nullable;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.*;
-import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.search.UsesMethod;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
-import org.openrewrite.kotlin.KotlinIsoVisitor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Previously `Effect` and `EagerEffect` were interfaces, and now they are type aliases for `Raise` based lambdas.
@@ -63,24 +64,46 @@ public class AddRaiseExtensionImport extends Recipe {
 
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new RaiseFoldImportVisitor();
+        return new RaiseFoldImportVisitor().measuredAs(this);
     }
 
     @Override
     protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
-        return Applicability.or(new UsesMethod<>(foldPattern), new UsesMethod<>(eagerFoldPattern));
+        return RecipeMetrics.applicableTest(this, ArrowUsageIndex.usesAny(Collections.emptyList(), effectMethodPatterns()));
+    }
+
+    /**
+     * The patterns of the method on `Effect` and `EagerEffect`, both before and after `ChangeType` moved them to
+     * `arrow.core.raise`. Matching both means the result does not depend on whether `ChangeType` already ran, so the
+     * composite converges in a single cycle.
+     */
+    List<String> effectMethodPatterns() {
+        return effectMethodPatterns(methodPattern);
     }
 
-    private class RaiseFoldImportVisitor extends KotlinIsoVisitor<ExecutionContext> {
-        private final MethodMatcher foldEffectMatcher = new MethodMatcher(foldPattern);
-        private final MethodMatcher foldEagerEffectMatcher = new MethodMatcher(eagerFoldPattern);
+    static List<String> effectMethodPatterns(String methodPattern) {
+        return Arrays.asList(
+                "arrow.core.raise.Effect " + methodPattern,
+                "arrow.core.raise.EagerEffect " + methodPattern,
+                "arrow.core.continuations.Effect " + methodPattern,
+                "arrow.core.continuations.EagerEffect " + methodPattern
+        );
+    }
+
+    private class RaiseFoldImportVisitor extends ImportBatchingVisitor {
+        // Interned, so the matchers are only compiled once for all instances of this recipe with the same options.
+        private final MethodMatcherIndex<String> matchers = MethodMatchers.index(effectMethodPatterns().toArray(new String[0]));
+
+        RaiseFoldImportVisitor() {
+            super(false);
+        }
 
         @Override
         public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
             J.MethodInvocation m = (J.MethodInvocation) super.visitMethodInvocation(method, executionContext);
-            if (foldEffectMatcher.matches(m) || foldEagerEffectMatcher.matches(m)) {
+            if (countMatch(matchers.matches(m))) {
                 // Rename method if name changed (orNull -> getOrNull)
-                if (newMethodName != null) {
+                if (newMethodName != null && !newMethodName.equals(m.getSimpleName())) {
                     // Update the type along with the name. Note: if possible ChangeMethodName is a better choice.
                     JavaType.Method type = m.getMethodType();
                     if (type != null) {
@@ -90,7 +113,7 @@ public class AddRaiseExtensionImport extends Recipe {
                 }
 
                 // Add import for raise that previously was a method on Effect/EagerEffect
-                maybeAddImport(methodImport, false);
+                addImport(methodImport, false);
             }
             return m;
         }
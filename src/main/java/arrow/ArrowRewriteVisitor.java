@@ -0,0 +1,110 @@
+package arrow;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+import org.openrewrite.kotlin.tree.K;
+
+import java.util.Map;
+
+/**
+ * Applies a table of {@link MethodRewrite}s and type changes in a single traversal of a source file, instead of one
+ * traversal per recipe like the declarative composites do.
+ * <p>
+ * Type changes only cover what `ChangeType` changes in the printed source: identifiers referring to the old type,
+ * imports of the old type, and the declaring type of method invocations. Import changes are batched, see
+ * {@link ImportBatchingVisitor}.
+ */
+class ArrowRewriteVisitor extends ImportBatchingVisitor {
+    private final MethodMatcherIndex<MethodRewrite> methodRewrites;
+    private final Map<String, String> typeRewrites;
+
+    /**
+     * @param methodRewrites the rewrites, see {@link MethodRewrite#index}. The index is immutable, so recipes build it
+     *                       once and share it between all their visitors.
+     */
+    ArrowRewriteVisitor(MethodMatcherIndex<MethodRewrite> methodRewrites, Map<String, String> typeRewrites) {
+        // Removals first, so the added imports are placed relative to the imports that remain.
+        super(true);
+        this.methodRewrites = methodRewrites;
+        this.typeRewrites = typeRewrites;
+    }
+
+    @Override
+    protected void collectImportEdits(K.CompilationUnit cu) {
+        // Like `ChangeType`, the import of the old type is removed and the new type is only imported when it is used.
+        for (J.Import anImport : cu.getImports()) {
+            String newFqn = anImport.isStatic() ? null : typeRewrites.get(anImport.getTypeName());
+            if (newFqn != null) {
+                removeImport(anImport.getTypeName());
+                addImport(newFqn, true);
+            }
+        }
+    }
+
+    // Imports are rewritten in collectImportEdits, visiting them would rename the old type inside the import.
+    @Override
+    public J.Import visitImport(J.Import _import, ExecutionContext executionContext) {
+        return _import;
+    }
+
+    @Override
+    public J.Identifier visitIdentifier(J.Identifier identifier, ExecutionContext executionContext) {
+        J.Identifier i = (J.Identifier) super.visitIdentifier(identifier, executionContext);
+        JavaType.FullyQualified type = TypeUtils.asFullyQualified(i.getType());
+        if (type != null) {
+            String newFqn = typeRewrites.get(type.getFullyQualifiedName());
+            if (newFqn != null && i.getSimpleName().equals(type.getClassName())) {
+                JavaType.ShallowClass newType = JavaType.ShallowClass.build(newFqn);
+                i = i.withSimpleName(newType.getClassName()).withType(newType);
+            }
+        }
+        return i;
+    }
+
+    @Override
+    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
+        J.MethodInvocation m = (J.MethodInvocation) super.visitMethodInvocation(method, executionContext);
+        MethodRewrite rewrite = countMatch(methodRewrites.find(m));
+        if (rewrite != null) {
+            m = rewrite(rewrite, m);
+        }
+        return withNewDeclaringType(m);
+    }
+
+    protected J.MethodInvocation rewrite(MethodRewrite rewrite, J.MethodInvocation m) {
+        JavaType.Method type = m.getMethodType();
+        if (rewrite.isRemoveOldImport() && type != null) {
+            removeImport(type.getDeclaringType().getPackageName() + "." + m.getSimpleName());
+        }
+
+        // A rewritten call can match again in the next cycle, so only rename when the name differs.
+        String newMethodName = rewrite.getNewMethodName();
+        if (newMethodName != null && !newMethodName.equals(m.getSimpleName())) {
+            // Update the type along with the name.
+            m = m.withName(m.getName().withSimpleName(newMethodName))
+                    .withMethodType(type == null ? null : type.withName(newMethodName));
+        }
+        if (rewrite.isRemoveReceiver() && m.getSelect() != null) {
+            m = m.withSelect(null);
+        }
+
+        if (rewrite.getNewMethodImport() != null) {
+            addImport(rewrite.getNewMethodImport(), false);
+        }
+        for (String removed : rewrite.getRemovedImports()) {
+            removeImport(removed);
+        }
+        return m;
+    }
+
+    private J.MethodInvocation withNewDeclaringType(J.MethodInvocation m) {
+        JavaType.Method type = m.getMethodType();
+        if (type == null) {
+            return m;
+        }
+        String newFqn = typeRewrites.get(type.getDeclaringType().getFullyQualifiedName());
+        return newFqn == null ? m : m.withMethodType(type.withDeclaringType(JavaType.ShallowClass.build(newFqn)));
+    }
+}
@@ -0,0 +1,271 @@
+package arrow;
+
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.Recipe;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.ChangeMethodName;
+import org.openrewrite.java.ChangeType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A raw text scan that runs before parsing, to skip the type attributed parse of Kotlin sources the Arrow recipes
+ * cannot change.
+ * <p>
+ * The tokens are derived from the recipes: the simple names of the methods and declaring types of their method
+ * patterns, the simple names of the types they change and the packages they migrate from. Every invocation or type
+ * reference the recipes rewrite spells at least one of them in the source, even with star or aliased imports, so a
+ * source containing none of them is left unchanged. Tokens are matched as plain substrings, which keeps the scan
+ * conservative. Declarative and composite recipes contribute the tokens of their recipe list. A recipe with a visitor
+ * the prefilter does not know, one that visits the whole set of source files, or a pattern with a wildcard method name,
+ * disables skipping.
+ * <p>
+ * The runners in `arrow.runner` select the sources with the prefilter of their recipe before parsing them.
+ */
+public final class ArrowSourcePrefilter {
+    private static final ArrowSourcePrefilter NONE = new ArrowSourcePrefilter(null);
+
+    @Nullable
+    private final Set<String> tokens;
+
+    // Tokens grouped by their first byte, so the scan only compares the tokens that can start at a position.
+    private final byte[][][] tokensByFirstByte = new byte[256][][];
+
+    private ArrowSourcePrefilter(@Nullable Set<String> tokens) {
+        this.tokens = tokens == null ? null : Collections.unmodifiableSet(tokens);
+        if (tokens != null) {
+            for (String token : tokens) {
+                byte[] bytes = token.getBytes(StandardCharsets.UTF_8);
+                byte[][] group = tokensByFirstByte[bytes[0] & 0xFF];
+                group = group == null ? new byte[1][] : Arrays.copyOf(group, group.length + 1);
+                group[group.length - 1] = bytes;
+                tokensByFirstByte[bytes[0] & 0xFF] = group;
+            }
+        }
+    }
+
+    /**
+     * A prefilter for running the given recipes, and any recipes they contain.
+     */
+    public static ArrowSourcePrefilter forRecipes(Recipe... recipes) {
+        return forRecipes(Arrays.asList(recipes));
+    }
+
+    public static ArrowSourcePrefilter forRecipes(Collection<? extends Recipe> recipes) {
+        Set<String> tokens = new TreeSet<>();
+        for (Recipe recipe : recipes) {
+            if (!collectTokens(recipe, tokens)) {
+                return NONE;
+            }
+        }
+        return new ArrowSourcePrefilter(tokens);
+    }
+
+    /**
+     * The tokens a source has to contain to be selected, or `null` when no source is skipped.
+     */
+    @Nullable
+    public Set<String> getTokens() {
+        return tokens;
+    }
+
+    public boolean mayChange(String source) {
+        return mayChange(source.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean mayChange(byte[] source) {
+        if (tokens == null) {
+            return true;
+        }
+        for (int i = 0; i < source.length; i++) {
+            byte[][] candidates = tokensByFirstByte[source[i] & 0xFF];
+            if (candidates != null) {
+                for (byte[] token : candidates) {
+                    if (startsWith(source, i, token)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Scans the sources, and returns the sources that may change, with their parser inputs. The inputs read the sources
+     * again when they are parsed, so the scanned bytes are not kept in memory.
+     *
+     * @param relativeTo the directory the paths of the inputs are relative to, usually the project directory.
+     */
+    public Selection select(Path relativeTo, Iterable<Path> sources) {
+        List<Path> selected = new ArrayList<>();
+        List<Parser.Input> inputs = new ArrayList<>();
+        int skippedFiles = 0;
+        long scannedBytes = 0;
+        long skippedBytes = 0;
+        for (Path source : sources) {
+            byte[] bytes;
+            try {
+                bytes = Files.readAllBytes(source);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            scannedBytes += bytes.length;
+            if (mayChange(bytes)) {
+                selected.add(source);
+                inputs.add(new Parser.Input(relativeTo.relativize(source), () -> {
+                    try {
+                        return Files.newInputStream(source);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+            } else {
+                skippedFiles++;
+                skippedBytes += bytes.length;
+            }
+        }
+        return new Selection(selected, inputs, inputs.size() + skippedFiles, skippedFiles, scannedBytes, skippedBytes);
+    }
+
+    @Value
+    public static class Selection {
+        /**
+         * The sources that may change, in their order.
+         */
+        List<Path> sources;
+
+        List<Parser.Input> inputs;
+        int scannedFiles;
+        int skippedFiles;
+        long scannedBytes;
+        long skippedBytes;
+
+        @Override
+        public String toString() {
+            return String.format("Skipped %d of %d files (%d of %d bytes) without Arrow usage",
+                    skippedFiles, scannedFiles, skippedBytes, scannedBytes);
+        }
+    }
+
+    /**
+     * @return false when the recipe could change sources without any of the tokens we know about.
+     */
+    private static boolean collectTokens(Recipe recipe, Set<String> tokens) {
+        if (recipe instanceof ChangeType) {
+            typeTokens(((ChangeType) recipe).getOldFullyQualifiedTypeName(), tokens);
+        } else if (recipe instanceof ChangeMethodName) {
+            return methodTokens(((ChangeMethodName) recipe).getMethodPattern(), tokens);
+        } else if (recipe instanceof ChangeTopLevelFunction) {
+            return methodTokens(((ChangeTopLevelFunction) recipe).getMethodPattern(), tokens);
+        } else if (recipe instanceof AddRaiseExtensionImport) {
+            return methodTokens(((AddRaiseExtensionImport) recipe).effectMethodPatterns(), tokens);
+        } else if (recipe instanceof RaiseEnsureImport) {
+            return methodTokens(RaiseEnsureImport.IMPORTS.getMethodPatterns(), tokens);
+        } else if (recipe instanceof RewriteEffectDSL) {
+            tokens.add(((RewriteEffectDSL) recipe).getOldPackage());
+            return methodTokens(RewriteEffectDSL.DSL_INDEX.getMethodPatterns(), tokens);
+        } else if (recipe instanceof FindArrowUsages) {
+            return methodTokens(FindArrowUsages.USAGES.getMethodPatterns(), tokens);
+        } else if (recipe instanceof RewriteDeprecatedApi) {
+            return methodTokens(((RewriteDeprecatedApi) recipe).table().getIndex().getMethodPatterns(), tokens);
+        } else if (recipe instanceof ChangeValidatedLambda) {
+            return methodTokens(ValidatedTraverseVisitor.TRAVERSE_PATTERN, tokens);
+        } else if (recipe instanceof RaiseRefactorSinglePass) {
+            RaiseRefactorSinglePass.TYPE_REWRITES.keySet().forEach(type -> typeTokens(type, tokens));
+            return methodTokens(RaiseRefactorSinglePass.METHOD_INDEX.getMethodPatterns(), tokens);
+        } else if (recipe instanceof ValidatedToEitherSinglePass) {
+            ValidatedToEitherSinglePass.TYPE_REWRITES.keySet().forEach(type -> typeTokens(type, tokens));
+            return methodTokens(ValidatedToEitherSinglePass.METHOD_INDEX.getMethodPatterns(), tokens) &&
+                   methodTokens(ValidatedTraverseVisitor.TRAVERSE_PATTERN, tokens);
+        } else if (hasOwnVisitor(recipe.getClass())) {
+            return false;
+        }
+
+        for (Recipe next : recipe.getRecipeList()) {
+            if (!collectTokens(next, tokens)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the recipe does anything besides running its recipe list, like declarative and composite recipes do,
+     * with a visitor or by visiting the whole set of source files.
+     */
+    private static boolean hasOwnVisitor(Class<?> recipeClass) {
+        return declares(recipeClass, "getVisitor") || declares(recipeClass, "visit", List.class, ExecutionContext.class);
+    }
+
+    private static boolean declares(Class<?> recipeClass, String method, Class<?>... parameterTypes) {
+        for (Class<?> c = recipeClass; c != Recipe.class && c != null; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(method, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not overridden here, check the superclass.
+            }
+        }
+        return false;
+    }
+
+    private static void typeTokens(String fullyQualifiedName, Set<String> tokens) {
+        tokens.add(simpleName(fullyQualifiedName));
+    }
+
+    private static boolean methodTokens(List<String> methodPatterns, Set<String> tokens) {
+        for (String methodPattern : methodPatterns) {
+            if (!methodTokens(methodPattern, tokens)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean methodTokens(String methodPattern, Set<String> tokens) {
+        int arguments = methodPattern.indexOf('(');
+        String signature = (arguments < 0 ? methodPattern : methodPattern.substring(0, arguments)).trim();
+        int separator = Math.max(signature.lastIndexOf(' '), signature.lastIndexOf('#'));
+        String name = signature.substring(separator + 1);
+        if (name.isEmpty() || name.contains("*")) {
+            return false;
+        }
+        tokens.add(name);
+        if (separator > 0) {
+            String type = simpleName(signature.substring(0, separator).trim());
+            if (!type.isEmpty() && !type.contains("*")) {
+                tokens.add(type);
+            }
+        }
+        return true;
+    }
+
+    private static String simpleName(String fullyQualifiedName) {
+        return fullyQualifiedName.substring(Math.max(fullyQualifiedName.lastIndexOf('.'), fullyQualifiedName.lastIndexOf('$')) + 1);
+    }
+
+    private static boolean startsWith(byte[] source, int offset, byte[] token) {
+        if (offset + token.length > source.length) {
+            return false;
+        }
+        for (int i = 1; i < token.length; i++) {
+            if (source[offset + i] != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
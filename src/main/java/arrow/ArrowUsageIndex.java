@@ -0,0 +1,291 @@
+package arrow;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaSourceFile;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.marker.SearchResult;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The types and methods a source file uses, collected once per source file and shared by the applicability tests of
+ * all Arrow recipes, instead of every `UsesType` and `UsesMethod` walking the source file again.
+ * <p>
+ * The index contains every fully qualified name `UsesType` and every method `UsesMethod` could find: the types, methods
+ * and variables in `TypesInUse`, the declaring, return and parameter types of those methods, and the imports. The
+ * answer for a method pattern is computed on first use and remembered in a bitset, keyed by the id of the pattern.
+ * <p>
+ * Indexes are kept in the {@link ExecutionContext}, together with the ids of the patterns and applicability tests, so
+ * the patterns of recipes configured with options do not outlive the context. An index is reused as long as the source
+ * file is the same instance, so a source file changed by an earlier recipe gets a new index. An unchanged source file
+ * keeps its index in the next cycle, and with it the answers of the applicability tests, which are remembered in a
+ * bitset too. An index only holds on to its source file weakly, and is dropped once the source file is collected, or
+ * when a visitor changed it, see {@link #drop(JavaSourceFile, ExecutionContext)}.
+ */
+final class ArrowUsageIndex {
+    private static final String INDEXES = ArrowUsageIndex.class.getName() + ".INDEXES";
+
+    private final Indexes indexes;
+    private final SourceFileReference sourceFile;
+    private final Set<String> types = new HashSet<>();
+    private final Map<String, List<JavaType.Method>> methodsByName = new HashMap<>();
+
+    // Guarded by `this`.
+    private final BitSet evaluatedPatterns = new BitSet();
+    private final BitSet usedPatterns = new BitSet();
+    private final BitSet evaluatedQueries = new BitSet();
+    private final BitSet matchedQueries = new BitSet();
+
+    private ArrowUsageIndex(Indexes indexes, JavaSourceFile sourceFile) {
+        this.indexes = indexes;
+        this.sourceFile = new SourceFileReference(sourceFile, indexes.collected);
+        // `TypesInUse` is computed in a single walk, and cached by the source file.
+        for (JavaType type : sourceFile.getTypesInUse().getTypesInUse()) {
+            addType(type);
+        }
+        for (JavaType.Variable variable : sourceFile.getTypesInUse().getVariables()) {
+            addType(variable.getType());
+        }
+        for (JavaType.Method method : sourceFile.getTypesInUse().getUsedMethods()) {
+            addMethod(method);
+        }
+        for (JavaType.Method method : sourceFile.getTypesInUse().getDeclaredMethods()) {
+            addMethod(method);
+        }
+        for (J.Import anImport : sourceFile.getImports()) {
+            types.add(anImport.getTypeName());
+        }
+    }
+
+    static ArrowUsageIndex of(JavaSourceFile sourceFile, ExecutionContext ctx) {
+        Indexes indexes = indexes(ctx);
+        indexes.expungeCollected();
+        ArrowUsageIndex index = indexes.bySourceFile.get(sourceFile.getId());
+        if (index == null || index.sourceFile.get() != sourceFile) {
+            index = new ArrowUsageIndex(indexes, sourceFile);
+            indexes.bySourceFile.put(sourceFile.getId(), index);
+        }
+        return index;
+    }
+
+    /**
+     * Drops the index of a source file a visitor is done with, because it changed the source file, and the next
+     * applicability test gets a new instance anyway.
+     */
+    static void drop(JavaSourceFile sourceFile, ExecutionContext ctx) {
+        Indexes indexes = ctx.getMessage(INDEXES);
+        if (indexes != null) {
+            indexes.bySourceFile.computeIfPresent(sourceFile.getId(), (id, index) -> index.sourceFile.get() == sourceFile ? null : index);
+        }
+    }
+
+    private static Indexes indexes(ExecutionContext ctx) {
+        Indexes indexes = ctx.getMessage(INDEXES);
+        if (indexes == null) {
+            synchronized (ctx) {
+                indexes = ctx.getMessage(INDEXES);
+                if (indexes == null) {
+                    indexes = new Indexes();
+                    ctx.putMessage(INDEXES, indexes);
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * An applicability test that finds source files using any of the types, or calling any of the methods.
+     */
+    static TreeVisitor<?, ExecutionContext> usesAny(Collection<String> fullyQualifiedTypeNames, Collection<String> methodPatterns) {
+        return new UsesAny(new ArrayList<>(fullyQualifiedTypeNames), new ArrayList<>(methodPatterns));
+    }
+
+    static TreeVisitor<?, ExecutionContext> usesAnyType(String... fullyQualifiedTypeNames) {
+        return usesAny(Arrays.asList(fullyQualifiedTypeNames), Collections.emptyList());
+    }
+
+    static TreeVisitor<?, ExecutionContext> usesAnyMethod(String... methodPatterns) {
+        return usesAny(Collections.emptyList(), Arrays.asList(methodPatterns));
+    }
+
+    /**
+     * An applicability test that finds source files calling any of the indexed methods. Instead of evaluating every
+     * pattern, the methods the source file calls are looked up in the index, so the cost does not grow with the size of
+     * the index.
+     */
+    static TreeVisitor<?, ExecutionContext> usesAnyMethod(MethodMatcherIndex<?> methods) {
+        return new UsesAny(Collections.emptyList(), methods.getMethodPatterns(), methods);
+    }
+
+    boolean usesType(String fullyQualifiedTypeName) {
+        return types.contains(fullyQualifiedTypeName);
+    }
+
+    boolean usesMethod(String methodPattern) {
+        int id = indexes.patternIds.computeIfAbsent(methodPattern, p -> indexes.nextPatternId.getAndIncrement());
+        synchronized (this) {
+            if (!evaluatedPatterns.get(id)) {
+                evaluatedPatterns.set(id);
+                usedPatterns.set(id, matches(methodPattern));
+            }
+            return usedPatterns.get(id);
+        }
+    }
+
+    private boolean usesAny(String query, List<String> fullyQualifiedTypeNames, List<String> methodPatterns,
+                            @Nullable MethodMatcherIndex<?> methodIndex) {
+        int queryId = indexes.queryIds.computeIfAbsent(query, q -> indexes.nextQueryId.getAndIncrement());
+        synchronized (this) {
+            if (evaluatedQueries.get(queryId)) {
+                return matchedQueries.get(queryId);
+            }
+        }
+        boolean matched = false;
+        for (String type : fullyQualifiedTypeNames) {
+            if (usesType(type)) {
+                matched = true;
+                break;
+            }
+        }
+        if (methodIndex != null) {
+            matched = matched || usesAnyMethod(methodIndex);
+        } else {
+            for (int i = 0; !matched && i < methodPatterns.size(); i++) {
+                matched = usesMethod(methodPatterns.get(i));
+            }
+        }
+        synchronized (this) {
+            evaluatedQueries.set(queryId);
+            matchedQueries.set(queryId, matched);
+        }
+        return matched;
+    }
+
+    private boolean usesAnyMethod(MethodMatcherIndex<?> methodIndex) {
+        for (List<JavaType.Method> methods : methodsByName.values()) {
+            for (JavaType.Method method : methods) {
+                if (methodIndex.find(method) != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean matches(String methodPattern) {
+        // Only the methods with the name of the pattern can match, unless the name is a wildcard.
+        int arguments = methodPattern.indexOf('(');
+        String signature = (arguments < 0 ? methodPattern : methodPattern.substring(0, arguments)).trim();
+        String name = signature.substring(Math.max(signature.lastIndexOf(' '), signature.lastIndexOf('#')) + 1);
+        MethodMatcherIndex<String> matcher = MethodMatchers.index(methodPattern);
+        Collection<List<JavaType.Method>> candidates = name.contains("*") ?
+                methodsByName.values() :
+                Collections.singletonList(methodsByName.getOrDefault(name, Collections.emptyList()));
+        for (List<JavaType.Method> methods : candidates) {
+            for (JavaType.Method method : methods) {
+                if (matcher.find(method) != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addMethod(JavaType.Method method) {
+        methodsByName.computeIfAbsent(method.getName(), n -> new ArrayList<>()).add(method);
+        addType(method.getDeclaringType());
+        addType(method.getReturnType());
+        for (JavaType parameterType : method.getParameterTypes()) {
+            addType(parameterType);
+        }
+    }
+
+    private void addType(@Nullable JavaType type) {
+        if (type instanceof JavaType.Parameterized) {
+            for (JavaType parameter : ((JavaType.Parameterized) type).getTypeParameters()) {
+                addType(parameter);
+            }
+        }
+        if (type instanceof JavaType.FullyQualified) {
+            types.add(((JavaType.FullyQualified) type).getFullyQualifiedName());
+        }
+    }
+
+    /**
+     * The indexes of the source files, and the ids of the patterns and applicability tests, of one context.
+     */
+    private static final class Indexes {
+        final Map<UUID, ArrowUsageIndex> bySourceFile = new ConcurrentHashMap<>();
+        final ReferenceQueue<JavaSourceFile> collected = new ReferenceQueue<>();
+
+        final Map<String, Integer> patternIds = new ConcurrentHashMap<>();
+        final AtomicInteger nextPatternId = new AtomicInteger();
+        final Map<String, Integer> queryIds = new ConcurrentHashMap<>();
+        final AtomicInteger nextQueryId = new AtomicInteger();
+
+        void expungeCollected() {
+            for (Reference<? extends JavaSourceFile> reference; (reference = collected.poll()) != null; ) {
+                SourceFileReference sourceFile = (SourceFileReference) reference;
+                bySourceFile.computeIfPresent(sourceFile.id, (id, index) -> index.sourceFile == sourceFile ? null : index);
+            }
+        }
+    }
+
+    private static final class SourceFileReference extends WeakReference<JavaSourceFile> {
+        final UUID id;
+
+        SourceFileReference(JavaSourceFile sourceFile, ReferenceQueue<JavaSourceFile> queue) {
+            super(sourceFile, queue);
+            this.id = sourceFile.getId();
+        }
+    }
+
+    private static final class UsesAny extends TreeVisitor<Tree, ExecutionContext> {
+        private final List<String> types;
+        private final List<String> methodPatterns;
+        @Nullable
+        private final MethodMatcherIndex<?> methodIndex;
+
+        // The key of the id of this applicability test, equal for every instance with the same types and patterns.
+        private final String query;
+
+        UsesAny(List<String> types, List<String> methodPatterns) {
+            this(types, methodPatterns, null);
+        }
+
+        UsesAny(List<String> types, List<String> methodPatterns, @Nullable MethodMatcherIndex<?> methodIndex) {
+            this.types = types;
+            this.methodPatterns = methodPatterns;
+            this.methodIndex = methodIndex;
+            this.query = types + "\n" + methodPatterns;
+        }
+
+        @Override
+        @Nullable
+        public Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
+            if (tree instanceof JavaSourceFile && of((JavaSourceFile) tree, ctx).usesAny(query, types, methodPatterns, methodIndex)) {
+                return SearchResult.found(tree);
+            }
+            return tree;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package arrow;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+
+import java.nio.file.Path;
+
+/**
+ * The Arrow 1.1 API usages found by {@link FindArrowUsages}, one row per usage per source file.
+ * <p>
+ * By default, rows are collected in the {@link ExecutionContext} like for any other data table. After
+ * {@link #streamTo(ExecutionContext, CsvDataTableWriter)} they are written to the CSV file as they are found instead, so
+ * a search over a large repository does not hold its rows in memory.
+ */
+public class ArrowUsageTable extends DataTable<ArrowUsageTable.Row> {
+    private static final String STREAM = ArrowUsageTable.class.getName() + ".STREAM";
+
+    public ArrowUsageTable(Recipe recipe) {
+        super(recipe, "Arrow usages", "The Arrow 1.1 API usages that the migration recipes rewrite.");
+    }
+
+    /**
+     * Writes the rows inserted with this context to the writer, instead of collecting them in the context.
+     */
+    public static void streamTo(ExecutionContext ctx, CsvDataTableWriter<Row> writer) {
+        ctx.putMessage(STREAM, writer);
+    }
+
+    /**
+     * Writes the rows inserted with a context to the writer of another context, if that one streams its rows, like the
+     * contexts a runner migrates the files of one run with.
+     */
+    public static void streamLike(ExecutionContext ctx, ExecutionContext like) {
+        CsvDataTableWriter<Row> stream = like.getMessage(STREAM);
+        if (stream != null) {
+            streamTo(ctx, stream);
+        }
+    }
+
+    @Override
+    public void insertRow(ExecutionContext ctx, Row row) {
+        CsvDataTableWriter<Row> stream = ctx.getMessage(STREAM);
+        if (stream == null) {
+            super.insertRow(ctx, row);
+        } else {
+            stream.write(row);
+        }
+    }
+
+    /**
+     * The module of a source file, the directories before its `src` directory, or `.` for the root project.
+     */
+    public static String moduleOf(Path sourcePath) {
+        for (int i = 0; i < sourcePath.getNameCount(); i++) {
+            if ("src".equals(sourcePath.getName(i).toString())) {
+                return i == 0 ? "." : sourcePath.subpath(0, i).toString().replace('\\', '/');
+            }
+        }
+        return ".";
+    }
+
+    @Value
+    public static class Row {
+        @Column(displayName = "Module",
+                description = "The module of the source file, `.` for the root project.")
+        String module;
+
+        @Column(displayName = "Source path",
+                description = "The path of the source file.")
+        String sourcePath;
+
+        @Column(displayName = "Usage",
+                description = "The API that is used, like `either.eager` or `EffectScope.shift`.")
+        String usage;
+
+        @Column(displayName = "Recipe",
+                description = "The recipe that migrates the usage.")
+        String recipe;
+
+        @Column(displayName = "Count",
+                description = "The number of usages in the source file.")
+        int count;
+    }
+}
@@ -7,10 +7,8 @@ import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.*;
 import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.search.UsesMethod;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
-import org.openrewrite.kotlin.KotlinIsoVisitor;
 
 /**
  * Rewrites Kotlin's top level functions from one to another. This seems to not be supported by `ChangeMethodName`.
@@ -58,35 +56,40 @@ public class ChangeTopLevelFunction extends Recipe {
 
     @Override
     protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
-        return Applicability.or(new UsesMethod<>(methodPattern));
+        return RecipeMetrics.applicableTest(this, ArrowUsageIndex.usesAnyMethod(methodPattern));
     }
 
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new ChangeTopLevelFunctionVisitor(new MethodMatcher(methodPattern));
+        return new ChangeTopLevelFunctionVisitor(MethodMatchers.matcher(methodPattern)).measuredAs(this);
     }
 
-    private class ChangeTopLevelFunctionVisitor extends KotlinIsoVisitor<ExecutionContext> {
+    private class ChangeTopLevelFunctionVisitor extends ImportBatchingVisitor {
         private final MethodMatcher methodMatcher;
 
         private ChangeTopLevelFunctionVisitor(MethodMatcher methodMatcher) {
+            super(false);
             this.methodMatcher = methodMatcher;
         }
 
         @Override
         public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
             J.MethodInvocation m = (J.MethodInvocation) super.visitMethodInvocation(method, executionContext);
-            if (methodMatcher.matches(m) && m.getMethodType() != null) {
+            if (countMatch(methodMatcher.matches(m)) && m.getMethodType() != null) {
                 String importToRemove = m.getMethodType().getDeclaringType().getPackageName() + "." + m.getName().getSimpleName();
                 // Update the type along with the name. Note: if possible ChangeMethodName is a better choice.
-                JavaType.Method type = m.getMethodType();
-                type = type.withName(newMethodName);
-                m = m.withName(m.getName().withSimpleName(newMethodName)).withMethodType(type);
+                // The declaring type keeps its old package, so a renamed call still matches in the next cycle. Only
+                // rename when the name differs, so that does not count as another change.
+                if (!newMethodName.equals(m.getSimpleName())) {
+                    JavaType.Method type = m.getMethodType();
+                    type = type.withName(newMethodName);
+                    m = m.withName(m.getName().withSimpleName(newMethodName)).withMethodType(type);
+                }
 
                 if (newMethodImport != null) {
-                    maybeAddImport(newMethodImport, null, false);
+                    addImport(newMethodImport, false);
                 }
-                maybeRemoveImport(importToRemove);
+                removeImport(importToRemove);
             }
             return m;
         }
@@ -0,0 +1,102 @@
+package arrow;
+
+import org.openrewrite.Column;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the rows of a data table to a CSV file as they are inserted, instead of keeping them in the
+ * {@link org.openrewrite.ExecutionContext} until the run ends. The columns are the fields of the row type annotated
+ * with {@link Column}, in declaration order.
+ * <p>
+ * Rows can be written from several threads, like from the tasks of a parallel run, and each row is written as a whole.
+ */
+public final class CsvDataTableWriter<Row> implements Closeable {
+    private final List<Field> columns;
+    private final BufferedWriter out;
+    private long rows;
+
+    private CsvDataTableWriter(List<Field> columns, BufferedWriter out) {
+        this.columns = columns;
+        this.out = out;
+    }
+
+    public static <Row> CsvDataTableWriter<Row> open(Class<Row> rowType, Path csv) throws IOException {
+        List<Field> columns = new ArrayList<>();
+        for (Field field : rowType.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && field.isAnnotationPresent(Column.class)) {
+                field.setAccessible(true);
+                columns.add(field);
+            }
+        }
+        if (columns.isEmpty()) {
+            throw new IllegalArgumentException(rowType.getName() + " has no fields annotated with @Column");
+        }
+
+        Path parent = csv.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        CsvDataTableWriter<Row> writer = new CsvDataTableWriter<>(columns, Files.newBufferedWriter(csv, StandardCharsets.UTF_8));
+        List<String> header = new ArrayList<>(columns.size());
+        for (Field column : columns) {
+            header.add(column.getName());
+        }
+        writer.writeLine(header);
+        return writer;
+    }
+
+    public synchronized void write(Row row) {
+        List<String> values = new ArrayList<>(columns.size());
+        try {
+            for (Field column : columns) {
+                Object value = column.get(row);
+                values.add(value == null ? "" : value.toString());
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        try {
+            writeLine(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rows++;
+    }
+
+    public synchronized long getRowCount() {
+        return rows;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    private void writeLine(List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(escape(values.get(i)));
+        }
+        out.write('\n');
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
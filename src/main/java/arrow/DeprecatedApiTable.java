@@ -0,0 +1,124 @@
+package arrow;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A table of {@link MethodRewrite}s for deprecated Arrow APIs, read from a compact text format instead of one YAML
+ * recipe entry per API.
+ * <p>
+ * Every line that is not empty and does not start with `#` is one rewrite, with five tab separated columns:
+ * <pre>
+ * methodPattern  newMethodName  newMethodImport  flags  removedImports
+ * </pre>
+ * `-` stands for an empty column. The flags are `t` to remove the import of the old top-level function, see
+ * {@link MethodRewrite#isRemoveOldImport()}, and `r` to drop the receiver, see {@link MethodRewrite#isRemoveReceiver()}.
+ * The removed imports are separated by commas. The first rewrite in the table matching an invocation wins.
+ * <p>
+ * The shipped table is generated from the `@Deprecated` annotations in the `arrow-core-jvm` jar while building the
+ * resources, by `./gradlew generateDeprecationTable`, see `DeprecationTableGenerator` in the `generator` source set.
+ * <p>
+ * Tables are loaded once per class loader resource, and the rewrites are indexed by method name and declaring type, so
+ * the cost of applying a table does not grow with the number of rewrites in it.
+ */
+final class DeprecatedApiTable {
+    static final String DEFAULT_RESOURCE = "META-INF/rewrite/arrow-deprecations.tsv";
+
+    private static final Map<String, DeprecatedApiTable> LOADED = new ConcurrentHashMap<>();
+
+    private final List<MethodRewrite> rewrites;
+    private final MethodMatcherIndex<MethodRewrite> index;
+
+    private DeprecatedApiTable(List<MethodRewrite> rewrites) {
+        this.rewrites = Collections.unmodifiableList(rewrites);
+        this.index = MethodRewrite.index(this.rewrites);
+    }
+
+    static DeprecatedApiTable load(String resource) {
+        return LOADED.computeIfAbsent(resource, DeprecatedApiTable::read);
+    }
+
+    static DeprecatedApiTable parse(Reader reader) throws IOException {
+        List<MethodRewrite> rewrites = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(reader);
+        int lineNumber = 0;
+        for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+            lineNumber++;
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                rewrites.add(parseLine(line));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid rewrite on line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        return new DeprecatedApiTable(rewrites);
+    }
+
+    List<MethodRewrite> getRewrites() {
+        return rewrites;
+    }
+
+    MethodMatcherIndex<MethodRewrite> getIndex() {
+        return index;
+    }
+
+    private static DeprecatedApiTable read(String resource) {
+        ClassLoader classLoader = DeprecatedApiTable.class.getClassLoader();
+        InputStream in = classLoader.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("Mapping table " + resource + " not found on the classpath");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read mapping table " + resource, e);
+        }
+    }
+
+    private static MethodRewrite parseLine(String line) {
+        String[] columns = line.split("\t", -1);
+        if (columns.length != 5) {
+            throw new IllegalArgumentException("expected 5 tab separated columns, found " + columns.length);
+        }
+        String methodPattern = columns[0].trim();
+        if (methodPattern.isEmpty() || "-".equals(methodPattern)) {
+            throw new IllegalArgumentException("missing method pattern");
+        }
+        String flags = optional(columns[3]);
+        if (flags != null && !flags.matches("[rt]+")) {
+            throw new IllegalArgumentException("unknown flags " + flags);
+        }
+        String removedImports = optional(columns[4]);
+        return new MethodRewrite(
+                methodPattern,
+                optional(columns[1]),
+                optional(columns[2]),
+                removedImports == null ?
+                        Collections.emptyList() :
+                        Collections.unmodifiableList(Arrays.asList(removedImports.split(","))),
+                flags != null && flags.indexOf('t') >= 0,
+                flags != null && flags.indexOf('r') >= 0
+        );
+    }
+
+    @Nullable
+    private static String optional(String column) {
+        String value = column.trim();
+        return value.isEmpty() || "-".equals(value) ? null : value;
+    }
+}
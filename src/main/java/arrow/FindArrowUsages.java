@@ -0,0 +1,143 @@
+package arrow;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+import org.openrewrite.kotlin.tree.K;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the Arrow 1.1 API usages the migration recipes rewrite, per source file, into an {@link ArrowUsageTable},
+ * without changing any source file.
+ * <p>
+ * The usages are matched with the same method patterns as `arrow.migrate.EffectScope`, `arrow.migrate.EagerEffectScope`,
+ * {@link RewriteEffectDSL}, {@link RaiseEnsureImport}, {@link AddRaiseExtensionImport} and {@link ChangeValidatedLambda}.
+ * Since nothing changes, no tree is rebuilt and nothing is printed, and the cost is one traversal of the files that
+ * pass the applicability test.
+ */
+@Value
+@EqualsAndHashCode(callSuper = true)
+public class FindArrowUsages extends Recipe {
+
+    // The method patterns `arrow.RaiseRefactor` configures `AddRaiseExtensionImport` with.
+    private static final List<String> EFFECT_METHODS = Arrays.asList("fold(..)", "toEither()", "toIor()", "toValidated()", "orNull()");
+
+    static final MethodMatcherIndex<Usage> USAGES;
+
+    static {
+        MethodMatcherIndex.Builder<Usage> usages = MethodMatcherIndex.builder();
+        for (String scope : new String[]{"EffectScope", "EagerEffectScope"}) {
+            usages.add("arrow.core.continuations." + scope + " shift(*)", usage("arrow.core.continuations." + scope + " shift(*)", "arrow.migrate." + scope));
+        }
+        for (MethodRewrite rewrite : RewriteEffectDSL.DSL_REWRITES) {
+            usages.add(rewrite.getMethodPattern(), usage(rewrite.getMethodPattern(), RewriteEffectDSL.class.getName()));
+        }
+        for (String pattern : RaiseEnsureImport.IMPORTS.getMethodPatterns()) {
+            usages.add(pattern, usage(pattern, RaiseEnsureImport.class.getName()));
+        }
+        for (String method : EFFECT_METHODS) {
+            for (String pattern : AddRaiseExtensionImport.effectMethodPatterns(method)) {
+                usages.add(pattern, usage(pattern, AddRaiseExtensionImport.class.getName()));
+            }
+        }
+        usages.add(ValidatedTraverseVisitor.TRAVERSE_PATTERN, usage("Validated.traverse", ChangeValidatedLambda.class.getName()));
+        USAGES = usages.build();
+    }
+
+    transient ArrowUsageTable usageTable = new ArrowUsageTable(this);
+
+    @JsonCreator
+    public FindArrowUsages() {
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Find Arrow usages to migrate";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Counts the Arrow 1.1 API usages that the migration recipes rewrite, per source file, without changing any source file.";
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
+        return RecipeMetrics.applicableTest(this, ArrowUsageIndex.usesAnyMethod(USAGES));
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new CountUsagesVisitor().measuredAs(this);
+    }
+
+    private static Usage usage(String methodPatternOrName, String recipe) {
+        int arguments = methodPatternOrName.indexOf('(');
+        String signature = arguments < 0 ? methodPatternOrName : methodPatternOrName.substring(0, arguments).trim();
+        int separator = signature.lastIndexOf(' ');
+        if (separator < 0) {
+            return new Usage(signature, recipe);
+        }
+        String type = signature.substring(0, separator);
+        type = type.substring(type.lastIndexOf('.') + 1);
+        String name = signature.substring(separator + 1);
+        // The implicit invoke of a DSL object, like `either { }`, is named after the object.
+        return new Usage(type + "." + (name.equals(type) ? "invoke" : name), recipe);
+    }
+
+    @Value
+    static class Usage {
+        String name;
+        String recipe;
+    }
+
+    private class CountUsagesVisitor extends ImportBatchingVisitor {
+        private final Map<Usage, Integer> counts = new LinkedHashMap<>();
+
+        CountUsagesVisitor() {
+            super(false);
+        }
+
+        @Override
+        public K.CompilationUnit visitCompilationUnit(K.CompilationUnit cu, ExecutionContext executionContext) {
+            counts.clear();
+            super.visitCompilationUnit(cu, executionContext);
+            if (isBudgetExceeded()) {
+                // Not all usages were counted.
+                counts.clear();
+                return cu;
+            }
+            String module = ArrowUsageTable.moduleOf(cu.getSourcePath());
+            String sourcePath = cu.getSourcePath().toString();
+            for (Map.Entry<Usage, Integer> count : counts.entrySet()) {
+                usageTable.insertRow(executionContext, new ArrowUsageTable.Row(module, sourcePath, count.getKey().getName(),
+                        count.getKey().getRecipe(), count.getValue()));
+            }
+            counts.clear();
+            // Search only, the source file never changes.
+            return cu;
+        }
+
+        @Override
+        public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
+            J m = super.visitMethodInvocation(method, executionContext);
+            JavaType.Method type = method.getMethodType();
+            Usage usage = USAGES.find(type);
+            // `ChangeValidatedLambda` only rewrites a `traverse` that returns `Validated`.
+            if (usage != null && (!usage.getRecipe().equals(ChangeValidatedLambda.class.getName()) ||
+                                  TypeUtils.isOfClassType(type.getReturnType(), "arrow.core.Validated"))) {
+                counts.merge(usage, 1, Integer::sum);
+            }
+            return m;
+        }
+    }
+}
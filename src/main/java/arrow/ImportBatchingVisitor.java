@@ -0,0 +1,342 @@
+package arrow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JLeftPadded;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Space;
+import org.openrewrite.java.tree.Statement;
+import org.openrewrite.java.tree.TypeTree;
+import org.openrewrite.java.tree.TypeUtils;
+import org.openrewrite.kotlin.KotlinIsoVisitor;
+import org.openrewrite.kotlin.tree.K;
+import org.openrewrite.marker.Markers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Collects the import changes of all rules while a source file is visited, and applies them at the end of the
+ * compilation unit by rewriting its import list once, in place, instead of calling `maybeAddImport` and
+ * `maybeRemoveImport` for every matching invocation. Neither costs another traversal of the source file, only the
+ * types in use are collected once when a change depends on them.
+ * <p>
+ * A visitor {@link #measuredAs(Recipe) measured as a recipe} records its time, matches and import changes per source
+ * file, see {@link RecipeMetrics}, and emits the {@link RecipeEvents} of the recipe.
+ * <p>
+ * Every source file is visited within the {@link RecipeBudget} of the context, if there is one: once it is exceeded
+ * method invocations and lambdas are no longer visited, and the source file is returned unchanged. The time of the visit
+ * counts towards the budget of the file in the whole run, and a file another recipe exceeded the budget of is not
+ * visited at all.
+ */
+class ImportBatchingVisitor extends KotlinIsoVisitor<ExecutionContext> {
+    private static final String ADD = "+";
+    private static final String REMOVE = "-";
+
+    private final boolean removalsFirst;
+
+    // Keyed by `+` or `-` followed by the import, in the order they were first requested. The value is whether an added
+    // import is only added when it is referenced.
+    private final Map<String, Boolean> importEdits = new LinkedHashMap<>();
+    private final Set<String> keptImports = new LinkedHashSet<>();
+
+    @Nullable
+    private Recipe measuredRecipe;
+
+    @Nullable
+    private Tags metricTags;
+
+    // Counted for every source file, and only recorded when the context has a meter registry.
+    private int matcherEvaluations;
+    private int matcherHits;
+    private int importsAdded;
+    private int importsRemoved;
+
+    // The budget of the current source file, and whether it was exceeded.
+    @Nullable
+    private RecipeBudget budget;
+    private long deadline;
+    private boolean budgetExceeded;
+
+    /**
+     * @param removalsFirst apply all removals before the additions, so added imports are placed relative to the
+     *                      imports that remain. Otherwise the changes are applied in the order they were requested.
+     */
+    ImportBatchingVisitor(boolean removalsFirst) {
+        this.removalsFirst = removalsFirst;
+    }
+
+    /**
+     * Records the metrics of this visitor for the recipe, when the context has a meter registry.
+     */
+    ImportBatchingVisitor measuredAs(Recipe recipe) {
+        this.measuredRecipe = recipe;
+        return this;
+    }
+
+    /**
+     * The name of the recipe this visitor is measured as, or of the visitor.
+     */
+    protected String recipeName() {
+        return measuredRecipe == null ? getClass().getName() : measuredRecipe.getName();
+    }
+
+    @Override
+    @Nullable
+    public J visit(@Nullable Tree tree, ExecutionContext executionContext) {
+        Object event = measuredRecipe != null && tree instanceof K.CompilationUnit ? RecipeEvents.INSTANCE.beginVisit() : null;
+        if (event == null) {
+            return super.visit(tree, executionContext);
+        }
+        // Includes the import changes, which are applied at the end of the compilation unit.
+        J t = super.visit(tree, executionContext);
+        RecipeEvents.INSTANCE.endVisit(event, recipeName(), ((K.CompilationUnit) tree).getSourcePath().toString(), true, t != tree);
+        return t;
+    }
+
+    @Override
+    public K.CompilationUnit visitCompilationUnit(K.CompilationUnit cu, ExecutionContext executionContext) {
+        MeterRegistry registry = measuredRecipe == null ? null : RecipeMetrics.registry(executionContext);
+        budget = RecipeBudget.of(executionContext);
+        budgetExceeded = false;
+        if (budget != null && RecipeBudget.isExceeded(executionContext, cu.getSourcePath())) {
+            // An earlier recipe of the run exceeded the budget of the file, its changes are discarded anyway.
+            budgetExceeded = true;
+            return cu;
+        }
+        long start = registry == null && budget == null ? 0 : System.nanoTime();
+        deadline = budget == null ? 0 : start + budget.remainingNanos(executionContext, recipeName(), cu.getSourcePath());
+        matcherEvaluations = matcherHits = importsAdded = importsRemoved = 0;
+        importEdits.clear();
+        keptImports.clear();
+        K.CompilationUnit c = (K.CompilationUnit) super.visitCompilationUnit(cu, executionContext);
+        if (budget != null) {
+            long elapsed = System.nanoTime() - start;
+            budget.spend(executionContext, cu.getSourcePath(), elapsed);
+            if (budgetExceeded) {
+                budget.report(executionContext, recipeName(), cu.getSourcePath(), elapsed);
+                c = cu;
+            }
+        }
+        if (!budgetExceeded) {
+            collectImportEdits(c);
+            if (!importEdits.isEmpty()) {
+                Object importEditsEvent = measuredRecipe != null && RecipeEvents.INSTANCE.isImportEditsEnabled() ?
+                        RecipeEvents.INSTANCE.beginImportEdits() : null;
+                c = editImports(c);
+                if (importEditsEvent != null) {
+                    RecipeEvents.INSTANCE.endImportEdits(importEditsEvent, recipeName(), c.getSourcePath().toString(),
+                            importsAdded, importsRemoved);
+                }
+            }
+        }
+        importEdits.clear();
+        keptImports.clear();
+        if (c != cu) {
+            // The source file changes, its index only matches the version before the change.
+            ArrowUsageIndex.drop(cu, executionContext);
+        }
+        if (registry != null) {
+            if (metricTags == null) {
+                metricTags = RecipeMetrics.tags(measuredRecipe);
+            }
+            RecipeMetrics.recordVisit(registry, metricTags, System.nanoTime() - start, c != cu,
+                    matcherEvaluations, matcherHits, importsAdded, importsRemoved);
+        }
+        return c;
+    }
+
+    /**
+     * Whether the {@link RecipeBudget} of the current source file was exceeded, which leaves it unchanged.
+     */
+    protected boolean isBudgetExceeded() {
+        return budgetExceeded;
+    }
+
+    // The budget is checked before descending into the invocations and lambdas, where the nesting and the work is.
+    @Override
+    public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
+        return budgetExceeded() ? method : super.visitMethodInvocation(method, executionContext);
+    }
+
+    @Override
+    public J visitLambda(J.Lambda lambda, ExecutionContext executionContext) {
+        return budgetExceeded() ? lambda : super.visitLambda(lambda, executionContext);
+    }
+
+    /**
+     * Whether the {@link RecipeBudget} of the current source file is spent or cancelled. Once it is, the source file is
+     * left unchanged, so visitors can stop working on it.
+     */
+    protected boolean budgetExceeded() {
+        if (budget != null && !budgetExceeded && (budget.isCancelled() || System.nanoTime() - deadline > 0)) {
+            budgetExceeded = true;
+        }
+        return budgetExceeded;
+    }
+
+    /**
+     * Counts a lookup of a method invocation in the matchers of the visitor, and whether it matched.
+     */
+    protected boolean countMatch(boolean matched) {
+        matcherEvaluations++;
+        if (matched) {
+            matcherHits++;
+        }
+        return matched;
+    }
+
+    @Nullable
+    protected <T> T countMatch(@Nullable T match) {
+        countMatch(match != null);
+        return match;
+    }
+
+    /**
+     * Called after the compilation unit was visited, to add changes that depend on the whole source file.
+     */
+    protected void collectImportEdits(K.CompilationUnit cu) {
+    }
+
+    protected void addImport(String fullyQualifiedName, boolean onlyIfReferenced) {
+        // An import that is added unconditionally wins over one that is only added when referenced.
+        importEdits.merge(ADD + fullyQualifiedName, onlyIfReferenced, Boolean::logicalAnd);
+    }
+
+    protected void removeImport(String fullyQualifiedName) {
+        importEdits.putIfAbsent(REMOVE + fullyQualifiedName, false);
+    }
+
+    /**
+     * Keeps an import that is removed elsewhere in the file, because part of the source file still uses it.
+     */
+    protected void keepImport(String fullyQualifiedName) {
+        keptImports.add(fullyQualifiedName);
+    }
+
+    /**
+     * Applies the collected import changes to the import list of the visited compilation unit, in place, so they cost no
+     * further traversal of the source file. Like `RemoveImport` and `AddImport`, an import is only removed when no type
+     * it names is still used, and an import that is only added when referenced is only added when its type is used.
+     */
+    private K.CompilationUnit editImports(K.CompilationUnit cu) {
+        List<J.Import> imports = new ArrayList<>(cu.getImports());
+        String sourcePackage = cu.getPackageDeclaration() == null ? "" : cu.getPackageDeclaration().getExpression().printTrimmed(getCursor());
+        Set<String> typesInUse = null;
+        for (String kind : removalsFirst ? new String[]{REMOVE, ADD} : new String[]{null}) {
+            for (Map.Entry<String, Boolean> edit : importEdits.entrySet()) {
+                String fullyQualifiedName = edit.getKey().substring(1);
+                if (edit.getKey().startsWith(REMOVE)) {
+                    if (kind != null && !kind.equals(REMOVE) || keptImports.contains(fullyQualifiedName)) {
+                        continue;
+                    }
+                    int i = indexOf(imports, fullyQualifiedName);
+                    if (i < 0) {
+                        continue;
+                    }
+                    if (typesInUse == null) {
+                        typesInUse = typesInUse(cu);
+                    }
+                    if (!typesInUse.contains(fullyQualifiedName)) {
+                        J.Import removed = imports.remove(i);
+                        if (i == 0 && !imports.isEmpty()) {
+                            imports.set(0, imports.get(0).withPrefix(removed.getPrefix()));
+                        }
+                        importsRemoved++;
+                    }
+                } else if (kind == null || kind.equals(ADD)) {
+                    if (indexOf(imports, fullyQualifiedName) >= 0 || isImportedByPackage(sourcePackage, imports, fullyQualifiedName)) {
+                        continue;
+                    }
+                    if (edit.getValue()) {
+                        if (typesInUse == null) {
+                            typesInUse = typesInUse(cu);
+                        }
+                        if (!typesInUse.contains(fullyQualifiedName)) {
+                            continue;
+                        }
+                    }
+                    addImport(cu, imports, fullyQualifiedName);
+                    importsAdded++;
+                }
+            }
+        }
+        if (importsAdded + importsRemoved == 0) {
+            return cu;
+        }
+        if (cu.getImports().isEmpty() && !cu.getStatements().isEmpty() && !cu.getStatements().get(0).getPrefix().getWhitespace().contains("\n")) {
+            // The first statement followed the package, or started the file, and now follows the imports.
+            List<Statement> statements = new ArrayList<>(cu.getStatements());
+            statements.set(0, statements.get(0).withPrefix(Space.format("\n\n")));
+            cu = cu.withStatements(statements);
+        }
+        return cu.withImports(imports);
+    }
+
+    /**
+     * Inserts the import before the first import that sorts after it, which keeps a sorted import list sorted.
+     */
+    private static void addImport(K.CompilationUnit cu, List<J.Import> imports, String fullyQualifiedName) {
+        int i = 0;
+        while (i < imports.size() && imports.get(i).getTypeName().compareTo(fullyQualifiedName) < 0) {
+            i++;
+        }
+        Space prefix = Space.format("\n");
+        if (i == 0) {
+            if (imports.isEmpty()) {
+                prefix = cu.getPackageDeclaration() == null ? Space.EMPTY : Space.format("\n\n");
+            } else {
+                prefix = imports.get(0).getPrefix();
+                imports.set(0, imports.get(0).withPrefix(Space.format("\n")));
+            }
+        }
+        imports.add(i, new J.Import(Tree.randomId(), prefix, Markers.EMPTY, new JLeftPadded<>(Space.EMPTY, false, Markers.EMPTY),
+                TypeTree.<J.FieldAccess>build(fullyQualifiedName).withPrefix(Space.format(" ")), null));
+    }
+
+    private static int indexOf(List<J.Import> imports, String fullyQualifiedName) {
+        for (int i = 0; i < imports.size(); i++) {
+            if (!imports.get(i).isStatic() && imports.get(i).getTypeName().equals(fullyQualifiedName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Imports of the package of the source file are not needed, nor are imports covered by a star import.
+    private static boolean isImportedByPackage(String sourcePackage, List<J.Import> imports, String fullyQualifiedName) {
+        int dot = fullyQualifiedName.lastIndexOf('.');
+        String packageName = dot < 0 ? "" : fullyQualifiedName.substring(0, dot);
+        if (sourcePackage.equals(packageName)) {
+            return true;
+        }
+        for (J.Import anImport : imports) {
+            if (!anImport.isStatic() && "*".equals(anImport.getQualid().getSimpleName()) && anImport.getPackageName().equals(packageName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // One traversal of the visited source file, shared by all the import changes.
+    private static Set<String> typesInUse(K.CompilationUnit cu) {
+        Set<String> typesInUse = new HashSet<>();
+        for (JavaType type : cu.getTypesInUse().getTypesInUse()) {
+            JavaType.FullyQualified fullyQualified = TypeUtils.asFullyQualified(type);
+            if (fullyQualified != null) {
+                typesInUse.add(fullyQualified.getFullyQualifiedName());
+            }
+        }
+        return typesInUse;
+    }
+}
@@ -0,0 +1,152 @@
+package arrow;
+
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable index of method patterns, keyed by simple method name and then by declaring type, so looking up the
+ * patterns matching an invocation costs a hash lookup instead of evaluating every {@link MethodMatcher}.
+ * <p>
+ * Only the candidates in the matching bucket are evaluated, patterns with a wildcard in the declaring type or method
+ * name are always candidates. When several patterns match, the value of the pattern that was added first wins.
+ * Instances are safe to share between threads.
+ */
+public final class MethodMatcherIndex<T> {
+    private static final String ANY = "*";
+
+    private final Map<String, Map<String, List<Entry<T>>>> byNameAndType;
+    private final List<Entry<T>> anyName;
+    private final List<String> methodPatterns;
+
+    private MethodMatcherIndex(Map<String, Map<String, List<Entry<T>>>> byNameAndType, List<Entry<T>> anyName,
+                               List<String> methodPatterns) {
+        this.byNameAndType = byNameAndType;
+        this.anyName = anyName;
+        this.methodPatterns = methodPatterns;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public boolean matches(@Nullable J.MethodInvocation method) {
+        return find(method) != null;
+    }
+
+    @Nullable
+    public T find(@Nullable J.MethodInvocation method) {
+        return method == null ? null : find(method.getMethodType());
+    }
+
+    @Nullable
+    public T find(@Nullable JavaType.Method type) {
+        if (type == null) {
+            return null;
+        }
+        Entry<T> found = null;
+        Map<String, List<Entry<T>>> byType = byNameAndType.get(type.getName());
+        if (byType != null) {
+            found = first(byType.get(normalize(type.getDeclaringType().getFullyQualifiedName())), type, null);
+            found = first(byType.get(ANY), type, found);
+        }
+        found = first(anyName, type, found);
+        return found == null ? null : found.value;
+    }
+
+    public boolean isEmpty() {
+        return methodPatterns.isEmpty();
+    }
+
+    /**
+     * The indexed patterns, in the order they were added.
+     */
+    public List<String> getMethodPatterns() {
+        return methodPatterns;
+    }
+
+    @Nullable
+    private static <T> Entry<T> first(@Nullable List<Entry<T>> candidates, JavaType.Method type, @Nullable Entry<T> found) {
+        if (candidates != null) {
+            for (Entry<T> candidate : candidates) {
+                if (found != null && candidate.order > found.order) {
+                    // Candidates are in insertion order, none of the remaining ones can win.
+                    break;
+                }
+                if (candidate.matcher.matches(type)) {
+                    return candidate;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static String normalize(String fullyQualifiedName) {
+        return fullyQualifiedName.replace('$', '.');
+    }
+
+    private static final class Entry<T> {
+        final int order;
+        final MethodMatcher matcher;
+        final T value;
+
+        Entry(int order, MethodMatcher matcher, T value) {
+            this.order = order;
+            this.matcher = matcher;
+            this.value = value;
+        }
+    }
+
+    public static final class Builder<T> {
+        private final Map<String, Map<String, List<Entry<T>>>> byNameAndType = new HashMap<>();
+        private final List<Entry<T>> anyName = new ArrayList<>();
+        private final List<String> methodPatterns = new ArrayList<>();
+        private int order;
+
+        private Builder() {
+        }
+
+        public Builder<T> add(String methodPattern, T value) {
+            Entry<T> entry = new Entry<>(order++, MethodMatchers.matcher(methodPattern), value);
+            methodPatterns.add(methodPattern);
+
+            int arguments = methodPattern.indexOf('(');
+            String signature = (arguments < 0 ? methodPattern : methodPattern.substring(0, arguments)).trim();
+            int separator = Math.max(signature.lastIndexOf(' '), signature.lastIndexOf('#'));
+            String type = separator < 0 ? ANY : signature.substring(0, separator).trim();
+            String name = signature.substring(separator + 1);
+            if (type.contains("*") || type.contains("..")) {
+                type = ANY;
+            }
+
+            if (name.contains("*")) {
+                anyName.add(entry);
+            } else {
+                byNameAndType.computeIfAbsent(name, n -> new HashMap<>())
+                        .computeIfAbsent(type.equals(ANY) ? ANY : normalize(type), t -> new ArrayList<>())
+                        .add(entry);
+            }
+            return this;
+        }
+
+        public MethodMatcherIndex<T> build() {
+            Map<String, Map<String, List<Entry<T>>>> index = new HashMap<>();
+            for (Map.Entry<String, Map<String, List<Entry<T>>>> byName : byNameAndType.entrySet()) {
+                Map<String, List<Entry<T>>> byType = new HashMap<>();
+                for (Map.Entry<String, List<Entry<T>>> entries : byName.getValue().entrySet()) {
+                    byType.put(entries.getKey(), Collections.unmodifiableList(new ArrayList<>(entries.getValue())));
+                }
+                index.put(byName.getKey(), Collections.unmodifiableMap(byType));
+            }
+            return new MethodMatcherIndex<>(Collections.unmodifiableMap(index), Collections.unmodifiableList(new ArrayList<>(anyName)),
+                    Collections.unmodifiableList(new ArrayList<>(methodPatterns)));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package arrow;
+
+import org.openrewrite.java.MethodMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns {@link MethodMatcher}s and {@link MethodMatcherIndex}es by their patterns, so they are compiled once and then
+ * shared between recipe instances, visitors and threads, instead of being rebuilt on every `getVisitor()` call.
+ * <p>
+ * The patterns come from the recipe configuration, so the number of interned entries is bounded.
+ */
+public final class MethodMatchers {
+    private static final Map<String, MethodMatcher> MATCHERS = new ConcurrentHashMap<>();
+    private static final Map<List<String>, MethodMatcherIndex<String>> INDEXES = new ConcurrentHashMap<>();
+
+    private MethodMatchers() {
+    }
+
+    public static MethodMatcher matcher(String methodPattern) {
+        return MATCHERS.computeIfAbsent(methodPattern, MethodMatcher::new);
+    }
+
+    /**
+     * An index of the given patterns, that finds the pattern matching an invocation.
+     */
+    public static MethodMatcherIndex<String> index(String... methodPatterns) {
+        return INDEXES.computeIfAbsent(Arrays.asList(methodPatterns), patterns -> {
+            MethodMatcherIndex.Builder<String> index = MethodMatcherIndex.builder();
+            for (String pattern : patterns) {
+                index.add(pattern, pattern);
+            }
+            return index.build();
+        });
+    }
+}
@@ -0,0 +1,83 @@
+package arrow;
+
+import lombok.Value;
+import lombok.With;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A single rewrite of the method invocations matching {@link #methodPattern}, the table driven counterpart of what
+ * `ChangeMethodName`, {@link ChangeTopLevelFunction}, {@link AddRaiseExtensionImport}, {@link RaiseEnsureImport} and
+ * {@link RewriteEffectDSL} do for one pattern.
+ * <p>
+ * A table of these is applied by {@link ArrowRewriteVisitor} in a single traversal of a source file.
+ */
+@Value
+@With
+public class MethodRewrite {
+    String methodPattern;
+
+    /**
+     * The new name of the method, or `null` to keep the name.
+     */
+    @Nullable
+    String newMethodName;
+
+    /**
+     * The import to add for the (renamed) method, or `null` when no import is needed.
+     */
+    @Nullable
+    String newMethodImport;
+
+    List<String> removedImports;
+
+    /**
+     * Remove the import of the matched top-level function, i.e. `{package of the declaring type}.{old name}`.
+     */
+    boolean removeOldImport;
+
+    /**
+     * Drop the receiver, to turn an object method invocation like `either.eager { }` into a top-level function call.
+     */
+    boolean removeReceiver;
+
+    /**
+     * Renames the method, like `ChangeMethodName`.
+     */
+    public static MethodRewrite rename(String methodPattern, String newMethodName) {
+        return new MethodRewrite(methodPattern, newMethodName, null, Collections.emptyList(), false, false);
+    }
+
+    /**
+     * Changes a top-level function, like {@link ChangeTopLevelFunction}.
+     */
+    public static MethodRewrite topLevelFunction(String methodPattern, String newMethodName, @Nullable String newMethodImport) {
+        return new MethodRewrite(methodPattern, newMethodName, newMethodImport, Collections.emptyList(), true, false);
+    }
+
+    /**
+     * Adds an import for a method that became an extension function, and optionally renames it, like
+     * {@link AddRaiseExtensionImport}.
+     */
+    public static MethodRewrite addImport(String methodPattern, @Nullable String newMethodName, String methodImport) {
+        return new MethodRewrite(methodPattern, newMethodName, methodImport, Collections.emptyList(), false, false);
+    }
+
+    public MethodRewrite removingImports(String... imports) {
+        return withRemovedImports(Collections.unmodifiableList(Arrays.asList(imports)));
+    }
+
+    /**
+     * Indexes a table of rewrites by their method patterns, the first rewrite in the table matching an invocation wins.
+     */
+    public static MethodMatcherIndex<MethodRewrite> index(List<MethodRewrite> rewrites) {
+        MethodMatcherIndex.Builder<MethodRewrite> index = MethodMatcherIndex.builder();
+        for (MethodRewrite rewrite : rewrites) {
+            index.add(rewrite.getMethodPattern(), rewrite);
+        }
+        return index.build();
+    }
+}
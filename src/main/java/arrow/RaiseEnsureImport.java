@@ -3,14 +3,10 @@ package arrow;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
-import org.openrewrite.Applicability;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
-import org.openrewrite.kotlin.KotlinIsoVisitor;
 
 /**
  * Add an import for a DSL function of `EffectScope` and `EagerEffectScope` that is now an extension function on `Raise`.
@@ -19,6 +15,19 @@ import org.openrewrite.kotlin.KotlinIsoVisitor;
 @Value
 @EqualsAndHashCode(callSuper = true)
 public class RaiseEnsureImport extends Recipe {
+    private static final String ENSURE = "arrow.core.raise.ensure";
+    private static final String ENSURE_NOT_NULL = "arrow.core.raise.ensureNotNull";
+
+    // Maps each pattern to the import it needs.
+    static final MethodMatcherIndex<String> IMPORTS = MethodMatcherIndex.<String>builder()
+            .add("arrow.core.continuations.EffectScope ensure(..)", ENSURE)
+            .add("arrow.core.continuations.EagerEffectScope ensure(..)", ENSURE)
+            .add("arrow.core.raise.Raise ensure(..)", ENSURE)
+            .add("arrow.core.continuations.EffectScopeKt ensureNotNull(..)", ENSURE_NOT_NULL)
+            .add("arrow.core.continuations.EagerEffectScopeKt ensureNotNull(..)", ENSURE_NOT_NULL)
+            .add("arrow.core.raise.Raise ensureNotNull(..)", ENSURE_NOT_NULL)
+            .build();
+
     @JsonCreator
     public RaiseEnsureImport() {
     }
@@ -35,28 +44,23 @@ public class RaiseEnsureImport extends Recipe {
 
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new RaiseImportVisitor();
+        return new RaiseImportVisitor().measuredAs(this);
     }
 
     // TODO add this for all DSLs functions
     @Override
     protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
-        return Applicability.or(
-                new UsesType<>("arrow.core.raise.Raise", true),
-                new UsesType<>("arrow.core.raise.Effect", true),
-                new UsesType<>("arrow.core.raise.EagerEffect", true)
-        );
+        return RecipeMetrics.applicableTest(this, ArrowUsageIndex.usesAnyType(
+                "arrow.core.raise.Raise",
+                "arrow.core.raise.Effect",
+                "arrow.core.raise.EagerEffect"
+        ));
     }
 
-    private static class RaiseImportVisitor extends KotlinIsoVisitor<ExecutionContext> {
-        private final MethodMatcher ensureEffect = new MethodMatcher("arrow.core.continuations.EffectScope ensure(..)");
-        private final MethodMatcher ensureEagerEffect = new MethodMatcher("arrow.core.continuations.EagerEffectScope ensure(..)");
-        private final MethodMatcher ensureRaise = new MethodMatcher("arrow.core.raise.Raise ensure(..)");
-
-        private final MethodMatcher ensureNotNullEffect = new MethodMatcher("arrow.core.continuations.EffectScopeKt ensureNotNull(..)");
-        private final MethodMatcher ensureNotNullEagerEffect = new MethodMatcher("arrow.core.continuations.EagerEffectScopeKt ensureNotNull(..)");
-        private final MethodMatcher ensureNotNullRaise = new MethodMatcher("arrow.core.raise.Raise ensureNotNull(..)");
-
+    private static class RaiseImportVisitor extends ImportBatchingVisitor {
+        RaiseImportVisitor() {
+            super(false);
+        }
 
         // We need to override visitLambda, so that visitMethodInvocation will also get called on the lambda's body.
         @Override
@@ -68,12 +72,12 @@ public class RaiseEnsureImport extends Recipe {
         public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
             J.MethodInvocation m = (J.MethodInvocation) super.visitMethodInvocation(method, executionContext);
             // If we get called on a lambda's body, the method invocation will still be typed to EffectScope & EagerEffectScope.
-            if (ensureRaise.matches(m) || ensureEffect.matches(m) || ensureEagerEffect.matches(m)) {
-                maybeAddImport("arrow.core.raise.ensure", false);
+            String newImport = countMatch(IMPORTS.find(m));
+            if (ENSURE_NOT_NULL.equals(newImport)) {
+                removeImport("arrow.core.continuations.ensureNotNull");
             }
-            if (ensureNotNullEffect.matches(m) || ensureNotNullEagerEffect.matches(m) || ensureNotNullRaise.matches(m)) {
-                maybeRemoveImport("arrow.core.continuations.ensureNotNull");
-                maybeAddImport("arrow.core.raise.ensureNotNull", false);
+            if (newImport != null) {
+                addImport(newImport, false);
             }
             return m;
         }
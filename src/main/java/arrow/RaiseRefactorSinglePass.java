@@ -0,0 +1,93 @@
+package arrow;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Does the same migration as the declarative `arrow.RaiseRefactor` recipe, but in a single traversal per source file.
+ * <p>
+ * `arrow.RaiseRefactor` stays the reference implementation, `RaiseRefactorSinglePassTest` checks that both produce the
+ * same output. Since the rules are matched against the original types, the rules that the composite matches on the
+ * `arrow.core.raise` types after `ChangeType` ran, are also registered for the `arrow.core.continuations` types.
+ */
+@Value
+@EqualsAndHashCode(callSuper = true)
+public class RaiseRefactorSinglePass extends Recipe {
+
+    static final Map<String, String> TYPE_REWRITES;
+    static final List<MethodRewrite> METHOD_REWRITES;
+    static final MethodMatcherIndex<MethodRewrite> METHOD_INDEX;
+
+    static {
+        Map<String, String> types = new LinkedHashMap<>();
+        types.put("arrow.core.continuations.EffectScope", "arrow.core.raise.Raise");
+        types.put("arrow.core.continuations.Effect", "arrow.core.raise.Effect");
+        types.put("arrow.core.continuations.EagerEffectScope", "arrow.core.raise.Raise");
+        types.put("arrow.core.continuations.EagerEffect", "arrow.core.raise.EagerEffect");
+        TYPE_REWRITES = Collections.unmodifiableMap(types);
+
+        List<MethodRewrite> methods = new ArrayList<>();
+        // arrow.migrate.EffectScope and arrow.migrate.EagerEffectScope
+        methods.add(MethodRewrite.topLevelFunction("arrow.core.continuations.EffectKt effect(..)", "effect", "arrow.core.raise.effect"));
+        methods.add(MethodRewrite.rename("arrow.core.continuations.EffectScope shift(*)", "raise"));
+        methods.add(MethodRewrite.topLevelFunction("arrow.core.continuations.EagerEffectKt eagerEffect(..)", "eagerEffect", "arrow.core.raise.eagerEffect"));
+        methods.add(MethodRewrite.rename("arrow.core.continuations.EagerEffectScope shift(*)", "raise"));
+
+        // arrow.RaiseEnsureImport
+        for (String scope : new String[]{"arrow.core.continuations.EffectScope", "arrow.core.continuations.EagerEffectScope", "arrow.core.raise.Raise"}) {
+            methods.add(MethodRewrite.addImport(scope + " ensure(..)", null, "arrow.core.raise.ensure"));
+        }
+        for (String scope : new String[]{"arrow.core.continuations.EffectScopeKt", "arrow.core.continuations.EagerEffectScopeKt", "arrow.core.raise.Raise"}) {
+            methods.add(MethodRewrite.addImport(scope + " ensureNotNull(..)", null, "arrow.core.raise.ensureNotNull")
+                    .removingImports("arrow.core.continuations.ensureNotNull"));
+        }
+
+        // arrow.AddRaiseExtensionImport
+        for (String effect : new String[]{"arrow.core.continuations.Effect", "arrow.core.continuations.EagerEffect", "arrow.core.raise.Effect", "arrow.core.raise.EagerEffect"}) {
+            methods.add(MethodRewrite.addImport(effect + " fold(..)", null, "arrow.core.raise.fold"));
+            methods.add(MethodRewrite.addImport(effect + " toEither()", null, "arrow.core.raise.toEither"));
+            methods.add(MethodRewrite.addImport(effect + " toIor()", null, "arrow.core.raise.toIor"));
+            methods.add(MethodRewrite.addImport(effect + " toValidated()", null, "arrow.core.raise.toValidated"));
+            methods.add(MethodRewrite.addImport(effect + " orNull()", "getOrNull", "arrow.core.raise.getOrNull"));
+        }
+
+        // arrow.RewriteEffectDSL
+        methods.addAll(RewriteEffectDSL.DSL_REWRITES);
+        METHOD_REWRITES = Collections.unmodifiableList(methods);
+        METHOD_INDEX = MethodRewrite.index(METHOD_REWRITES);
+    }
+
+    @JsonCreator
+    public RaiseRefactorSinglePass() {
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Refactor to Arrow Core Raise in a single pass";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Does the same migration as `arrow.RaiseRefactor`, but applies all of its rewrites in one traversal of each source file.";
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
+        return RecipeMetrics.applicableTest(this, ArrowUsageIndex.usesAny(TYPE_REWRITES.keySet(), METHOD_INDEX.getMethodPatterns()));
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new ArrowRewriteVisitor(METHOD_INDEX, TYPE_REWRITES).measuredAs(this);
+    }
+}
@@ -0,0 +1,174 @@
+package arrow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The time the Arrow recipes may spend on one source file, in all recipes of a run together, and optionally the time
+ * one recipe may spend on it, shared by the runs of the {@link ExecutionContext} it is {@link #applyTo applied to}.
+ * <p>
+ * The visitors check the budget cooperatively, at every method invocation and lambda, see
+ * {@link ImportBatchingVisitor#budgetExceeded()}. Once the time of a source file is spent, or the budget is
+ * {@link #cancel() cancelled}, the visitor stops descending, leaves the source file unchanged and reports it to the
+ * `onError` of the context as a {@link RecipeBudgetExceededException}, so a few pathological files cannot stall a run.
+ * The source file is then {@link #exceededFiles marked} in the context, the later Arrow visitors leave it alone, and
+ * the runners discard the changes of all recipes to it, including the recipes that are not budgeted.
+ * <p>
+ * The time of a source file is the time of the Arrow visitors on it, summed over all recipes and cycles of the run. The
+ * applicability tests are not covered, since they only look up the types a source file uses.
+ */
+public final class RecipeBudget {
+    private static final String BUDGET = "arrow.budget";
+    private static final String SPENT = "arrow.budget.spent";
+    private static final String EXCEEDED_FILES = "arrow.budget.exceededFiles";
+
+    public static final String EXCEEDED = "arrow.recipe.budget.exceeded";
+
+    private final long nanosPerFile;
+    private final Map<String, Long> nanosPerRecipe;
+    private volatile boolean cancelled;
+
+    private RecipeBudget(long nanosPerFile, Map<String, Long> nanosPerRecipe) {
+        this.nanosPerFile = nanosPerFile;
+        this.nanosPerRecipe = nanosPerRecipe;
+    }
+
+    public static RecipeBudget perFile(Duration budget) {
+        return new RecipeBudget(nanos(budget, "file"), Collections.emptyMap());
+    }
+
+    /**
+     * A copy of this budget that also limits the time of the recipe with this name on one source file.
+     */
+    public RecipeBudget withRecipe(String recipe, Duration budget) {
+        Map<String, Long> perRecipe = new HashMap<>(nanosPerRecipe);
+        perRecipe.put(recipe, nanos(budget, "recipe"));
+        return new RecipeBudget(nanosPerFile, Collections.unmodifiableMap(perRecipe));
+    }
+
+    private static long nanos(Duration budget, String per) {
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("The budget per " + per + " must be positive, but was " + budget);
+        }
+        return budget.toNanos();
+    }
+
+    /**
+     * Applies the budget to the context, with no time spent on any source file yet.
+     */
+    public RecipeBudget applyTo(ExecutionContext ctx) {
+        ctx.putMessage(BUDGET, this);
+        ctx.putMessage(SPENT, new ConcurrentHashMap<Path, Long>());
+        ctx.putMessage(EXCEEDED_FILES, ConcurrentHashMap.<Path>newKeySet());
+        return this;
+    }
+
+    @Nullable
+    static RecipeBudget of(ExecutionContext ctx) {
+        return ctx.getMessage(BUDGET);
+    }
+
+    /**
+     * The time the recipe may still spend on the source file, which is negative once the file is over budget.
+     */
+    long remainingNanos(ExecutionContext ctx, String recipe, Path sourcePath) {
+        long remaining = nanosPerFile - spent(ctx).getOrDefault(sourcePath, 0L);
+        Long perRecipe = nanosPerRecipe.get(recipe);
+        return perRecipe == null ? remaining : Math.min(remaining, perRecipe);
+    }
+
+    void spend(ExecutionContext ctx, Path sourcePath, long nanos) {
+        spent(ctx).merge(sourcePath, nanos, Long::sum);
+    }
+
+    private static Map<Path, Long> spent(ExecutionContext ctx) {
+        Map<Path, Long> spent = ctx.getMessage(SPENT);
+        if (spent == null) {
+            spent = new ConcurrentHashMap<>();
+            ctx.putMessage(SPENT, spent);
+        }
+        return spent;
+    }
+
+    /**
+     * Stops the visitors of all source files in progress, and leaves those files unchanged.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * A copy of the source files that exceeded their budget in the runs of the context so far, whose changes are
+     * discarded.
+     */
+    public static Set<Path> exceededFiles(ExecutionContext ctx) {
+        Set<Path> exceeded = ctx.getMessage(EXCEEDED_FILES);
+        return exceeded == null ? Collections.emptySet() : new HashSet<>(exceeded);
+    }
+
+    static boolean isExceeded(ExecutionContext ctx, Path sourcePath) {
+        Set<Path> exceeded = ctx.getMessage(EXCEEDED_FILES);
+        return exceeded != null && exceeded.contains(sourcePath);
+    }
+
+    /**
+     * Marks a source file as over budget in the context, like a runner does for the files of its own contexts. The
+     * scheduler visits source files in parallel on one context, so the set is concurrent.
+     */
+    public static void markExceeded(ExecutionContext ctx, Path sourcePath) {
+        Set<Path> exceeded = ctx.getMessage(EXCEEDED_FILES);
+        if (exceeded == null) {
+            synchronized (ctx) {
+                exceeded = ctx.getMessage(EXCEEDED_FILES);
+                if (exceeded == null) {
+                    exceeded = ConcurrentHashMap.newKeySet();
+                    ctx.putMessage(EXCEEDED_FILES, exceeded);
+                }
+            }
+        }
+        exceeded.add(sourcePath);
+    }
+
+    /**
+     * Marks the source file and reports it, once it is over budget with the time of the visit {@link #spend spent}.
+     */
+    void report(ExecutionContext ctx, String recipe, Path sourcePath, long elapsedNanos) {
+        markExceeded(ctx, sourcePath);
+        MeterRegistry registry = RecipeMetrics.registry(ctx);
+        if (registry != null) {
+            registry.counter(EXCEEDED, "recipe", recipe).increment();
+        }
+        long spent = spent(ctx).getOrDefault(sourcePath, 0L);
+        Long perRecipe = nanosPerRecipe.get(recipe);
+        String message;
+        if (cancelled) {
+            message = String.format("%s was cancelled on %s after %d ms, the file is left unchanged",
+                    recipe, sourcePath, millis(elapsedNanos));
+        } else if (perRecipe != null && elapsedNanos >= perRecipe && spent < nanosPerFile) {
+            message = String.format("%s exceeded its budget of %d ms on %s after %d ms, the file is left unchanged",
+                    recipe, millis(perRecipe), sourcePath, millis(elapsedNanos));
+        } else {
+            message = String.format("%s exceeded the budget of %d ms per file on %s after %d ms in all recipes, the file is left unchanged",
+                    recipe, millis(nanosPerFile), sourcePath, millis(spent));
+        }
+        ctx.getOnError().accept(new RecipeBudgetExceededException(message, recipe, sourcePath, Duration.ofNanos(elapsedNanos)));
+    }
+
+    private static long millis(long nanos) {
+        return Duration.ofNanos(nanos).toMillis();
+    }
+}
@@ -0,0 +1,24 @@
+package arrow;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Reports a source file left unchanged, since it exceeded its {@link RecipeBudget} in the recipe, or in all recipes of the
+ * run. The file is reported, not thrown, so it has no stack trace.
+ */
+@Getter
+public class RecipeBudgetExceededException extends RuntimeException {
+    private final String recipe;
+    private final Path sourcePath;
+    private final Duration elapsed;
+
+    RecipeBudgetExceededException(String message, String recipe, Path sourcePath, Duration elapsed) {
+        super(message, null, false, false);
+        this.recipe = recipe;
+        this.sourcePath = sourcePath;
+        this.elapsed = elapsed;
+    }
+}
@@ -0,0 +1,63 @@
+package arrow;
+
+import org.openrewrite.internal.lang.Nullable;
+
+/**
+ * Java Flight Recorder events of the Arrow recipes, so a recording shows which recipe and which source file the time
+ * goes to:
+ * <ul>
+ *     <li>`arrow.RecipeVisit`: a recipe on a source file, with whether its applicability test passed and whether the
+ *     visitor changed the file. The duration is the one of the visitor, or of the applicability test for a file that
+ *     was skipped.</li>
+ *     <li>`arrow.LambdaScan`: a search of a lambda for an invocation returning `Validated`.</li>
+ *     <li>`arrow.ImportEdits`: the import changes of a recipe on a source file.</li>
+ * </ul>
+ * The events are disabled unless the recording enables them, e.g. with the settings in
+ * `META-INF/arrow/arrow-recipes.jfc`. The events are implemented in the `java11` source set, since the main source set
+ * targets Java 8. On a JVM without JFR the events are {@link #NONE}.
+ * <p>
+ * A `begin` method returns `null` when its event is disabled, and the matching `end` method is only called otherwise.
+ */
+interface RecipeEvents {
+    RecipeEvents NONE = new RecipeEvents() {
+    };
+
+    RecipeEvents INSTANCE = load();
+
+    @Nullable
+    default Object beginVisit() {
+        return null;
+    }
+
+    default void endVisit(Object event, String recipe, String sourcePath, boolean applicable, boolean changed) {
+    }
+
+    @Nullable
+    default Object beginLambdaScan() {
+        return null;
+    }
+
+    default void endLambdaScan(Object event, String recipe, String sourcePath, boolean found) {
+    }
+
+    default boolean isImportEditsEnabled() {
+        return false;
+    }
+
+    @Nullable
+    default Object beginImportEdits() {
+        return null;
+    }
+
+    default void endImportEdits(Object event, String recipe, String sourcePath, int added, int removed) {
+    }
+
+    static RecipeEvents load() {
+        try {
+            return (RecipeEvents) Class.forName("arrow.JfrRecipeEvents").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Running on Java 8, or without the jdk.jfr module.
+            return NONE;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package arrow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Option;
+import org.openrewrite.Recipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records what the Arrow recipes spend their time on in the {@link MeterRegistry} of the {@link ExecutionContext}, see
+ * {@link #register}. The applicability test also emits the {@link RecipeEvents} of the source files it skips. Without
+ * a registry nothing is recorded, the only cost is looking up the registry once per source file and recipe, and
+ * counting matches and import changes in fields of the visitor.
+ * <p>
+ * All meters are tagged with the name of the recipe and its option values:
+ * <ul>
+ *     <li>`arrow.recipe.applicability`: the time of the applicability test per source file.</li>
+ *     <li>`arrow.recipe.files`: the source files tested, tagged `outcome` `applicable` or `skipped`.</li>
+ *     <li>`arrow.recipe.visit`: the time of the visitor per source file.</li>
+ *     <li>`arrow.recipe.matcher.evaluations` and `arrow.recipe.matcher.hits`: the method invocations looked up in the
+ *     matchers of the recipe, and those that matched.</li>
+ *     <li>`arrow.recipe.imports`: the import changes applied, tagged `edit` `added` or `removed`.</li>
+ *     <li>`arrow.recipe.changed`: the source files the visitor changed.</li>
+ * </ul>
+ */
+public final class RecipeMetrics {
+    private static final String REGISTRY = "arrow.metrics.registry";
+
+    public static final String APPLICABILITY = "arrow.recipe.applicability";
+    public static final String FILES = "arrow.recipe.files";
+    public static final String VISIT = "arrow.recipe.visit";
+    public static final String MATCHER_EVALUATIONS = "arrow.recipe.matcher.evaluations";
+    public static final String MATCHER_HITS = "arrow.recipe.matcher.hits";
+    public static final String IMPORTS = "arrow.recipe.imports";
+    public static final String CHANGED = "arrow.recipe.changed";
+
+    private RecipeMetrics() {
+    }
+
+    /**
+     * Records the metrics of the recipes run with this context in the registry.
+     */
+    public static void register(ExecutionContext ctx, MeterRegistry registry) {
+        ctx.putMessage(REGISTRY, registry);
+    }
+
+    @Nullable
+    public static MeterRegistry registry(ExecutionContext ctx) {
+        return ctx.getMessage(REGISTRY);
+    }
+
+    /**
+     * The name of the recipe, and the value of every option, `none` when it is not set.
+     */
+    public static Tags tags(Recipe recipe) {
+        List<Tag> tags = new ArrayList<>();
+        tags.add(Tag.of("recipe", recipe.getName()));
+        for (Class<?> c = recipe.getClass(); c != Recipe.class && c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && field.isAnnotationPresent(Option.class)) {
+                    try {
+                        field.setAccessible(true);
+                        Object value = field.get(recipe);
+                        tags.add(Tag.of(field.getName(), value == null ? "none" : value.toString()));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return Tags.of(tags);
+    }
+
+    /**
+     * Measures the applicability test of a recipe, when the context has a registry.
+     */
+    static TreeVisitor<?, ExecutionContext> applicableTest(Recipe recipe, TreeVisitor<?, ExecutionContext> test) {
+        return new MeasuredApplicableTest(recipe, test);
+    }
+
+    static void recordVisit(MeterRegistry registry, Tags tags, long nanos, boolean changed,
+                            int matcherEvaluations, int matcherHits, int importsAdded, int importsRemoved) {
+        registry.timer(VISIT, tags).record(nanos, TimeUnit.NANOSECONDS);
+        registry.counter(MATCHER_EVALUATIONS, tags).increment(matcherEvaluations);
+        registry.counter(MATCHER_HITS, tags).increment(matcherHits);
+        registry.counter(IMPORTS, tags.and("edit", "added")).increment(importsAdded);
+        registry.counter(IMPORTS, tags.and("edit", "removed")).increment(importsRemoved);
+        if (changed) {
+            registry.counter(CHANGED, tags).increment();
+        }
+    }
+
+    private static class MeasuredApplicableTest extends TreeVisitor<Tree, ExecutionContext> {
+        private final Recipe recipe;
+        private final TreeVisitor<?, ExecutionContext> test;
+
+        @Nullable
+        private Tags tags;
+
+        MeasuredApplicableTest(Recipe recipe, TreeVisitor<?, ExecutionContext> test) {
+            this.recipe = recipe;
+            this.test = test;
+        }
+
+        @Override
+        public boolean isAcceptable(SourceFile sourceFile, ExecutionContext executionContext) {
+            return test.isAcceptable(sourceFile, executionContext);
+        }
+
+        @Override
+        @Nullable
+        public Tree visit(@Nullable Tree tree, ExecutionContext executionContext) {
+            MeterRegistry registry = registry(executionContext);
+            Object event = tree instanceof SourceFile ? RecipeEvents.INSTANCE.beginVisit() : null;
+            if (tree == null || (registry == null && event == null)) {
+                return test.visit(tree, executionContext);
+            }
+            long start = System.nanoTime();
+            Tree result = test.visit(tree, executionContext);
+            // The test returns the tree unchanged when the recipe does not apply.
+            boolean applicable = result != tree;
+            if (registry != null) {
+                if (tags == null) {
+                    tags = tags(recipe);
+                }
+                registry.timer(APPLICABILITY, tags).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                registry.counter(FILES, tags.and("outcome", applicable ? "applicable" : "skipped")).increment();
+            }
+            // The visitor emits the event of an applicable source file.
+            if (event != null && !applicable) {
+                RecipeEvents.INSTANCE.endVisit(event, recipe.getName(), ((SourceFile) tree).getSourcePath().toString(), false, false);
+            }
+            return result;
+        }
+    }
+}
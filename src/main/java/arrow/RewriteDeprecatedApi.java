@@ -0,0 +1,61 @@
+package arrow;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Option;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.Collections;
+
+/**
+ * Rewrites invocations of deprecated Arrow APIs to their replacements, as listed in a {@link DeprecatedApiTable}.
+ * <p>
+ * All rewrites of the table are applied in a single traversal of a source file, see {@link ArrowRewriteVisitor}, so
+ * the table can grow to hundreds of rewrites without adding a traversal per rewrite like one YAML recipe entry per API
+ * would.
+ */
+@Value
+@EqualsAndHashCode(callSuper = true)
+public class RewriteDeprecatedApi extends Recipe {
+
+    @Option(displayName = "Mapping table",
+            description = "The classpath resource with the rewrites, defaults to the table shipped with the recipes.",
+            example = "META-INF/rewrite/arrow-deprecations.tsv",
+            required = false)
+    @Nullable
+    String mappingTable;
+
+    @JsonCreator
+    public RewriteDeprecatedApi(@JsonProperty("mappingTable") @Nullable String mappingTable) {
+        this.mappingTable = mappingTable;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Rewrite deprecated Arrow APIs";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Rewrites invocations of deprecated Arrow APIs to their replacements, using a mapping table.";
+    }
+
+    DeprecatedApiTable table() {
+        return DeprecatedApiTable.load(mappingTable == null ? DeprecatedApiTable.DEFAULT_RESOURCE : mappingTable);
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
+        return RecipeMetrics.applicableTest(this, ArrowUsageIndex.usesAnyMethod(table().getIndex()));
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new ArrowRewriteVisitor(table().getIndex(), Collections.emptyMap()).measuredAs(this);
+    }
+}
@@ -3,30 +3,100 @@ package arrow;
 import lombok.EqualsAndHashCode;
 import lombok.Value;
 import org.openrewrite.*;
-import org.openrewrite.java.MethodMatcher;
-import org.openrewrite.java.search.UsesMethod;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
-import org.openrewrite.kotlin.KotlinIsoVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Rewrite object method invocations to top level functions.
  * <p>
- * So we need to rewrite:
+ * So we need to rewrite, for every DSL in {@link #DSL_NAMES}:
  *  - `arrow.core.continuations.either eager(..)` to `arrow.core.raise either(..)`
  *  - `arrow.core.continuations.either invoke(..)` to `either(..)`
  *  - `arrow.core.continuations.either either(..)` to `either(..)`
+ * <p>
+ * All DSLs are rewritten in one visit, the invocations are looked up in a {@link MethodMatcherIndex} keyed by method
+ * name and declaring type.
  */
 @Value
 @EqualsAndHashCode(callSuper = true)
 public class RewriteEffectDSL extends Recipe {
 
+    /**
+     * The `arrow.core.continuations` objects that have a top-level function with the same name in `arrow.core.raise`.
+     * `ior` is not included, since `arrow.core.raise.ior` takes a function to combine the errors instead of a
+     * `Semigroup`. `effect` already was a top-level function, see {@link ChangeTopLevelFunction}.
+     */
+    static final List<String> DSL_NAMES = Collections.unmodifiableList(Arrays.asList("either", "option", "nullable", "result"));
+
+    static final List<MethodRewrite> DSL_REWRITES;
+    static final MethodMatcherIndex<MethodRewrite> DSL_INDEX;
+
+    static {
+        String oldPackage = "arrow.core.continuations.";
+        List<MethodRewrite> rewrites = new ArrayList<>();
+        for (String dslName : DSL_NAMES) {
+            String fullyQualifiedObject = oldPackage + dslName;
+            String newImport = "arrow.core.raise." + dslName;
+            rewrites.add(MethodRewrite.addImport(fullyQualifiedObject + " eager(..)", dslName, newImport)
+                    .withRemoveReceiver(true)
+                    .removingImports(fullyQualifiedObject, oldPackage + "eager"));
+            rewrites.add(MethodRewrite.addImport(fullyQualifiedObject + " invoke(..)", dslName, newImport)
+                    .withRemoveReceiver(true)
+                    .removingImports(fullyQualifiedObject, oldPackage + "eager"));
+            // An implicit invoke call is assigned the name of the object, it has no receiver to remove.
+            rewrites.add(MethodRewrite.addImport(fullyQualifiedObject + " " + dslName + "(..)", dslName, newImport)
+                    .removingImports(fullyQualifiedObject, oldPackage + "eager"));
+        }
+        DSL_REWRITES = Collections.unmodifiableList(rewrites);
+        DSL_INDEX = MethodRewrite.index(DSL_REWRITES);
+    }
+
     String oldPackage = "arrow.core.continuations.";
-    String dslName = "either";
-    String fullyQualifiedObject = oldPackage + dslName;
-    String eagerPattern = fullyQualifiedObject + " eager(..)";
-    String invokePattern = fullyQualifiedObject + " invoke(..)";
-    String implicitInvokePattern = fullyQualifiedObject + " " + dslName + "(..)";
+
+    /**
+     * @deprecated every DSL in {@link #DSL_NAMES} is rewritten, this is the first of them.
+     */
+    @Deprecated
+    public String getDslName() {
+        return DSL_NAMES.get(0);
+    }
+
+    /**
+     * @deprecated see {@link #getDslName()}.
+     */
+    @Deprecated
+    public String getFullyQualifiedObject() {
+        return oldPackage + getDslName();
+    }
+
+    /**
+     * @deprecated see {@link #getDslName()}.
+     */
+    @Deprecated
+    public String getEagerPattern() {
+        return getFullyQualifiedObject() + " eager(..)";
+    }
+
+    /**
+     * @deprecated see {@link #getDslName()}.
+     */
+    @Deprecated
+    public String getInvokePattern() {
+        return getFullyQualifiedObject() + " invoke(..)";
+    }
+
+    /**
+     * @deprecated see {@link #getDslName()}.
+     */
+    @Deprecated
+    public String getImplicitInvokePattern() {
+        return getFullyQualifiedObject() + " " + getDslName() + "(..)";
+    }
 
     @Override
     public String getDisplayName() {
@@ -40,32 +110,33 @@ public class RewriteEffectDSL extends Recipe {
 
     @Override
     protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
-        return Applicability.or(
-                new UsesMethod<>(eagerPattern),
-                new UsesMethod<>(invokePattern),
-                new UsesMethod<>(implicitInvokePattern)
-        );
+        return RecipeMetrics.applicableTest(this, ArrowUsageIndex.usesAny(Collections.emptyList(), DSL_INDEX.getMethodPatterns()));
     }
 
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new ChangeObjectMethodToTopLevelFunctionVisitor();
+        return new ChangeObjectMethodToTopLevelFunctionVisitor().measuredAs(this);
     }
 
-    public class ChangeObjectMethodToTopLevelFunctionVisitor extends KotlinIsoVisitor<ExecutionContext> {
-        MethodMatcher eager = new MethodMatcher(eagerPattern);
-        MethodMatcher implicitInvoke = new MethodMatcher(implicitInvokePattern);
-        MethodMatcher invoke = new MethodMatcher(invokePattern);
+    public class ChangeObjectMethodToTopLevelFunctionVisitor extends ImportBatchingVisitor {
+
+        public ChangeObjectMethodToTopLevelFunctionVisitor() {
+            super(false);
+        }
 
         @Override
         public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
             J.MethodInvocation m = (J.MethodInvocation) super.visitMethodInvocation(method, executionContext);
-            boolean implicit = implicitInvoke.matches(m);
-            boolean matches = eager.matches(m) || implicit || invoke.matches(m);
+            MethodRewrite rewrite = countMatch(DSL_INDEX.find(m));
+            if (rewrite == null) {
+                return m;
+            }
+            String dslName = rewrite.getNewMethodName();
 
             // Note: I am not sure if there is an issue using `ChangeMethodName` here.
             // But it may be simpler to use the `ChangeMethodName` recipe.
-            if (matches) {
+            // A rewritten call still matches the implicit invoke pattern in the next cycle, so only change what differs.
+            if (dslName != null && (!dslName.equals(m.getSimpleName()) || rewrite.isRemoveReceiver() && m.getSelect() != null)) {
                 JavaType.Method type = m.getMethodType();
                 if (type != null) {
                     type = type.withName(dslName);
@@ -80,16 +151,19 @@ public class RewriteEffectDSL extends Recipe {
                  */
                 m = m.withName(m.getName().withSimpleName(dslName)).withMethodType(type);
 
-                if (!implicit) {
+                if (rewrite.isRemoveReceiver()) {
                     m = m.withSelect(null);
                 }
+            }
 
-                // Add the import to the top-level DSL function.
-                maybeAddImport("arrow.core.raise." + dslName, null, false);
+            // Add the import to the top-level DSL function.
+            if (rewrite.getNewMethodImport() != null) {
+                addImport(rewrite.getNewMethodImport(), false);
+            }
 
-                // Remove the import to the object & the eager method.
-                maybeRemoveImport(fullyQualifiedObject);
-                maybeRemoveImport(oldPackage + "eager");
+            // Remove the import to the object & the eager method.
+            for (String removed : rewrite.getRemovedImports()) {
+                removeImport(removed);
             }
             return m;
         }
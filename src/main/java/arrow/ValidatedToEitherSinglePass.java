@@ -0,0 +1,59 @@
+package arrow;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Does the same migration as the declarative `arrow.ValidatedToEitherRecipe` preceded by {@link ChangeValidatedLambda},
+ * but in a single traversal per source file: the `valid`, `validNel`, `invalid` and `invalidNel` renames, the
+ * `Validated` to `Either` type change, and the `traverse` to `mapOrAccumulate` rewrite.
+ */
+@Value
+@EqualsAndHashCode(callSuper = true)
+public class ValidatedToEitherSinglePass extends Recipe {
+
+    static final Map<String, String> TYPE_REWRITES = Collections.singletonMap("arrow.core.Validated", "arrow.core.Either");
+    static final List<MethodRewrite> METHOD_REWRITES = Collections.unmodifiableList(Arrays.asList(
+            MethodRewrite.topLevelFunction("arrow.core.ValidatedKt valid()", "right", "arrow.core.right"),
+            MethodRewrite.topLevelFunction("arrow.core.ValidatedKt validNel()", "right", "arrow.core.right"),
+            MethodRewrite.topLevelFunction("arrow.core.ValidatedKt invalid()", "left", "arrow.core.left"),
+            MethodRewrite.topLevelFunction("arrow.core.ValidatedKt invalidNel()", "leftNel", "arrow.core.leftNel")
+    ));
+    static final MethodMatcherIndex<MethodRewrite> METHOD_INDEX = MethodRewrite.index(METHOD_REWRITES);
+
+    @JsonCreator
+    public ValidatedToEitherSinglePass() {
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "Refactor Arrow Core Validated to Either in a single pass";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Does the same migration as `arrow.ValidatedToEitherRecipe` and `arrow.ChangeValidatedLambda`, but applies all of their rewrites in one traversal of each source file.";
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getSingleSourceApplicableTest() {
+        List<String> methodPatterns = new ArrayList<>(METHOD_INDEX.getMethodPatterns());
+        methodPatterns.add(ValidatedTraverseVisitor.TRAVERSE_PATTERN);
+        return RecipeMetrics.applicableTest(this, ArrowUsageIndex.usesAny(TYPE_REWRITES.keySet(), methodPatterns));
+    }
+
+    @Override
+    protected TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new ValidatedTraverseVisitor(METHOD_INDEX, TYPE_REWRITES).measuredAs(this);
+    }
+}
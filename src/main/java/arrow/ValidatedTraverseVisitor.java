@@ -0,0 +1,226 @@
+package arrow;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.kotlin.KotlinIsoVisitor;
+import org.openrewrite.kotlin.tree.K;
+import org.openrewrite.marker.Markers;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites `traverse` over a lambda returning `Validated` into `mapOrAccumulate`, and appends `bind()` to the
+ * `Validated` values inside the lambda. Any other {@link MethodRewrite}s and type changes are applied in the same
+ * traversal, see {@link ArrowRewriteVisitor}.
+ * <p>
+ * The traversal is bottom-up, so when a `traverse` is visited its lambdas have already been visited. Whether a lambda
+ * contains an invocation returning `Validated` is recorded while visiting it, by counting those invocations, so a
+ * `traverse` does not have to search its lambdas again. Only lambdas this visitor did not produce itself are searched,
+ * and that search stops at the first match.
+ */
+class ValidatedTraverseVisitor extends ArrowRewriteVisitor {
+    private static final String TRAVERSE_IMPORT = "arrow.core.traverse";
+    private static final String MAP_OR_ACCUMULATE_IMPORT = "arrow.core.mapOrAccumulate";
+
+    static final String TRAVERSE_PATTERN = "arrow.core.IterableKt traverse(..)";
+    private static final MethodMatcher TRAVERSE_MATCHER = MethodMatchers.matcher(TRAVERSE_PATTERN);
+
+    private static final String OLD_FQN = "arrow.core.Validated";
+    private static final JavaType.FullyQualified RAISE = JavaType.ShallowClass.build("arrow.core.raise.Raise");
+
+    // The number of invocations returning `Validated` visited so far in the current source file.
+    private int validatedInvocations;
+
+    // The lambdas visited in the current source file, and whether they contain an invocation returning `Validated`.
+    private final Map<J.Lambda, Boolean> visitedLambdas = new IdentityHashMap<>();
+
+    // Both visitors are reused for every `traverse`, instead of allocating them per invocation.
+    private final AppendBindFunction appendBind = new AppendBindFunction();
+    private final FindValidatedInvocation findValidatedInvocation = new FindValidatedInvocation();
+
+    ValidatedTraverseVisitor(MethodMatcherIndex<MethodRewrite> methodRewrites, Map<String, String> typeRewrites) {
+        super(methodRewrites, typeRewrites);
+    }
+
+    @Override
+    public K.CompilationUnit visitCompilationUnit(K.CompilationUnit cu, ExecutionContext executionContext) {
+        validatedInvocations = 0;
+        visitedLambdas.clear();
+        try {
+            return super.visitCompilationUnit(cu, executionContext);
+        } finally {
+            visitedLambdas.clear();
+        }
+    }
+
+    @Override
+    public J visitLambda(J.Lambda lambda, ExecutionContext executionContext) {
+        int before = validatedInvocations;
+        J l = super.visitLambda(lambda, executionContext);
+        if (l instanceof J.Lambda) {
+            visitedLambdas.put((J.Lambda) l, validatedInvocations > before);
+        }
+        return l;
+    }
+
+    @Override
+    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
+        J.MethodInvocation m = super.visitMethodInvocation(method, executionContext);
+        JavaType.Method methodType = m.getMethodType();
+        if (isTargetFqn(methodType)) {
+            validatedInvocations++;
+        }
+        if (methodType != null && countMatch(TRAVERSE_MATCHER.matches(methodType))) {
+            if (containsTargetArgument(m.getArguments(), executionContext)) {
+                m = m.withName(m.getName().withSimpleName("mapOrAccumulate"));
+                m = m.withMethodType(methodType.withName("mapOrAccumulate"));
+                // Only the arguments, the `traverse` itself still returns `Validated` and is not bound.
+                m = m.withArguments(ListUtils.map(m.getArguments(), arg -> (Expression) appendBind.visit(arg, executionContext, getCursor())));
+                removeImport(TRAVERSE_IMPORT);
+                addImport(MAP_OR_ACCUMULATE_IMPORT, false);
+            } else {
+                // A `traverse` that is not rewritten still needs its import.
+                keepImport(TRAVERSE_IMPORT);
+            }
+        }
+        return m;
+    }
+
+    class AppendBindFunction extends KotlinIsoVisitor<ExecutionContext> {
+        /*
+        For Lambda blocks use:
+        String uniqueName = VariableNameUtils.generateVariableName(newName, getCursor(), VariableNameUtils.GenerationStrategy.INCREMENT_NUMBER);
+        to generate a unique name in the scope of the cursor.
+         */
+
+        @Override
+        public J visitLambda(J.Lambda lambda, ExecutionContext executionContext) {
+            // Check for multiple statements in block.
+            // handle multiple statements.
+            // single return can be handled in visitMethodInvocation.
+            if (Boolean.FALSE.equals(visitedLambdas.get(lambda)) || budgetExceeded()) {
+                // Nothing to bind in here, or the source file is left unchanged.
+                return lambda;
+            }
+            return super.visitLambda(lambda, executionContext);
+        }
+
+        @Override
+        public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
+            if (budgetExceeded()) {
+                return method;
+            }
+            if (isTargetFqn(method.getMethodType())) {
+                return addBind(method);
+            }
+            return super.visitMethodInvocation(method, executionContext);
+        }
+    }
+
+    /**
+     * Searches a tree for an invocation returning `Validated`, and stops visiting as soon as one is found, or the budget
+     * of the source file is exceeded.
+     */
+    private class FindValidatedInvocation extends KotlinIsoVisitor<ExecutionContext> {
+        private boolean found;
+
+        boolean find(J tree, ExecutionContext executionContext) {
+            found = false;
+            visit(tree, executionContext);
+            return found;
+        }
+
+        @Override
+        @Nullable
+        public J visit(@Nullable Tree tree, ExecutionContext executionContext) {
+            return found || budgetExceeded() ? (J) tree : super.visit(tree, executionContext);
+        }
+
+        @Override
+        public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
+            if (isTargetFqn(method.getMethodType())) {
+                found = true;
+                return method;
+            }
+            return super.visitMethodInvocation(method, executionContext);
+        }
+    }
+
+    private boolean containsTargetArgument(List<Expression> arguments, ExecutionContext executionContext) {
+        for (Expression e : arguments) {
+            if (e instanceof J.Lambda) {
+                J.Lambda lambda = (J.Lambda) e;
+                Boolean containsTarget = visitedLambdas.get(lambda);
+                if (containsTarget == null) {
+                    Object event = RecipeEvents.INSTANCE.beginLambdaScan();
+                    containsTarget = findValidatedInvocation.find(lambda.getBody(), executionContext);
+                    if (event != null) {
+                        RecipeEvents.INSTANCE.endLambdaScan(event, recipeName(),
+                                getCursor().firstEnclosingOrThrow(K.CompilationUnit.class).getSourcePath().toString(), containsTarget);
+                    }
+                }
+                if (containsTarget) {
+                    return true;
+                }
+            } else if (e instanceof J.MemberReference) {
+                J.MemberReference memberRef = (J.MemberReference) e;
+                if (isTargetFqn(memberRef.getMethodType())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTargetFqn(@Nullable JavaType.Method methodType) {
+        return methodType != null && TypeUtils.isOfClassType(methodType.getReturnType(), OLD_FQN);
+    }
+
+    private static J.MethodInvocation addBind(J.MethodInvocation method) {
+        return new J.MethodInvocation(Tree.randomId(),
+                Space.EMPTY,
+                Markers.EMPTY,
+                JRightPadded.build(method),
+                null,
+                new J.Identifier(Tree.randomId(),
+                        Space.EMPTY,
+                        Markers.EMPTY,
+                        "bind",
+                        null,
+                        null
+                ),
+                JContainer.build(Collections.singletonList(JRightPadded.build(new J.Empty(Tree.randomId(), Space.EMPTY, Markers.EMPTY)))),
+                bindMethodType(method)
+        );
+    }
+
+    /**
+     * The type of `Raise.bind()` on the `Either` the `Validated` becomes, returning its value. A complete type keeps the
+     * recipes that run after this one, and the next cycle, from matching or changing the `bind()` call again.
+     */
+    private static JavaType.Method bindMethodType(J.MethodInvocation validated) {
+        JavaType returnType = validated.getMethodType() == null ? null : validated.getMethodType().getReturnType();
+        JavaType value = JavaType.Unknown.getInstance();
+        if (returnType instanceof JavaType.Parameterized && ((JavaType.Parameterized) returnType).getTypeParameters().size() == 2) {
+            value = ((JavaType.Parameterized) returnType).getTypeParameters().get(1);
+        }
+        return new JavaType.Method(
+                null,
+                1,
+                RAISE,
+                "bind",
+                value,
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                Collections.emptyList()
+        );
+    }
+}
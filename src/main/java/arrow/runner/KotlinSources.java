@@ -0,0 +1,44 @@
+package arrow.runner;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds the Kotlin sources of a repository.
+ */
+public final class KotlinSources {
+
+    private KotlinSources() {
+    }
+
+    /**
+     * The `.kt` files below the root, sorted, without the files in build output and hidden directories.
+     */
+    public static List<Path> find(Path root) {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files
+                    .filter(path -> path.getFileName().toString().endsWith(".kt"))
+                    .filter(path -> isSource(root.relativize(path)))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list the Kotlin sources in " + root, e);
+        }
+    }
+
+    private static boolean isSource(Path relativePath) {
+        for (int i = 0; i < relativePath.getNameCount() - 1; i++) {
+            String directory = relativePath.getName(i).toString();
+            if (directory.startsWith(".") || "build".equals(directory) || "out".equals(directory)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,284 @@
+package arrow.runner;
+
+import arrow.ArrowUsageTable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Parser;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeSerializer;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps parsed, type attributed Kotlin source files on disk, so a run over sources that did not change since an earlier
+ * run loads their LSTs instead of parsing them again, e.g. while trying out recipe options.
+ * <p>
+ * An LST is stored under the hash of the file content, the paths and contents of all sources of its module, the
+ * classpath and the code of the Kotlin parser, serialized by the {@link TreeSerializer} of OpenRewrite in the binary
+ * Smile format and compressed. The sources of a module are attributed together, so a module is only loaded when all its
+ * sources were stored, and is parsed as a whole again when one of them changed. A loaded LST for a file with the same
+ * content at another path of the module gets that path, and every loaded LST gets a new id.
+ * <p>
+ * When the stored LSTs grow beyond the size cap, the least recently used ones are removed. The use of an entry is
+ * recorded in its modification time, so the order survives between runs. An entry that cannot be read, like one
+ * written by another version of OpenRewrite, is removed and the file is parsed again.
+ */
+public class LstCache {
+    private static final String SUFFIX = ".lst";
+
+    private final Path directory;
+    private final String fingerprint;
+    private final long maxBytes;
+    private final TreeSerializer<SourceFile> serializer = new TreeSerializer<>();
+
+    // The size of every entry, the least recently used first.
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private int hits;
+    private int misses;
+
+    public LstCache(Path directory, Collection<Path> classpath, long maxBytes) {
+        this.directory = directory;
+        this.fingerprint = ResultCache.classpathFingerprint(classpath) + "\n" + ResultCache.codeHash(KotlinParser.class);
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                List<Path> stored = files.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                        .sorted((a, b) -> lastModified(a).compareTo(lastModified(b)))
+                        .collect(Collectors.toList());
+                for (Path entry : stored) {
+                    long size = Files.size(entry);
+                    entries.put(entry.getFileName().toString(), size);
+                    totalBytes += size;
+                }
+            }
+            evict();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the LST cache in " + directory, e);
+        }
+    }
+
+    /**
+     * Parses the sources, loading the modules whose sources were all stored before, and stores the others. The source
+     * files are returned in the order of the sources.
+     *
+     * @param sources    the content of every source, by its path.
+     * @param relativeTo the directory the source paths of the LSTs are relative to, like for
+     *                   {@link Parser#parseInputs}.
+     */
+    public List<SourceFile> parse(KotlinParser.Builder parser, Map<Path, byte[]> sources, @Nullable Path relativeTo,
+                                  ExecutionContext ctx) {
+        Map<String, Map<Path, byte[]>> modules = new LinkedHashMap<>();
+        for (Map.Entry<Path, byte[]> source : sources.entrySet()) {
+            modules.computeIfAbsent(ArrowUsageTable.moduleOf(sourcePath(source.getKey(), relativeTo)), m -> new LinkedHashMap<>())
+                    .put(source.getKey(), source.getValue());
+        }
+
+        Map<Path, SourceFile> parsed = new HashMap<>();
+        for (Map<Path, byte[]> module : modules.values()) {
+            parsed.putAll(parseModule(parser, module, relativeTo, ctx));
+        }
+
+        List<SourceFile> sourceFiles = new ArrayList<>(parsed.size());
+        for (Path source : sources.keySet()) {
+            SourceFile sourceFile = parsed.get(sourcePath(source, relativeTo));
+            if (sourceFile != null) {
+                sourceFiles.add(sourceFile);
+            }
+        }
+        return sourceFiles;
+    }
+
+    /**
+     * Loads all sources of a module, or parses them all again when one of them was not stored, so their references to
+     * each other are attributed against the sources as they are now.
+     */
+    private Map<Path, SourceFile> parseModule(KotlinParser.Builder parser, Map<Path, byte[]> module,
+                                              @Nullable Path relativeTo, ExecutionContext ctx) {
+        Map<Path, String> keys = keys(module, relativeTo);
+        Map<Path, SourceFile> loaded = new HashMap<>();
+        for (Map.Entry<Path, String> key : keys.entrySet()) {
+            SourceFile sourceFile = load(key.getValue(), ctx);
+            if (sourceFile == null) {
+                break;
+            }
+            loaded.put(key.getKey(), sourceFile.<SourceFile>withId(Tree.randomId()).withSourcePath(key.getKey()));
+        }
+        synchronized (this) {
+            if (loaded.size() == keys.size()) {
+                hits += keys.size();
+                return loaded;
+            }
+            misses += keys.size();
+        }
+
+        List<Parser.Input> inputs = new ArrayList<>(module.size());
+        for (Map.Entry<Path, byte[]> source : module.entrySet()) {
+            byte[] content = source.getValue();
+            inputs.add(new Parser.Input(source.getKey(), () -> new ByteArrayInputStream(content)));
+        }
+        Map<Path, SourceFile> parsed = new HashMap<>();
+        for (SourceFile sourceFile : parser.build().parseInputs(inputs, relativeTo, ctx)) {
+            parsed.put(sourceFile.getSourcePath(), sourceFile);
+            String key = keys.get(sourceFile.getSourcePath());
+            if (key != null) {
+                store(key, sourceFile, ctx);
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * The key of every source of a module, by its source path. Like in the {@link ResultCache}, it covers the content of
+     * the source and the paths and contents of all sources of the module, which are attributed with it.
+     */
+    private Map<Path, String> keys(Map<Path, byte[]> module, @Nullable Path relativeTo) {
+        Map<Path, String> contentHashes = new LinkedHashMap<>();
+        Map<String, String> moduleContent = new TreeMap<>();
+        for (Map.Entry<Path, byte[]> source : module.entrySet()) {
+            Path sourcePath = sourcePath(source.getKey(), relativeTo);
+            String hash = ResultCache.sha256(source.getValue());
+            contentHashes.put(sourcePath, hash);
+            moduleContent.put(sourcePath.toString().replace('\\', '/'), hash);
+        }
+        String moduleHash = ResultCache.sha256(moduleContent.toString().getBytes(StandardCharsets.UTF_8));
+        Map<Path, String> keys = new LinkedHashMap<>();
+        for (Map.Entry<Path, String> content : contentHashes.entrySet()) {
+            keys.put(content.getKey(), ResultCache.sha256((moduleHash + " " + content.getValue() + "\n" + fingerprint)
+                    .getBytes(StandardCharsets.UTF_8)));
+        }
+        return keys;
+    }
+
+    private static Path sourcePath(Path source, @Nullable Path relativeTo) {
+        return relativeTo == null ? source : relativeTo.relativize(source);
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    @Nullable
+    private SourceFile load(String key, ExecutionContext ctx) {
+        String name = key + SUFFIX;
+        synchronized (this) {
+            if (!entries.containsKey(name)) {
+                return null;
+            }
+            // Marks the entry as the most recently used one.
+            entries.get(name);
+        }
+
+        Path entry = directory.resolve(name);
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(entry))) {
+            SourceFile sourceFile = serializer.read(in);
+            Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+            return sourceFile;
+        } catch (NoSuchFileException e) {
+            // Removed by another run sharing the directory.
+            remove(name);
+        } catch (Exception e) {
+            ctx.getOnError().accept(new IllegalStateException("Failed to load " + entry + ", parsing again", e));
+            remove(name);
+        }
+        return null;
+    }
+
+    private void store(String key, SourceFile sourceFile, ExecutionContext ctx) {
+        String name = key + SUFFIX;
+        Path entry = directory.resolve(name);
+        try {
+            // Written to a temporary file first, so concurrent runs never read a partial entry.
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temporary))) {
+                serializer.write(sourceFile, out);
+            }
+            long size = Files.size(temporary);
+            try {
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+            }
+            synchronized (this) {
+                Long replaced = entries.put(name, size);
+                totalBytes += size - (replaced == null ? 0 : replaced);
+            }
+            evict();
+        } catch (Exception e) {
+            ctx.getOnError().accept(new IllegalStateException("Failed to store the LST of " + sourceFile.getSourcePath(), e));
+        }
+    }
+
+    private void evict() throws IOException {
+        List<String> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Long>> leastRecentlyUsed = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+                Map.Entry<String, Long> entry = leastRecentlyUsed.next();
+                totalBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                leastRecentlyUsed.remove();
+            }
+        }
+        for (String name : evicted) {
+            Files.deleteIfExists(directory.resolve(name));
+        }
+    }
+
+    private void remove(String name) {
+        synchronized (this) {
+            Long size = entries.remove(name);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        try {
+            Files.deleteIfExists(directory.resolve(name));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package arrow.runner;
+
+import lombok.Value;
+
+/**
+ * The extrapolation of a migration from a sample, see {@link MigrationEstimator}.
+ */
+@Value
+public class MigrationEstimate {
+    int files;
+    long bytes;
+    int sampledFiles;
+
+    /**
+     * The sampled files the prefilter skipped, which were not parsed.
+     */
+    int skippedFiles;
+    int strata;
+    double confidence;
+
+    Interval changedFiles;
+    Interval changedLines;
+    Interval wallClockMillis;
+    Interval peakHeapBytes;
+
+    @Override
+    public String toString() {
+        return String.format("%d of %d files (%d skipped without Arrow usage, %d strata, %.0f%% confidence): " +
+                             "changed files %s, changed lines %s, wall-clock %s ms, peak heap %s MiB",
+                sampledFiles, files, skippedFiles, strata, confidence * 100, changedFiles, changedLines, wallClockMillis,
+                peakHeapBytes.scale(1.0 / (1 << 20)));
+    }
+
+    /**
+     * An estimate of a total with its confidence interval.
+     */
+    @Value
+    public static class Interval {
+        double estimate;
+        double lower;
+        double upper;
+
+        Interval scale(double factor) {
+            return new Interval(estimate * factor, lower * factor, upper * factor);
+        }
+
+        Interval plus(double offset) {
+            return new Interval(estimate + offset, lower + offset, upper + offset);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f [%.0f, %.0f]", estimate, lower, upper);
+        }
+    }
+}
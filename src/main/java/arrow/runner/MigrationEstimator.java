@@ -0,0 +1,285 @@
+package arrow.runner;
+
+import arrow.ArrowSourcePrefilter;
+import arrow.ArrowUsageTable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Estimates the number of changed files and lines, the wall-clock time and the peak heap of a migration from a
+ * stratified random sample of the Kotlin sources of a repository, before running the migration itself.
+ * <p>
+ * The sources are stratified by module and by size class (powers of two of their size in KiB). Every stratum is
+ * sampled with the same fraction, but at least {@link #minPerStratum(int)} files, in an order derived from the seed, so
+ * the same seed always picks the same files. Like in a regular run, the sampled files the {@link ArrowSourcePrefilter}
+ * of the recipe skips are not parsed, the others are parsed in one batch and the recipe runs on every one of them, and
+ * the totals are extrapolated with the stratified estimator, with a normal confidence interval that accounts
+ * for the finite population.
+ * <p>
+ * Scan time, parse time and heap are measured for the whole sample and attributed to its files by size, the recipe
+ * time is measured per file. The peak heap is the heap in use before parsing plus the estimated heap of the parsed sources of
+ * the whole repository, which all are in memory at the same time in a regular run.
+ */
+public class MigrationEstimator {
+    private final Recipe recipe;
+    private final KotlinParser.Builder parser;
+    private final ArrowSourcePrefilter prefilter;
+
+    private long seed = 42;
+    private double sampleFraction = 0.05;
+    private int minPerStratum = 2;
+    private double confidence = 0.95;
+
+    public MigrationEstimator(Recipe recipe, KotlinParser.Builder parser) {
+        this.recipe = recipe;
+        this.parser = parser;
+        this.prefilter = ArrowSourcePrefilter.forRecipes(recipe);
+    }
+
+    public MigrationEstimator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public MigrationEstimator sampleFraction(double sampleFraction) {
+        if (sampleFraction <= 0 || sampleFraction > 1) {
+            throw new IllegalArgumentException("Expected 0 < sampleFraction <= 1, but was " + sampleFraction);
+        }
+        this.sampleFraction = sampleFraction;
+        return this;
+    }
+
+    /**
+     * The minimum number of files sampled from every stratum, at least 2 to estimate the variance within a stratum.
+     */
+    public MigrationEstimator minPerStratum(int minPerStratum) {
+        if (minPerStratum < 2) {
+            throw new IllegalArgumentException("At least 2 files per stratum are needed, but was " + minPerStratum);
+        }
+        this.minPerStratum = minPerStratum;
+        return this;
+    }
+
+    public MigrationEstimator confidence(double confidence) {
+        if (confidence <= 0 || confidence >= 1) {
+            throw new IllegalArgumentException("Expected 0 < confidence < 1, but was " + confidence);
+        }
+        this.confidence = confidence;
+        return this;
+    }
+
+    public MigrationEstimate estimate(Path root) {
+        return estimate(root, KotlinSources.find(root));
+    }
+
+    public MigrationEstimate estimate(Path root, List<Path> sources) {
+        Map<String, List<Sampled>> strata = new TreeMap<>();
+        long bytes = 0;
+        for (Path source : sources) {
+            long size = size(source);
+            bytes += size;
+            String stratum = ArrowUsageTable.moduleOf(root.relativize(source)) + " " + (64 - Long.numberOfLeadingZeros(size >> 10));
+            strata.computeIfAbsent(stratum, s -> new ArrayList<>()).add(new Sampled(source, size));
+        }
+
+        Map<String, List<Sampled>> samples = new TreeMap<>();
+        List<Sampled> sample = new ArrayList<>();
+        for (Map.Entry<String, List<Sampled>> stratum : strata.entrySet()) {
+            List<Sampled> population = new ArrayList<>(stratum.getValue());
+            int size = Math.min(population.size(), Math.max(minPerStratum, (int) Math.round(population.size() * sampleFraction)));
+            Collections.shuffle(population, new Random(seed ^ stratum.getKey().hashCode()));
+            List<Sampled> stratumSample = new ArrayList<>(population.subList(0, size));
+            samples.put(stratum.getKey(), stratumSample);
+            sample.addAll(stratumSample);
+        }
+
+        List<Path> samplePaths = new ArrayList<>(sample.size());
+        for (Sampled sampled : sample) {
+            samplePaths.add(sampled.path);
+        }
+        long scanStart = System.nanoTime();
+        ArrowSourcePrefilter.Selection selection = prefilter.select(root, samplePaths);
+        long scanNanos = System.nanoTime() - scanStart;
+        long baselineHeap = measure(root, sample, selection, scanNanos);
+
+        double z = zScore(confidence);
+        MigrationEstimate.Interval changedFiles = estimateTotal(strata, samples, s -> s.changed ? 1 : 0, z);
+        MigrationEstimate.Interval changedLines = estimateTotal(strata, samples, s -> s.changedLines, z);
+        MigrationEstimate.Interval wallClock = estimateTotal(strata, samples, s -> s.nanos / 1e6, z);
+        MigrationEstimate.Interval heap = estimateTotal(strata, samples, s -> s.heapBytes, z).plus(baselineHeap);
+        return new MigrationEstimate(sources.size(), bytes, sample.size(), selection.getSkippedFiles(), strata.size(),
+                confidence, changedFiles, changedLines, wallClock, heap);
+    }
+
+    /**
+     * Parses and migrates the sampled files the prefilter selected, and returns the heap in use before parsing.
+     */
+    private long measure(Path root, List<Sampled> sample, ArrowSourcePrefilter.Selection selection, long scanNanos) {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        Map<Path, Sampled> byPath = new HashMap<>();
+        long sampleBytes = 0;
+        for (Sampled sampled : sample) {
+            byPath.put(root.relativize(sampled.path), sampled);
+            sampleBytes += sampled.bytes;
+        }
+        long selectedBytes = selection.getScannedBytes() - selection.getSkippedBytes();
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long baselineHeap = memory.getHeapMemoryUsage().getUsed();
+        long parseStart = System.nanoTime();
+        // The inputs of the selection are relative to the root already.
+        List<SourceFile> sourceFiles = new ArrayList<>(parser.build().parseInputs(selection.getInputs(), null, ctx));
+        long parseNanos = System.nanoTime() - parseStart;
+        System.gc();
+        long parsedHeap = Math.max(0, memory.getHeapMemoryUsage().getUsed() - baselineHeap);
+
+        for (Sampled sampled : sample) {
+            sampled.nanos = sampleBytes == 0 ? 0 : scanNanos * (double) sampled.bytes / sampleBytes;
+        }
+        for (Path selected : selection.getSources()) {
+            Sampled sampled = byPath.get(root.relativize(selected));
+            double share = selectedBytes == 0 ? 0 : (double) sampled.bytes / selectedBytes;
+            sampled.nanos += parseNanos * share;
+            sampled.heapBytes = parsedHeap * share;
+        }
+        for (SourceFile sourceFile : sourceFiles) {
+            Sampled sampled = byPath.get(sourceFile.getSourcePath());
+            if (sampled == null) {
+                continue;
+            }
+            long runStart = System.nanoTime();
+            RecipeRun run = recipe.run(Collections.singletonList(sourceFile), ctx);
+            sampled.nanos += System.nanoTime() - runStart;
+            for (Result result : run.getResults()) {
+                sampled.changed = true;
+                sampled.changedLines += changedLines(result.diff());
+            }
+        }
+        return baselineHeap;
+    }
+
+    /**
+     * The stratified estimate of the total of a value over all sources, `sum(N_h * mean_h)`, with the interval
+     * `z * sqrt(sum(N_h^2 * (1 - n_h / N_h) * s_h^2 / n_h))` around it.
+     */
+    private static MigrationEstimate.Interval estimateTotal(Map<String, List<Sampled>> strata, Map<String, List<Sampled>> samples,
+                                                            Metric metric, double z) {
+        double total = 0;
+        double variance = 0;
+        for (Map.Entry<String, List<Sampled>> stratum : strata.entrySet()) {
+            int populationSize = stratum.getValue().size();
+            List<Sampled> sample = samples.get(stratum.getKey());
+            int n = sample.size();
+            double sum = 0;
+            for (Sampled sampled : sample) {
+                sum += metric.of(sampled);
+            }
+            double mean = sum / n;
+            total += populationSize * mean;
+            if (n > 1) {
+                double squares = 0;
+                for (Sampled sampled : sample) {
+                    double deviation = metric.of(sampled) - mean;
+                    squares += deviation * deviation;
+                }
+                variance += (double) populationSize * populationSize * (1 - (double) n / populationSize) * (squares / (n - 1)) / n;
+            }
+        }
+        double halfWidth = z * Math.sqrt(variance);
+        return new MigrationEstimate.Interval(total, Math.max(0, total - halfWidth), total + halfWidth);
+    }
+
+    static int changedLines(String diff) {
+        int changed = 0;
+        for (String line : diff.split("\n")) {
+            if (line.startsWith("+") && !line.startsWith("+++") || line.startsWith("-") && !line.startsWith("---")) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * The two-sided z-score for a confidence level, with the rational approximation 26.2.23 of Abramowitz and Stegun,
+     * which is accurate to 4.5e-4.
+     */
+    static double zScore(double confidence) {
+        double p = (1 - confidence) / 2;
+        double t = Math.sqrt(-2 * Math.log(p));
+        return t - (2.515517 + 0.802853 * t + 0.010328 * t * t) / (1 + 1.432788 * t + 0.189269 * t * t + 0.001308 * t * t * t);
+    }
+
+    private static long size(Path source) {
+        try {
+            return Files.size(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the size of " + source, e);
+        }
+    }
+
+    private interface Metric {
+        double of(Sampled sampled);
+    }
+
+    private static final class Sampled {
+        final Path path;
+        final long bytes;
+        double nanos;
+        double heapBytes;
+        boolean changed;
+        int changedLines;
+
+        Sampled(Path path, long bytes) {
+            this.path = path;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * Estimates the migration of the Kotlin sources below a directory with a recipe on the runtime classpath, like
+     * `arrow.RaiseRefactor`, parsing against the runtime classpath.
+     * <pre>
+     * MigrationEstimator &lt;root&gt; &lt;recipe&gt; [sample fraction] [seed]
+     * </pre>
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: MigrationEstimator <root> <recipe> [sample fraction] [seed]");
+        }
+        Recipe recipe = Environment.builder()
+                .scanRuntimeClasspath()
+                .build()
+                .activateRecipes(args[1]);
+        MigrationEstimator estimator = new MigrationEstimator(recipe, KotlinParser.builder().classpath(JavaParser.runtimeClasspath()));
+        if (args.length > 2) {
+            estimator.sampleFraction(Double.parseDouble(args[2]));
+        }
+        if (args.length > 3) {
+            estimator.seed(Long.parseLong(args[3]));
+        }
+        System.out.println(estimator.estimate(Paths.get(args[0]).toAbsolutePath().normalize()));
+    }
+}
@@ -0,0 +1,619 @@
+package arrow.runner;
+
+import arrow.ArrowSourcePrefilter;
+import arrow.ArrowUsageTable;
+import arrow.RecipeBudget;
+import arrow.RecipeMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openrewrite.DataTable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs a recipe over the Kotlin sources of a repository in one JVM, using all cores.
+ * <p>
+ * Only the sources the {@link ArrowSourcePrefilter} of the recipe selects are parsed, the others cannot change. The
+ * sources are parsed in batches of whole modules, so the files of a module are attributed together: small modules are
+ * grouped into batches of about {@link #parseBatchSize(int)} files, and a larger module is a batch of its own. The
+ * recipe then runs over the source files in a work-stealing pool: the files are ordered by size, largest first, the
+ * large files become tasks of their own and the small files are grouped into tasks of about the same size, so a large
+ * file is never left to run on its own at the end.
+ * <p>
+ * Every task runs the same recipe instance with its own {@link ExecutionContext}. The Arrow recipes look at one source
+ * file at a time, so the results are the same as those of a serial run, and they are returned in the order of the
+ * source files regardless of the number of threads, followed by the generated source files. The data table rows of the
+ * tasks are inserted into the context of the run, except for the rows of an {@link ArrowUsageTable} the context of the
+ * run {@link ArrowUsageTable#streamTo streams}, which the tasks write as they find them.
+ * <p>
+ * With a {@link #meterRegistry(MeterRegistry) meter registry}, the runner records the time it parses in
+ * `arrow.runner.parse` and the files it migrated in `arrow.runner.files`, and the Arrow recipes record their metrics in
+ * the same registry, see {@link RecipeMetrics}.
+ */
+public class MigrationRunner {
+    private static final Map<String, Recipe> RECIPES = new ConcurrentHashMap<>();
+    private static volatile Environment environment;
+
+    // The number of tasks per thread the small files are grouped into, to balance the load.
+    private static final int TASKS_PER_THREAD = 8;
+
+    static final String PARSE_METER = "arrow.runner.parse";
+    static final String FILES_METER = "arrow.runner.files";
+
+    private final Recipe recipe;
+    private final KotlinParser.Builder parser;
+    private final ArrowSourcePrefilter prefilter;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int parseBatchSize = 1_000;
+    private Consumer<Throwable> onError = Throwable::printStackTrace;
+    private Consumer<ArrowSourcePrefilter.Selection> onSelection = selection -> {
+    };
+
+    @Nullable
+    private LstCache lstCache;
+
+    @Nullable
+    private MeterRegistry meterRegistry;
+
+    @Nullable
+    private Duration fileBudget;
+    private final Map<String, Duration> recipeBudgets = new LinkedHashMap<>();
+
+    @Nullable
+    private RecipeBudget budget;
+
+    public MigrationRunner(Recipe recipe, KotlinParser.Builder parser) {
+        this.recipe = recipe;
+        this.parser = parser;
+        this.prefilter = ArrowSourcePrefilter.forRecipes(recipe);
+    }
+
+    /**
+     * The recipe with this name from the recipes on the runtime classpath, like `arrow.RaiseRefactor`. The classpath is
+     * only scanned once, and every runner of a recipe shares the same recipe instances.
+     */
+    public static Recipe recipe(String name) {
+        return RECIPES.computeIfAbsent(name, n -> environment().activateRecipes(n));
+    }
+
+    private static Environment environment() {
+        if (environment == null) {
+            synchronized (MigrationRunner.class) {
+                if (environment == null) {
+                    environment = Environment.builder().scanRuntimeClasspath().build();
+                }
+            }
+        }
+        return environment;
+    }
+
+    public MigrationRunner parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, but was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * The number of files small modules are grouped up to for one parse. A module is never split, so a batch of a larger
+     * module has more files.
+     */
+    public MigrationRunner parseBatchSize(int parseBatchSize) {
+        if (parseBatchSize < 1) {
+            throw new IllegalArgumentException("A batch needs at least one file, but was " + parseBatchSize);
+        }
+        this.parseBatchSize = parseBatchSize;
+        return this;
+    }
+
+    public MigrationRunner onError(Consumer<Throwable> onError) {
+        this.onError = onError;
+        return this;
+    }
+
+    /**
+     * Receives the sources the prefilter selected, and the number of files and bytes it skipped, for every migration.
+     */
+    public MigrationRunner onSelection(Consumer<ArrowSourcePrefilter.Selection> onSelection) {
+        this.onSelection = onSelection;
+        return this;
+    }
+
+    /**
+     * Loads the LSTs of the sources that did not change from the cache instead of parsing them, and stores the others.
+     */
+    public MigrationRunner lstCache(@Nullable LstCache lstCache) {
+        this.lstCache = lstCache;
+        return this;
+    }
+
+    public MigrationRunner meterRegistry(@Nullable MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        return this;
+    }
+
+    /**
+     * Leaves a source file unchanged when the recipes together take longer than the budget on it, and reports it to
+     * {@link #onError}, see {@link RecipeBudget}. The changes of all recipes to the file are discarded.
+     */
+    public MigrationRunner fileBudget(@Nullable Duration perFile) {
+        this.fileBudget = perFile;
+        this.budget = budget();
+        return this;
+    }
+
+    /**
+     * Leaves a source file unchanged when the recipe with this name takes longer than the budget on it, like
+     * {@link #fileBudget(Duration)}.
+     */
+    public MigrationRunner recipeBudget(String recipe, Duration perFile) {
+        this.recipeBudgets.put(recipe, perFile);
+        this.budget = budget();
+        return this;
+    }
+
+    @Nullable
+    private RecipeBudget budget() {
+        if (fileBudget == null && recipeBudgets.isEmpty()) {
+            return null;
+        }
+        // Without a budget per file, only the recipes with a budget are limited.
+        RecipeBudget budget = RecipeBudget.perFile(fileBudget == null ? Duration.ofNanos(Long.MAX_VALUE) : fileBudget);
+        for (Map.Entry<String, Duration> recipeBudget : recipeBudgets.entrySet()) {
+            budget = budget.withRecipe(recipeBudget.getKey(), recipeBudget.getValue());
+        }
+        return budget;
+    }
+
+    public List<Result> migrate(Path root) {
+        return migrate(root, KotlinSources.find(root));
+    }
+
+    /**
+     * Parses and migrates the sources the prefilter selects, and returns the results in the order of the sources.
+     */
+    public List<Result> migrate(Path root, List<Path> sources) {
+        return migrate(root, sources, new InMemoryExecutionContext());
+    }
+
+    /**
+     * Like {@link #migrate(Path, List)}, and inserts the data table rows of the recipe into the context. The errors of
+     * the parser and the recipe are reported to the context as well as to {@link #onError(Consumer)}.
+     */
+    public List<Result> migrate(Path root, List<Path> sources, ExecutionContext ctx) {
+        ArrowSourcePrefilter.Selection selection = prefilter.select(root, sources);
+        onSelection.accept(selection);
+        if (meterRegistry != null) {
+            // The skipped files are done as well.
+            meterRegistry.counter(FILES_METER).increment(selection.getSkippedFiles());
+        }
+        Map<Path, Long> sizes = new HashMap<>();
+        for (Path source : selection.getSources()) {
+            sizes.put(root.relativize(source), size(source));
+        }
+        return run(parse(root, selection.getSources(), ctx), sourceFile -> sizes.getOrDefault(sourceFile.getSourcePath(), 0L), ctx);
+    }
+
+    /**
+     * Parses the sources in batches of whole modules. The source files are returned in the order of the sources.
+     */
+    public List<SourceFile> parse(Path root, List<Path> sources) {
+        return parse(root, sources, new InMemoryExecutionContext());
+    }
+
+    private List<SourceFile> parse(Path root, List<Path> sources, ExecutionContext runCtx) {
+        Map<String, List<Path>> modules = new LinkedHashMap<>();
+        for (Path source : sources) {
+            modules.computeIfAbsent(ArrowUsageTable.moduleOf(root.relativize(source)), m -> new ArrayList<>()).add(source);
+        }
+
+        List<List<Path>> batches = new ArrayList<>();
+        List<Path> grouped = new ArrayList<>();
+        for (List<Path> module : modules.values()) {
+            if (!grouped.isEmpty() && grouped.size() + module.size() > parseBatchSize) {
+                batches.add(grouped);
+                grouped = new ArrayList<>();
+            }
+            grouped.addAll(module);
+        }
+        if (!grouped.isEmpty()) {
+            batches.add(grouped);
+        }
+
+        Map<Path, SourceFile> parsed = new HashMap<>();
+        for (List<Path> batch : batches) {
+            long start = System.nanoTime();
+            for (SourceFile sourceFile : parseBatch(root, batch, runCtx)) {
+                parsed.put(sourceFile.getSourcePath(), sourceFile);
+            }
+            if (meterRegistry != null) {
+                meterRegistry.timer(PARSE_METER).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        List<SourceFile> sourceFiles = new ArrayList<>(parsed.size());
+        for (Path source : sources) {
+            SourceFile sourceFile = parsed.get(root.relativize(source));
+            if (sourceFile != null) {
+                sourceFiles.add(sourceFile);
+            }
+        }
+        return sourceFiles;
+    }
+
+    private List<SourceFile> parseBatch(Path root, List<Path> batch, ExecutionContext runCtx) {
+        if (lstCache == null) {
+            return new ArrayList<>(parser.build().parse(batch, root, ctx(runCtx)));
+        }
+        Map<Path, byte[]> contents = new LinkedHashMap<>();
+        for (Path source : batch) {
+            try {
+                contents.put(source, Files.readAllBytes(source));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read " + source, e);
+            }
+        }
+        return lstCache.parse(parser, contents, root, ctx(runCtx));
+    }
+
+    /**
+     * Runs the recipe over the source files, and returns the results in the order of the source files.
+     *
+     * @param weight the relative cost of a source file, like its size in bytes.
+     */
+    public List<Result> run(List<SourceFile> sourceFiles, ToLongFunction<SourceFile> weight) {
+        return run(sourceFiles, weight, new InMemoryExecutionContext());
+    }
+
+    /**
+     * Like {@link #run(List, ToLongFunction)}, and inserts the data table rows of the recipe into the context. The
+     * recipe itself runs with contexts of the runner, the rows of every task are inserted in the order of the tasks, and
+     * the errors are reported to the context as well as to {@link #onError(Consumer)}.
+     */
+    public List<Result> run(List<SourceFile> sourceFiles, ToLongFunction<SourceFile> weight, ExecutionContext ctx) {
+        // With a registry the files are migrated in tasks even on one thread, to report the progress.
+        if ((parallelism == 1 && meterRegistry == null) || sourceFiles.size() < 2) {
+            ExecutionContext runCtx = ctx(ctx);
+            List<Result> results = withinBudget(recipe.run(sourceFiles, runCtx).getResults(), runCtx);
+            insertDataTables(runCtx, ctx);
+            markExceededFiles(runCtx, ctx);
+            if (meterRegistry != null) {
+                meterRegistry.counter(FILES_METER).increment(sourceFiles.size());
+            }
+            return results;
+        }
+
+        Map<UUID, Integer> order = new HashMap<>();
+        for (int i = 0; i < sourceFiles.size(); i++) {
+            order.put(sourceFiles.get(i).getId(), i);
+        }
+        List<SourceFile> largestFirst = new ArrayList<>(sourceFiles);
+        largestFirst.sort((a, b) -> Long.compare(weight.applyAsLong(b), weight.applyAsLong(a)));
+
+        long total = 0;
+        for (SourceFile sourceFile : sourceFiles) {
+            total += weight.applyAsLong(sourceFile);
+        }
+        long taskWeight = Math.max(1, total / ((long) parallelism * TASKS_PER_THREAD));
+
+        Result[] results = new Result[sourceFiles.size()];
+        List<Task> tasks = new ArrayList<>();
+        // Async mode runs the tasks in the order they were submitted, so the largest files start first.
+        ForkJoinPool pool = new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        try {
+            List<ForkJoinTask<?>> submitted = new ArrayList<>();
+            List<SourceFile> chunk = new ArrayList<>();
+            long chunkWeight = 0;
+            for (SourceFile sourceFile : largestFirst) {
+                chunk.add(sourceFile);
+                chunkWeight += weight.applyAsLong(sourceFile);
+                if (chunkWeight >= taskWeight) {
+                    tasks.add(new Task(chunk, order, results, ctx(ctx)));
+                    chunk = new ArrayList<>();
+                    chunkWeight = 0;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                tasks.add(new Task(chunk, order, results, ctx(ctx)));
+            }
+            for (Task task : tasks) {
+                submitted.add(pool.submit(task));
+            }
+            for (ForkJoinTask<?> task : submitted) {
+                task.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        List<Result> inOrder = new ArrayList<>();
+        for (Result result : results) {
+            if (result != null) {
+                inOrder.add(result);
+            }
+        }
+        // Like a serial run, the generated source files follow the changed ones.
+        for (Task task : tasks) {
+            inOrder.addAll(task.generated);
+            insertDataTables(task.ctx, ctx);
+            markExceededFiles(task.ctx, ctx);
+        }
+        return inOrder;
+    }
+
+    private class Task implements Runnable {
+        private final List<SourceFile> chunk;
+        private final Map<UUID, Integer> order;
+        private final Result[] results;
+        private final ExecutionContext ctx;
+        private final List<Result> generated = new ArrayList<>();
+
+        Task(List<SourceFile> chunk, Map<UUID, Integer> order, Result[] results, ExecutionContext ctx) {
+            this.chunk = chunk;
+            this.order = order;
+            this.results = results;
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void run() {
+            for (Result result : withinBudget(recipe.run(chunk, ctx).getResults(), ctx)) {
+                if (result.getBefore() == null) {
+                    generated.add(result);
+                } else {
+                    // Every task writes to the slots of its own source files only.
+                    results[order.get(result.getBefore().getId())] = result;
+                }
+            }
+            if (meterRegistry != null) {
+                meterRegistry.counter(FILES_METER).increment(chunk.size());
+            }
+        }
+    }
+
+    /**
+     * The results without the changes to the source files over their budget, including the changes of the recipes that
+     * are not budgeted, since the budgeted recipes left those files unchanged.
+     */
+    private static List<Result> withinBudget(List<Result> results, ExecutionContext ctx) {
+        Set<Path> exceeded = RecipeBudget.exceededFiles(ctx);
+        if (exceeded.isEmpty()) {
+            return results;
+        }
+        List<Result> within = new ArrayList<>(results.size());
+        for (Result result : results) {
+            if (result.getBefore() == null || !exceeded.contains(result.getBefore().getSourcePath())) {
+                within.add(result);
+            }
+        }
+        return within;
+    }
+
+    private static void markExceededFiles(ExecutionContext from, ExecutionContext into) {
+        for (Path sourcePath : RecipeBudget.exceededFiles(from)) {
+            RecipeBudget.markExceeded(into, sourcePath);
+        }
+    }
+
+    /**
+     * Inserts the data table rows collected in one context into another, through {@link DataTable#insertRow}, so a
+     * table like {@link ArrowUsageTable} that streams its rows still does.
+     */
+    @SuppressWarnings("unchecked")
+    private static void insertDataTables(ExecutionContext from, ExecutionContext into) {
+        Map<DataTable<?>, List<?>> dataTables = from.getMessage(ExecutionContext.DATA_TABLES);
+        if (dataTables == null) {
+            return;
+        }
+        for (Map.Entry<DataTable<?>, List<?>> dataTable : dataTables.entrySet()) {
+            for (Object row : dataTable.getValue()) {
+                ((DataTable<Object>) dataTable.getKey()).insertRow(into, row);
+            }
+        }
+    }
+
+    private ExecutionContext ctx(ExecutionContext runCtx) {
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            onError.accept(t);
+            runCtx.getOnError().accept(t);
+        });
+        if (meterRegistry != null) {
+            RecipeMetrics.register(ctx, meterRegistry);
+        }
+        if (budget != null) {
+            budget.applyTo(ctx);
+        }
+        // The tasks write the rows of a streamed table as they find them, instead of collecting them until the end.
+        ArrowUsageTable.streamLike(ctx, runCtx);
+        return ctx;
+    }
+
+    static long size(Path source) {
+        try {
+            return Files.size(source);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the size of " + source, e);
+        }
+    }
+
+    /**
+     * Writes the results as one unified diff.
+     */
+    public static void writePatch(List<Result> results, Writer out) throws IOException {
+        for (Result result : results) {
+            out.write(result.diff());
+        }
+        out.flush();
+    }
+
+    /**
+     * Runs a recipe on the runtime classpath over the Kotlin sources below a directory, parsing against the runtime
+     * classpath, and writes the changes as a unified diff to standard out or the patch file. The files the prefilter
+     * skipped are reported to standard error.
+     * <p>
+     * With `--shard i/N` only the sources of that {@link Shard} are migrated, combine the patches of all shards with
+     * {@link PatchMerger}. With `--window N` the sources are migrated by a {@link StreamingMigration} in windows of N
+     * files, and the patch is written as the windows complete. With `--cache dir` the outcome of every file is kept in a
+     * {@link ResultCache} in that directory, and files migrated before are not parsed again. With `--lst-cache dir` the
+     * parsed files are kept in an {@link LstCache} of at most `--lst-cache-size` MiB, 2048 by default. With
+     * `--progress seconds` the progress, the estimated time left and the time per recipe are logged to standard error at
+     * that interval, see {@link ProgressMeterRegistry}. With `--file-budget seconds` a file the recipes together spend
+     * more time on is left unchanged and reported, see {@link RecipeBudget}, and `--recipe-budget recipe=seconds,...`
+     * does the same for the time of single recipes.
+     * <pre>
+     * MigrationRunner &lt;root&gt; &lt;recipe&gt; [--threads N] [--shard i/N] [--window N] [--cache dir] [--lst-cache dir]
+     *     [--lst-cache-size MiB] [--progress seconds] [--file-budget seconds] [--recipe-budget recipe=seconds,...]
+     *     [--patch file]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        String threads = option(arguments, "--threads");
+        String patch = option(arguments, "--patch");
+        String shard = option(arguments, "--shard");
+        String window = option(arguments, "--window");
+        String cache = option(arguments, "--cache");
+        String lstCache = option(arguments, "--lst-cache");
+        String lstCacheSize = option(arguments, "--lst-cache-size");
+        String progress = option(arguments, "--progress");
+        String fileBudget = option(arguments, "--file-budget");
+        String recipeBudget = option(arguments, "--recipe-budget");
+        if (arguments.size() != 2) {
+            throw new IllegalArgumentException("Usage: MigrationRunner <root> <recipe> [--threads N] [--shard i/N] [--window N] [--cache dir] [--lst-cache dir] [--lst-cache-size MiB] [--progress seconds] [--file-budget seconds] [--recipe-budget recipe=seconds,...] [--patch file]");
+        }
+        if (window != null) {
+            // The streaming migration runs on one thread without the caches, the progress and the budget.
+            List<String> unsupported = new ArrayList<>();
+            String[][] options = {{"--threads", threads}, {"--cache", cache}, {"--lst-cache", lstCache},
+                    {"--lst-cache-size", lstCacheSize}, {"--progress", progress}, {"--file-budget", fileBudget},
+                    {"--recipe-budget", recipeBudget}};
+            for (String[] option : options) {
+                if (option[1] != null) {
+                    unsupported.add(option[0]);
+                }
+            }
+            if (!unsupported.isEmpty()) {
+                throw new IllegalArgumentException("--window cannot be combined with " + String.join(", ", unsupported));
+            }
+        }
+
+        Path root = Paths.get(arguments.get(0)).toAbsolutePath().normalize();
+        Recipe recipe = recipe(arguments.get(1));
+        Collection<Path> classpath = JavaParser.runtimeClasspath();
+        KotlinParser.Builder parser = KotlinParser.builder().classpath(classpath);
+        List<Path> sources = KotlinSources.find(root);
+        if (shard != null) {
+            sources = Shard.parse(shard).select(root, sources);
+        }
+
+        Writer out = patch == null ?
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8) :
+                Files.newBufferedWriter(Paths.get(patch), StandardCharsets.UTF_8);
+        try {
+            if (window != null) {
+                StreamingMigration streaming = new StreamingMigration(recipe, parser).windowSize(Integer.parseInt(window));
+                StreamingMigration.Summary summary = streaming.migrate(root, sources, result -> {
+                    try {
+                        out.write(result.diff());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                out.flush();
+                System.err.println(summary);
+            } else {
+                MigrationRunner runner = new MigrationRunner(recipe, parser).onSelection(System.err::println);
+                if (lstCache != null) {
+                    long maxBytes = (lstCacheSize == null ? 2048 : Long.parseLong(lstCacheSize)) * 1024 * 1024;
+                    runner.lstCache(new LstCache(Paths.get(lstCache), classpath, maxBytes));
+                }
+                if (threads != null) {
+                    runner.parallelism(Integer.parseInt(threads));
+                }
+                if (fileBudget != null) {
+                    runner.fileBudget(seconds(fileBudget));
+                }
+                if (recipeBudget != null) {
+                    for (String budget : recipeBudget.split(",")) {
+                        int equals = budget.lastIndexOf('=');
+                        if (equals < 0) {
+                            throw new IllegalArgumentException("--recipe-budget needs recipe=seconds, but was " + budget);
+                        }
+                        runner.recipeBudget(budget.substring(0, equals), seconds(budget.substring(equals + 1)));
+                    }
+                }
+                ProgressMeterRegistry progressRegistry = progress == null ? null :
+                        new ProgressMeterRegistry(sources.size(), Duration.ofSeconds(Long.parseLong(progress)), System.err::println);
+                runner.meterRegistry(progressRegistry);
+                try {
+                    if (cache != null) {
+                        ResultCache resultCache = new ResultCache(Paths.get(cache), recipe, classpath);
+                        out.write(resultCache.migrate(runner, root, sources).getPatch());
+                        out.flush();
+                    } else {
+                        writePatch(runner.migrate(root, sources), out);
+                    }
+                } finally {
+                    if (progressRegistry != null) {
+                        progressRegistry.close();
+                    }
+                }
+            }
+        } finally {
+            if (patch != null) {
+                out.close();
+            }
+        }
+    }
+
+    private static Duration seconds(String seconds) {
+        return Duration.ofMillis((long) (Double.parseDouble(seconds) * 1000));
+    }
+
+    @Nullable
+    static String option(List<String> arguments, String name) {
+        int index = arguments.indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        if (index + 1 >= arguments.size()) {
+            throw new IllegalArgumentException(name + " needs a value");
+        }
+        String value = arguments.get(index + 1);
+        arguments.subList(index, index + 2).clear();
+        return value;
+    }
+}
@@ -0,0 +1,375 @@
+package arrow.runner;
+
+import arrow.ArrowSourcePrefilter;
+import arrow.ArrowUsageTable;
+import arrow.CsvDataTableWriter;
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Migrates every repository in a directory, running as many modules in parallel as the heap allows.
+ * <p>
+ * The heap a module needs is estimated as its source bytes times {@link #heapBytesPerSourceByte(double)}, which
+ * {@link #calibrate(Path, List, KotlinParser.Builder)} measures by parsing a sample. A module is only admitted while the
+ * estimates of the running modules plus its own stay below {@link #heapCeiling(long)}, so the run never needs more
+ * heap than that. Modules are admitted largest first. A module larger than the ceiling runs when nothing else does.
+ * <p>
+ * Only the sources the {@link ArrowSourcePrefilter} of the recipe selects are parsed and count towards the heap of
+ * their module. Every module is parsed, migrated and written on its own, and its LSTs are dropped before its heap is released. Each
+ * repository gets a patch `{repository}.patch` in the output directory, and `throughput.csv` reports the files per
+ * second of every repository.
+ */
+public class MultiRepositoryMigration {
+    private final Recipe recipe;
+    private final KotlinParser.Builder parser;
+    private final ArrowSourcePrefilter prefilter;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long heapCeiling = (long) (Runtime.getRuntime().maxMemory() * 0.7);
+    private double heapBytesPerSourceByte = 40;
+
+    // Guarded by `this`.
+    private long admittedHeap;
+    private int running;
+
+    public MultiRepositoryMigration(Recipe recipe, KotlinParser.Builder parser) {
+        this.recipe = recipe;
+        this.parser = parser;
+        this.prefilter = ArrowSourcePrefilter.forRecipes(recipe);
+    }
+
+    public MultiRepositoryMigration parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one thread is needed, but was " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public MultiRepositoryMigration heapCeiling(long heapCeiling) {
+        this.heapCeiling = heapCeiling;
+        return this;
+    }
+
+    public MultiRepositoryMigration heapBytesPerSourceByte(double heapBytesPerSourceByte) {
+        this.heapBytesPerSourceByte = heapBytesPerSourceByte;
+        return this;
+    }
+
+    /**
+     * Measures the heap the parsed sources use per byte of source, to calibrate
+     * {@link #heapBytesPerSourceByte(double)}.
+     */
+    public static double calibrate(Path root, List<Path> sample, KotlinParser.Builder parser) {
+        long bytes = 0;
+        for (Path source : sample) {
+            bytes += MigrationRunner.size(source);
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        List<SourceFile> parsed = new ArrayList<>(parser.build().parse(sample, root, new InMemoryExecutionContext(Throwable::printStackTrace)));
+        System.gc();
+        long after = memory.getHeapMemoryUsage().getUsed();
+        // Keep the LSTs reachable until the heap is measured.
+        return parsed.isEmpty() || bytes == 0 ? 0 : Math.max(0, after - before) / (double) bytes;
+    }
+
+    /**
+     * Migrates the repositories, the directories in the root, and returns the throughput of each.
+     */
+    public List<Throughput> migrate(Path repositories, Path output) throws IOException {
+        Files.createDirectories(output);
+        List<Module> modules = new ArrayList<>();
+        Map<String, RepositoryProgress> progress = new TreeMap<>();
+        for (Path repository : repositories(repositories)) {
+            RepositoryProgress repositoryProgress = new RepositoryProgress(repository.getFileName().toString());
+            ArrowSourcePrefilter.Selection selection = prefilter.select(repository, KotlinSources.find(repository));
+            repositoryProgress.skipped(selection);
+            Map<String, List<Path>> sources = new TreeMap<>();
+            for (Path source : selection.getSources()) {
+                sources.computeIfAbsent(ArrowUsageTable.moduleOf(repository.relativize(source)), m -> new ArrayList<>()).add(source);
+            }
+            for (Map.Entry<String, List<Path>> module : sources.entrySet()) {
+                long bytes = 0;
+                for (Path source : module.getValue()) {
+                    bytes += MigrationRunner.size(source);
+                }
+                modules.add(new Module(repositoryProgress, repository, module.getKey(), module.getValue(), bytes));
+                repositoryProgress.pendingModules++;
+            }
+            if (repositoryProgress.pendingModules == 0) {
+                // Nothing to migrate, the patch is empty.
+                repositoryProgress.writePatch(output);
+            }
+            progress.put(repositoryProgress.name, repositoryProgress);
+        }
+        modules.sort((a, b) -> Long.compare(b.bytes, a.bytes));
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        List<Future<?>> tasks = new ArrayList<>();
+        try {
+            while (!modules.isEmpty()) {
+                Module module = admit(modules);
+                tasks.add(executor.submit(() -> {
+                    try {
+                        migrate(module, output);
+                    } finally {
+                        release(module);
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while migrating " + repositories, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to migrate " + repositories, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Throughput> throughput = new ArrayList<>();
+        try (CsvDataTableWriter<Throughput> csv = CsvDataTableWriter.open(Throughput.class, output.resolve("throughput.csv"))) {
+            for (RepositoryProgress repository : progress.values()) {
+                Throughput row = repository.throughput();
+                csv.write(row);
+                throughput.add(row);
+            }
+        }
+        return throughput;
+    }
+
+    /**
+     * Waits until a thread is free and the largest pending module that fits into the heap ceiling can be admitted.
+     */
+    private synchronized Module admit(List<Module> pending) throws InterruptedException {
+        while (true) {
+            if (running < parallelism) {
+                for (int i = 0; i < pending.size(); i++) {
+                    Module module = pending.get(i);
+                    long heap = heap(module);
+                    if (running == 0 || admittedHeap + heap <= heapCeiling) {
+                        pending.remove(i);
+                        admittedHeap += heap;
+                        running++;
+                        return module;
+                    }
+                }
+            }
+            wait();
+        }
+    }
+
+    private synchronized void release(Module module) {
+        admittedHeap -= heap(module);
+        running--;
+        notifyAll();
+    }
+
+    private long heap(Module module) {
+        return (long) (module.bytes * heapBytesPerSourceByte);
+    }
+
+    private void migrate(Module module, Path output) {
+        long start = System.nanoTime();
+        MigrationRunner runner = new MigrationRunner(recipe, parser).parallelism(1);
+        StringWriter patch = new StringWriter();
+        int changedFiles;
+        try {
+            // The sources were selected by the prefilter already.
+            List<Result> results = runner.run(runner.parse(module.repository, module.sources), sourceFile -> 1);
+            changedFiles = results.size();
+            MigrationRunner.writePatch(results, patch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        module.progress.completed(module, patch.toString(), changedFiles, System.nanoTime() - start, output);
+    }
+
+    private static List<Path> repositories(Path root) throws IOException {
+        try (Stream<Path> children = Files.list(root)) {
+            return children
+                    .filter(Files::isDirectory)
+                    .filter(path -> !path.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static final class Module {
+        final RepositoryProgress progress;
+        final Path repository;
+        final String name;
+        final List<Path> sources;
+        final long bytes;
+
+        Module(RepositoryProgress progress, Path repository, String name, List<Path> sources, long bytes) {
+            this.progress = progress;
+            this.repository = repository;
+            this.name = name;
+            this.sources = sources;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class RepositoryProgress {
+        final String name;
+        final Map<String, String> patches = new TreeMap<>();
+        int pendingModules;
+        int files;
+        int skippedFiles;
+        long bytes;
+        int changedFiles;
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+
+        RepositoryProgress(String name) {
+            this.name = name;
+        }
+
+        synchronized void skipped(ArrowSourcePrefilter.Selection selection) {
+            files += selection.getSkippedFiles();
+            skippedFiles += selection.getSkippedFiles();
+            bytes += selection.getSkippedBytes();
+        }
+
+        /**
+         * Records a migrated module, and writes the patch of the repository, ordered by module, after its last module.
+         */
+        synchronized void completed(Module module, String patch, int changed, long nanos, Path output) {
+            long end = System.nanoTime();
+            firstStart = Math.min(firstStart, end - nanos);
+            lastEnd = Math.max(lastEnd, end);
+            files += module.sources.size();
+            bytes += module.bytes;
+            changedFiles += changed;
+            patches.put(module.name, patch);
+            if (--pendingModules == 0) {
+                writePatch(output);
+            }
+        }
+
+        synchronized void writePatch(Path output) {
+            try (Writer out = Files.newBufferedWriter(output.resolve(name + ".patch"), StandardCharsets.UTF_8)) {
+                for (String modulePatch : patches.values()) {
+                    out.write(modulePatch);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            patches.clear();
+        }
+
+        synchronized Throughput throughput() {
+            // No module ran when every file was skipped.
+            long millis = lastEnd < firstStart ? 0 : (lastEnd - firstStart) / 1_000_000;
+            return new Throughput(name, files, skippedFiles, bytes, changedFiles, millis, millis == 0 ? 0 : files * 1000.0 / millis);
+        }
+    }
+
+    @Value
+    public static class Throughput {
+        @Column(displayName = "Repository",
+                description = "The directory of the repository.")
+        String repository;
+
+        @Column(displayName = "Files",
+                description = "The number of Kotlin source files.")
+        int files;
+
+        @Column(displayName = "Skipped files",
+                description = "The source files without Arrow usage, which were not parsed.")
+        int skippedFiles;
+
+        @Column(displayName = "Bytes",
+                description = "The size of the Kotlin source files.")
+        long bytes;
+
+        @Column(displayName = "Changed files",
+                description = "The number of source files the recipe changed.")
+        int changedFiles;
+
+        @Column(displayName = "Wall-clock milliseconds",
+                description = "The time from the start of the first module to the end of the last module.")
+        long millis;
+
+        @Column(displayName = "Files per second",
+                description = "The files migrated per second of wall-clock time.")
+        double filesPerSecond;
+    }
+
+    /**
+     * Migrates every repository in a directory with a recipe on the runtime classpath, parsing against the runtime
+     * classpath. Without `--heap-ratio`, the ratio is calibrated on the first files of the first repository.
+     * <pre>
+     * MultiRepositoryMigration &lt;repositories&gt; &lt;recipe&gt; &lt;output&gt; [--threads N] [--heap-ceiling MiB] [--heap-ratio R]
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        String threads = MigrationRunner.option(arguments, "--threads");
+        String heapCeiling = MigrationRunner.option(arguments, "--heap-ceiling");
+        String heapRatio = MigrationRunner.option(arguments, "--heap-ratio");
+        if (arguments.size() != 3) {
+            throw new IllegalArgumentException("Usage: MultiRepositoryMigration <repositories> <recipe> <output> " +
+                                               "[--threads N] [--heap-ceiling MiB] [--heap-ratio R]");
+        }
+
+        Path repositories = Paths.get(arguments.get(0)).toAbsolutePath().normalize();
+        KotlinParser.Builder parser = KotlinParser.builder().classpath(JavaParser.runtimeClasspath());
+        MultiRepositoryMigration migration = new MultiRepositoryMigration(MigrationRunner.recipe(arguments.get(1)), parser);
+        if (threads != null) {
+            migration.parallelism(Integer.parseInt(threads));
+        }
+        if (heapCeiling != null) {
+            migration.heapCeiling(Long.parseLong(heapCeiling) << 20);
+        }
+        if (heapRatio != null) {
+            migration.heapBytesPerSourceByte(Double.parseDouble(heapRatio));
+        } else {
+            List<Path> candidates = repositories(repositories);
+            if (!candidates.isEmpty()) {
+                List<Path> sources = KotlinSources.find(candidates.get(0));
+                List<Path> sample = sources.subList(0, Math.min(200, sources.size()));
+                if (!sample.isEmpty()) {
+                    migration.heapBytesPerSourceByte(calibrate(candidates.get(0), sample, parser));
+                }
+            }
+        }
+
+        for (Throughput throughput : migration.migrate(repositories, Paths.get(arguments.get(2)))) {
+            System.out.println(throughput);
+        }
+    }
+}
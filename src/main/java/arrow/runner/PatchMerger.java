@@ -0,0 +1,108 @@
+package arrow.runner;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Combines the patches written by the shards of a migration, see {@link Shard}, into one patch.
+ * <p>
+ * The shards split the sources by module, so no two shards should change the same file. The merge fails, listing the
+ * files, when they do, instead of producing a patch that does not apply. The combined patch has the file diffs ordered
+ * by path, so it does not depend on the order of the shard patches.
+ */
+public final class PatchMerger {
+    private static final String FILE_HEADER = "diff --git ";
+
+    private PatchMerger() {
+    }
+
+    public static String merge(List<Path> patches) throws IOException {
+        Map<String, String> diffs = new TreeMap<>();
+        Map<String, List<Path>> overlaps = new LinkedHashMap<>();
+        Map<String, Path> patchOf = new TreeMap<>();
+        for (Path patch : patches) {
+            for (Map.Entry<String, String> diff : split(new String(Files.readAllBytes(patch), StandardCharsets.UTF_8)).entrySet()) {
+                Path previous = patchOf.putIfAbsent(diff.getKey(), patch);
+                if (previous != null) {
+                    overlaps.computeIfAbsent(diff.getKey(), f -> new ArrayList<>(Collections.singletonList(previous))).add(patch);
+                } else {
+                    diffs.put(diff.getKey(), diff.getValue());
+                }
+            }
+        }
+        if (!overlaps.isEmpty()) {
+            StringBuilder message = new StringBuilder("Files changed by more than one shard:");
+            for (Map.Entry<String, List<Path>> overlap : overlaps.entrySet()) {
+                message.append("\n  ").append(overlap.getKey()).append(" in ").append(overlap.getValue());
+            }
+            throw new IllegalStateException(message.toString());
+        }
+
+        StringBuilder merged = new StringBuilder();
+        for (String diff : diffs.values()) {
+            merged.append(diff);
+        }
+        return merged.toString();
+    }
+
+    /**
+     * The diffs of a unified git patch by the path of the file, the `a/` path of its `diff --git a/.. b/..` header.
+     */
+    static Map<String, String> split(String patch) {
+        Map<String, String> diffs = new LinkedHashMap<>();
+        int start = 0;
+        if (!patch.startsWith(FILE_HEADER)) {
+            int first = patch.indexOf("\n" + FILE_HEADER);
+            if (first < 0) {
+                if (!patch.trim().isEmpty()) {
+                    throw new IllegalArgumentException("Not a git patch, no line starts with " + FILE_HEADER.trim());
+                }
+                return diffs;
+            }
+            start = first + 1;
+        }
+        while (start < patch.length()) {
+            int next = patch.indexOf("\n" + FILE_HEADER, start);
+            int end = next < 0 ? patch.length() : next + 1;
+            String diff = patch.substring(start, end);
+            int headerEnd = diff.indexOf('\n');
+            String header = diff.substring(FILE_HEADER.length(), headerEnd < 0 ? diff.length() : headerEnd);
+            int newPath = header.indexOf(" b/");
+            String path = header.startsWith("a/") && newPath > 0 ? header.substring(2, newPath) : header;
+            if (diffs.put(path, diff) != null) {
+                throw new IllegalArgumentException("The patch changes " + path + " twice");
+            }
+            start = end;
+        }
+        return diffs;
+    }
+
+    /**
+     * <pre>
+     * PatchMerger &lt;combined patch&gt; &lt;shard patch&gt;...
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Usage: PatchMerger <combined patch> <shard patch>...");
+        }
+        List<Path> patches = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            patches.add(Paths.get(args[i]));
+        }
+        String merged = merge(patches);
+        try (Writer out = Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+            out.write(merged);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package arrow.runner;
+
+import arrow.RecipeMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the metrics of a {@link MigrationRunner} in memory, and logs the progress of the run at a fixed interval: the
+ * files migrated, the rate, the estimated time left, and where the time went so far, like
+ * <pre>
+ * 12000/48000 files (25%), 310 files/s, ETA 1m 56s; parse 40.2s, applicability 1.3s, visit 9.8s (arrow.RewriteEffectDSL 4.1s, ...)
+ * </pre>
+ * The times are summed over all threads. The last line is logged when the registry is closed.
+ */
+public class ProgressMeterRegistry extends SimpleMeterRegistry {
+    private final long totalFiles;
+    private final Consumer<String> log;
+    private final long startNanos = System.nanoTime();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "arrow-progress");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProgressMeterRegistry(long totalFiles, Duration interval, Consumer<String> log) {
+        this.totalFiles = totalFiles;
+        this.log = log;
+        scheduler.scheduleAtFixedRate(() -> log.accept(progress()), interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    String progress() {
+        double files = 0;
+        for (Counter counter : find(MigrationRunner.FILES_METER).counters()) {
+            files += counter.count();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        double rate = seconds > 0 ? files / seconds : 0;
+
+        StringBuilder progress = new StringBuilder();
+        progress.append((long) files).append('/').append(totalFiles).append(" files");
+        if (totalFiles > 0) {
+            progress.append(String.format(Locale.ROOT, " (%.0f%%)", 100 * files / totalFiles));
+        }
+        progress.append(String.format(Locale.ROOT, ", %.0f files/s", rate));
+        if (rate > 0 && files < totalFiles) {
+            progress.append(", ETA ").append(duration((totalFiles - files) / rate));
+        }
+
+        progress.append("; parse ").append(duration(seconds(MigrationRunner.PARSE_METER)));
+        progress.append(", applicability ").append(duration(seconds(RecipeMetrics.APPLICABILITY)));
+        double visit = 0;
+        Map<String, Double> byRecipe = new HashMap<>();
+        for (Timer timer : find(RecipeMetrics.VISIT).timers()) {
+            double recipeSeconds = timer.totalTime(TimeUnit.NANOSECONDS) / 1e9;
+            byRecipe.merge(timer.getId().getTag("recipe"), recipeSeconds, Double::sum);
+            visit += recipeSeconds;
+        }
+        progress.append(", visit ").append(duration(visit));
+        if (!byRecipe.isEmpty()) {
+            List<Map.Entry<String, Double>> slowest = new ArrayList<>(byRecipe.entrySet());
+            slowest.sort((a, b) -> Double.compare(b.getValue(), a.getValue()));
+            progress.append(" (");
+            for (int i = 0; i < Math.min(3, slowest.size()); i++) {
+                progress.append(i > 0 ? ", " : "").append(slowest.get(i).getKey()).append(' ').append(duration(slowest.get(i).getValue()));
+            }
+            progress.append(slowest.size() > 3 ? ", ...)" : ")");
+        }
+        return progress.toString();
+    }
+
+    private double seconds(String timerName) {
+        double seconds = 0;
+        for (Timer timer : find(timerName).timers()) {
+            seconds += timer.totalTime(TimeUnit.NANOSECONDS) / 1e9;
+        }
+        return seconds;
+    }
+
+    static String duration(double seconds) {
+        if (seconds < 60) {
+            return String.format(Locale.ROOT, "%.1fs", seconds);
+        }
+        long whole = Math.round(seconds);
+        return whole < 3600 ?
+                String.format(Locale.ROOT, "%dm %ds", whole / 60, whole % 60) :
+                String.format(Locale.ROOT, "%dh %dm", whole / 3600, whole % 3600 / 60);
+    }
+
+    @Override
+    public void close() {
+        if (!scheduler.isShutdown()) {
+            scheduler.shutdownNow();
+            log.accept(progress());
+        }
+        super.close();
+    }
+}
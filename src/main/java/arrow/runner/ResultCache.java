@@ -0,0 +1,334 @@
+package arrow.runner;
+
+import arrow.ArrowUsageTable;
+import arrow.RecipeBudget;
+import arrow.RecipeBudgetExceededException;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Option;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Remembers the outcome of migrating a source file on disk, so a later run over the same file content, with the same
+ * recipes and classpath, neither parses nor migrates it again.
+ * <p>
+ * Outcomes are stored by the hash of the file content and of the paths and contents of all sources of its module, which
+ * are attributed with it, in a directory per fingerprint of the recipe graph and the classpath. A change to any source of
+ * a module migrates the whole module again. The recipe fingerprint covers the class, name and {@link Option} values of every recipe in the graph, the
+ * recipe lists of the declarative recipes, which is what their YAML defines, and the code the recipe classes are loaded
+ * from. The classpath fingerprint covers the path, size and modification time of every entry, to not read every jar on
+ * every run. An outcome is either "no change" or the diff of the file, which is reused for any file with the same
+ * content by replacing the path in its header. Only the outcomes of runs without errors are stored, and never those of
+ * files that exceeded their {@link RecipeBudget}.
+ * <p>
+ * Files with the same content within a module are also only parsed and migrated once per run.
+ */
+public class ResultCache {
+    private static final String UNCHANGED = "unchanged";
+    private static final String CHANGED = "changed ";
+    private static final Map<String, String> CODE_HASHES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    public ResultCache(Path directory, Recipe recipe, Collection<Path> classpath) {
+        this.directory = directory.resolve(sha256((recipeFingerprint(recipe) + "\n" + classpathFingerprint(classpath))
+                .getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Migrates the sources with the runner, skipping the sources whose outcome is cached, and returns the patch of all
+     * sources, in their order.
+     */
+    public CachedRun migrate(MigrationRunner runner, Path root, List<Path> sources) throws IOException {
+        Map<String, List<Path>> modules = new LinkedHashMap<>();
+        for (Path source : sources) {
+            modules.computeIfAbsent(ArrowUsageTable.moduleOf(root.relativize(source)), m -> new ArrayList<>()).add(source);
+        }
+
+        // The outcome of a file depends on the other sources of its module, they are attributed together. So the key
+        // covers the content of the file and the paths and contents of all sources of its module.
+        Map<Path, String> keys = new HashMap<>();
+        Map<String, List<Path>> byKey = new LinkedHashMap<>();
+        Map<String, String> moduleOfKey = new HashMap<>();
+        for (Map.Entry<String, List<Path>> module : modules.entrySet()) {
+            Map<Path, String> contentHashes = new LinkedHashMap<>();
+            Map<String, String> moduleContent = new TreeMap<>();
+            for (Path source : module.getValue()) {
+                String hash = sha256(Files.readAllBytes(source));
+                contentHashes.put(source, hash);
+                moduleContent.put(root.relativize(source).toString().replace('\\', '/'), hash);
+            }
+            String moduleHash = sha256(moduleContent.toString().getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<Path, String> content : contentHashes.entrySet()) {
+                String key = sha256((moduleHash + " " + content.getValue()).getBytes(StandardCharsets.UTF_8));
+                keys.put(content.getKey(), key);
+                byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(content.getKey());
+                moduleOfKey.put(key, module.getKey());
+            }
+        }
+
+        Map<String, Outcome> outcomes = new HashMap<>();
+        Set<String> missedModules = new HashSet<>();
+        for (Map.Entry<String, List<Path>> content : byKey.entrySet()) {
+            Outcome outcome = read(content.getKey());
+            if (outcome != null) {
+                outcomes.put(content.getKey(), outcome);
+            } else {
+                missedModules.add(moduleOfKey.get(content.getKey()));
+            }
+        }
+        // A module with a miss is migrated as a whole, so the misses are attributed with all their siblings.
+        List<Path> misses = new ArrayList<>();
+        for (Map.Entry<String, List<Path>> content : byKey.entrySet()) {
+            if (missedModules.contains(moduleOfKey.get(content.getKey()))) {
+                misses.add(content.getValue().get(0));
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            // Errors are not attributed to a file, so nothing of a run with errors is stored. Otherwise a file that failed
+            // to parse, or that a recipe failed on, would be remembered as unchanged. Files over their budget are marked in
+            // the context, only they are not stored.
+            List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+            ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+                if (!(t instanceof RecipeBudgetExceededException)) {
+                    errors.add(t);
+                }
+            });
+            Map<Path, String> diffs = new HashMap<>();
+            for (Result result : runner.migrate(root, misses, ctx)) {
+                if (result.getBefore() != null) {
+                    diffs.put(result.getBefore().getSourcePath(), result.diff());
+                }
+            }
+            Set<Path> exceeded = RecipeBudget.exceededFiles(ctx);
+            for (Path miss : misses) {
+                String sourcePath = root.relativize(miss).toString();
+                String diff = diffs.get(root.relativize(miss));
+                Outcome outcome = diff == null ? new Outcome(null, null) : new Outcome(sourcePath, diff);
+                String key = keys.get(miss);
+                if (errors.isEmpty() && !exceeded.contains(root.relativize(miss))) {
+                    write(key, outcome);
+                }
+                outcomes.put(key, outcome);
+            }
+        }
+
+        StringWriter patch = new StringWriter();
+        for (Path source : sources) {
+            Outcome outcome = outcomes.get(keys.get(source));
+            if (outcome.getDiff() != null) {
+                patch.write(outcome.diffOf(root.relativize(source).toString()));
+            }
+        }
+        return new CachedRun(patch.toString(), sources.size(), sources.size() - byKey.size(),
+                byKey.size() - misses.size(), misses.size());
+    }
+
+    @Value
+    public static class CachedRun {
+        String patch;
+        int files;
+
+        /**
+         * The files with the same content as an earlier file of the same module in the same run.
+         */
+        int duplicates;
+        int hits;
+        int migrated;
+    }
+
+    @Value
+    static class Outcome {
+        /**
+         * The path of the file the diff was recorded for, or `null` when the file does not change.
+         */
+        @Nullable
+        String sourcePath;
+
+        @Nullable
+        String diff;
+
+        /**
+         * The diff for a file with the same content at another path.
+         */
+        String diffOf(String otherPath) {
+            if (diff == null || sourcePath == null || sourcePath.equals(otherPath)) {
+                return diff == null ? "" : diff;
+            }
+            int hunks = diff.indexOf("\n@@");
+            String header = hunks < 0 ? diff : diff.substring(0, hunks);
+            return header.replace(sourcePath, otherPath) + (hunks < 0 ? "" : diff.substring(hunks));
+        }
+    }
+
+    @Nullable
+    private Outcome read(String key) throws IOException {
+        Path entry = entry(key);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        String stored = new String(Files.readAllBytes(entry), StandardCharsets.UTF_8);
+        if (stored.equals(UNCHANGED)) {
+            return new Outcome(null, null);
+        }
+        int newline = stored.indexOf('\n');
+        if (!stored.startsWith(CHANGED) || newline < 0) {
+            // Not written by this version, migrate the file again.
+            return null;
+        }
+        return new Outcome(stored.substring(CHANGED.length(), newline), stored.substring(newline + 1));
+    }
+
+    private void write(String key, Outcome outcome) throws IOException {
+        Path entry = entry(key);
+        Files.createDirectories(entry.getParent());
+        String stored = outcome.getDiff() == null ? UNCHANGED : CHANGED + outcome.getSourcePath() + "\n" + outcome.getDiff();
+        // Written to a temporary file first, so concurrent runs never read a partial entry.
+        Path temporary = Files.createTempFile(entry.getParent(), key, ".tmp");
+        Files.write(temporary, stored.getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, entry, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private Path entry(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    /**
+     * The recipes of the graph with their options, and the code they are loaded from, in a stable order.
+     */
+    static String recipeFingerprint(Recipe recipe) {
+        StringBuilder fingerprint = new StringBuilder();
+        appendRecipe(recipe, 0, fingerprint);
+        return fingerprint.toString();
+    }
+
+    private static void appendRecipe(Recipe recipe, int depth, StringBuilder fingerprint) {
+        for (int i = 0; i < depth; i++) {
+            fingerprint.append("  ");
+        }
+        fingerprint.append(recipe.getClass().getName()).append(' ').append(recipe.getName());
+        Map<String, Object> options = new TreeMap<>();
+        for (Class<?> c = recipe.getClass(); c != Recipe.class && c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && field.isAnnotationPresent(Option.class)) {
+                    try {
+                        field.setAccessible(true);
+                        options.putIfAbsent(field.getName(), field.get(recipe));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        fingerprint.append(' ').append(options).append(' ').append(codeHash(recipe.getClass())).append('\n');
+        for (Recipe next : recipe.getRecipeList()) {
+            appendRecipe(next, depth + 1, fingerprint);
+        }
+    }
+
+    /**
+     * The hash of the jar or class directory a class is loaded from, which also covers the resources next to it, like
+     * the YAML recipes and the mapping tables.
+     */
+    static String codeHash(Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        URL location = codeSource == null ? null : codeSource.getLocation();
+        if (location == null) {
+            return "-";
+        }
+        return CODE_HASHES.computeIfAbsent(location.toString(), l -> {
+            try {
+                Path path = Paths.get(location.toURI());
+                if (!Files.isDirectory(path)) {
+                    return sha256(Files.readAllBytes(path));
+                }
+                MessageDigest digest = digest();
+                try (Stream<Path> files = Files.walk(path)) {
+                    for (Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                        digest.update(path.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                        digest.update(Files.readAllBytes(file));
+                    }
+                }
+                return hex(digest.digest());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                return location.toString();
+            }
+        });
+    }
+
+    static String classpathFingerprint(Collection<Path> classpath) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (Path entry : classpath) {
+            fingerprint.append(entry.toAbsolutePath());
+            try {
+                if (Files.isRegularFile(entry)) {
+                    fingerprint.append(' ').append(Files.size(entry)).append(' ').append(Files.getLastModifiedTime(entry).toMillis());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            fingerprint.append('\n');
+        }
+        return fingerprint.toString();
+    }
+
+    static String sha256(byte[] bytes) {
+        return hex(digest().digest(bytes));
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,83 @@
+package arrow.runner;
+
+import arrow.ArrowUsageTable;
+import lombok.Value;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One of {@link #count} shards of a migration, to spread a repository that does not fit into one JVM over several
+ * processes.
+ * <p>
+ * The sources are assigned to shards module by module, so the files of a module are parsed and attributed together.
+ * Modules are assigned largest first to the shard with the fewest bytes so far, which only depends on the sources, so
+ * every process computes the same assignment without coordination, and every source belongs to exactly one shard.
+ */
+@Value
+public class Shard {
+    int index;
+    int count;
+
+    /**
+     * Parses `i/N`, where `0 <= i < N`.
+     */
+    public static Shard parse(String shard) {
+        int slash = shard.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Expected a shard like 0/4, but was " + shard);
+        }
+        int index = Integer.parseInt(shard.substring(0, slash).trim());
+        int count = Integer.parseInt(shard.substring(slash + 1).trim());
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Expected a shard i/N with 0 <= i < N, but was " + shard);
+        }
+        return new Shard(index, count);
+    }
+
+    /**
+     * The sources of this shard, in their original order.
+     */
+    public List<Path> select(Path root, List<Path> sources) {
+        Map<String, Long> moduleSizes = new TreeMap<>();
+        for (Path source : sources) {
+            moduleSizes.merge(module(root, source), MigrationRunner.size(source), Long::sum);
+        }
+
+        List<Map.Entry<String, Long>> largestFirst = new ArrayList<>(moduleSizes.entrySet());
+        // Ties are broken by module name, the entries are already sorted by name and the sort is stable.
+        largestFirst.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        long[] shardSizes = new long[count];
+        Map<String, Integer> assignment = new TreeMap<>();
+        for (Map.Entry<String, Long> module : largestFirst) {
+            int smallest = 0;
+            for (int shard = 1; shard < count; shard++) {
+                if (shardSizes[shard] < shardSizes[smallest]) {
+                    smallest = shard;
+                }
+            }
+            assignment.put(module.getKey(), smallest);
+            shardSizes[smallest] += module.getValue();
+        }
+
+        List<Path> selected = new ArrayList<>();
+        for (Path source : sources) {
+            if (assignment.get(module(root, source)) == index) {
+                selected.add(source);
+            }
+        }
+        return selected;
+    }
+
+    private static String module(Path root, Path source) {
+        return ArrowUsageTable.moduleOf(root.relativize(source));
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,162 @@
+package arrow.runner;
+
+import arrow.ArrowSourcePrefilter;
+import arrow.ArrowUsageTable;
+import lombok.Value;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Migrates a repository in windows of at most {@link #windowSize(int)} files, so the heap needed depends on the size of
+ * the window instead of the size of the repository.
+ * <p>
+ * Only the sources the {@link ArrowSourcePrefilter} of the recipe selects are migrated, the others cannot change and
+ * are not parsed. Module by module, a window of files is parsed, the recipe runs over it, the results are handed to a sink, like
+ * {@link #writeTo(Path)}, and the LSTs of the window are dropped before the next window is parsed. Files of the same
+ * module in other windows are not on the parser's classpath, so only types from the classpath, like the Arrow types,
+ * are attributed for sure.
+ * <p>
+ * This only gives the same result as a regular run for recipes that look at one source file at a time, which all Arrow
+ * recipes do. Recipes that need the whole set of source files, because they override `Recipe.visit(List, ..)` or have
+ * an applicability test over all source files, are reported by {@link #crossFileRecipes(Recipe)} and rejected.
+ */
+public class StreamingMigration {
+    private final Recipe recipe;
+    private final KotlinParser.Builder parser;
+    private final ArrowSourcePrefilter prefilter;
+
+    private int windowSize = 200;
+    private Consumer<Throwable> onError = Throwable::printStackTrace;
+
+    public StreamingMigration(Recipe recipe, KotlinParser.Builder parser) {
+        List<String> crossFile = crossFileRecipes(recipe);
+        if (!crossFile.isEmpty()) {
+            throw new IllegalArgumentException(recipe.getName() + " cannot be run in windows, these recipes need the " +
+                                               "whole set of source files: " + crossFile);
+        }
+        this.recipe = recipe;
+        this.parser = parser;
+        this.prefilter = ArrowSourcePrefilter.forRecipes(recipe);
+    }
+
+    public StreamingMigration windowSize(int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("A window needs at least one file, but was " + windowSize);
+        }
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    public StreamingMigration onError(Consumer<Throwable> onError) {
+        this.onError = onError;
+        return this;
+    }
+
+    /**
+     * The names of the recipes in the recipe graph that need the whole set of source files.
+     */
+    public static List<String> crossFileRecipes(Recipe recipe) {
+        List<String> crossFile = new ArrayList<>();
+        collectCrossFileRecipes(recipe, crossFile);
+        return crossFile;
+    }
+
+    private static void collectCrossFileRecipes(Recipe recipe, List<String> crossFile) {
+        if (declares(recipe.getClass(), "visit", List.class, ExecutionContext.class) ||
+            declares(recipe.getClass(), "getApplicableTest")) {
+            crossFile.add(recipe.getName());
+        }
+        for (Recipe next : recipe.getRecipeList()) {
+            collectCrossFileRecipes(next, crossFile);
+        }
+    }
+
+    private static boolean declares(Class<?> recipeClass, String method, Class<?>... parameterTypes) {
+        for (Class<?> c = recipeClass; c != Recipe.class && c != null; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod(method, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not overridden here, check the superclass.
+            }
+        }
+        return false;
+    }
+
+    public Summary migrate(Path root, Consumer<Result> sink) {
+        return migrate(root, KotlinSources.find(root), sink);
+    }
+
+    public Summary migrate(Path root, List<Path> sources, Consumer<Result> sink) {
+        ArrowSourcePrefilter.Selection selection = prefilter.select(root, sources);
+        Map<String, List<Path>> modules = new LinkedHashMap<>();
+        for (Path source : selection.getSources()) {
+            modules.computeIfAbsent(ArrowUsageTable.moduleOf(root.relativize(source)), m -> new ArrayList<>()).add(source);
+        }
+
+        int changedFiles = 0;
+        int windows = 0;
+        for (List<Path> module : modules.values()) {
+            for (int from = 0; from < module.size(); from += windowSize) {
+                List<Path> window = module.subList(from, Math.min(module.size(), from + windowSize));
+                // A new context per window, so nothing a recipe caches in it outlives the window.
+                ExecutionContext ctx = new InMemoryExecutionContext(onError);
+                List<SourceFile> sourceFiles = new ArrayList<>(parser.build().parse(window, root, ctx));
+                for (Result result : recipe.run(sourceFiles, ctx).getResults()) {
+                    sink.accept(result);
+                    changedFiles++;
+                }
+                windows++;
+            }
+        }
+        return new Summary(sources.size(), selection.getSkippedFiles(), changedFiles, windows);
+    }
+
+    /**
+     * A sink writing the changed source files below the root, replacing the original files.
+     */
+    public static Consumer<Result> writeTo(Path root) {
+        return result -> {
+            try {
+                if (result.getBefore() != null && (result.getAfter() == null ||
+                                                   !result.getBefore().getSourcePath().equals(result.getAfter().getSourcePath()))) {
+                    Files.deleteIfExists(root.resolve(result.getBefore().getSourcePath()));
+                }
+                if (result.getAfter() != null) {
+                    Path file = root.resolve(result.getAfter().getSourcePath());
+                    Files.createDirectories(file.getParent());
+                    Files.write(file, result.getAfter().printAll().getBytes(StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    @Value
+    public static class Summary {
+        int files;
+
+        /**
+         * The files the prefilter skipped, which were not parsed.
+         */
+        int skippedFiles;
+        int changedFiles;
+        int windows;
+    }
+}
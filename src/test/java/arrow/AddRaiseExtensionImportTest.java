@@ -0,0 +1,108 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.kotlin.KotlinParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.kotlin.Assertions.kotlin;
+
+/**
+ * `AddRaiseExtensionImport` also matches the `arrow.core.continuations` types, so it works whether or not `ChangeType`
+ * already moved them to `arrow.core.raise`.
+ */
+class AddRaiseExtensionImportTest implements RewriteTest {
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.parser(
+          KotlinParser.builder()
+            .logCompilationWarningsAndErrors(true)
+            .classpath("arrow-core-jvm")
+        );
+    }
+
+    @Test
+    void foldOnContinuationsEffect() {
+        rewriteRun(
+          spec -> spec.recipe(new AddRaiseExtensionImport("fold(..)", null, "arrow.core.raise.fold")),
+          kotlin(
+            """
+              package com.yourorg
+
+              import arrow.core.continuations.effect
+
+              suspend fun example() {
+                effect<String, Int> {
+                  1
+                }.fold(
+                  { 0 },
+                  { it }
+                )
+              }
+              """,
+            """
+              package com.yourorg
+
+              import arrow.core.continuations.effect
+              import arrow.core.raise.fold
+
+              suspend fun example() {
+                effect<String, Int> {
+                  1
+                }.fold(
+                  { 0 },
+                  { it }
+                )
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void orNullOnContinuationsEagerEffect() {
+        rewriteRun(
+          spec -> spec.recipe(new AddRaiseExtensionImport("orNull()", "getOrNull", "arrow.core.raise.getOrNull")),
+          kotlin(
+            """
+              package com.yourorg
+
+              import arrow.core.continuations.eagerEffect
+
+              fun example(): Int? =
+                eagerEffect<String, Int> {
+                  1
+                }.orNull()
+              """,
+            """
+              package com.yourorg
+
+              import arrow.core.continuations.eagerEffect
+              import arrow.core.raise.getOrNull
+
+              fun example(): Int? =
+                eagerEffect<String, Int> {
+                  1
+                }.getOrNull()
+              """
+          )
+        );
+    }
+
+    @Test
+    void otherReceiversAreLeftAlone() {
+        rewriteRun(
+          spec -> spec.recipe(new AddRaiseExtensionImport("fold(..)", null, "arrow.core.raise.fold")),
+          kotlin(
+            """
+              package com.yourorg
+
+              import arrow.core.Either
+
+              fun example(either: Either<String, Int>): Int =
+                either.fold({ 0 }, { it })
+              """
+          )
+        );
+    }
+}
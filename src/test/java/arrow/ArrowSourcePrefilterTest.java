@@ -0,0 +1,116 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.kotlin.KotlinIsoVisitor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArrowSourcePrefilterTest {
+    private static final String PLAIN_KOTLIN = """
+      package com.yourorg
+
+      data class User(val name: String)
+
+      fun greet(user: User): String = "Hello, ${user.name}"
+      """;
+
+    @ParameterizedTest
+    @EnumSource(value = MeasuredRecipe.class, names = {"RAISE_REFACTOR", "RAISE_REFACTOR_SINGLE_PASS", "VALIDATED_TO_EITHER_SINGLE_PASS"})
+    void neverSkipsAChangedSource(MeasuredRecipe measured) {
+        Recipe recipe = measured.recipe();
+        ArrowSourcePrefilter prefilter = ArrowSourcePrefilter.forRecipes(recipe);
+        assertThat(prefilter.getTokens()).isNotEmpty();
+
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().seed(7).files(200), PLAIN_KOTLIN);
+        List<Result> results = recipe.run(sourceFiles, new InMemoryExecutionContext(Throwable::printStackTrace)).getResults();
+        assertThat(results).isNotEmpty();
+        for (Result result : results) {
+            assertThat(result.getBefore()).isNotNull();
+            assertThat(prefilter.mayChange(result.getBefore().printAll()))
+              .as("%s changes %s", recipe.getName(), result.getBefore().getSourcePath())
+              .isTrue();
+        }
+        assertThat(prefilter.mayChange(PLAIN_KOTLIN)).isFalse();
+    }
+
+    @Test
+    void derivesTokensFromTheDeclarativeRecipes() {
+        ArrowSourcePrefilter prefilter = ArrowSourcePrefilter.forRecipes(
+          MeasuredRecipe.declarative("arrow.RaiseRefactor"),
+          MeasuredRecipe.declarative("arrow.ValidatedToEitherRecipe"),
+          new ChangeValidatedLambda());
+
+        assertThat(prefilter.getTokens())
+          .contains("EffectScope", "EagerEffect", "Validated", "arrow.core.continuations.", "ensureNotNull", "traverse", "validNel");
+        assertThat(prefilter.mayChange("import arrow.core.continuations.*\n\nfun EffectScope<String>.f() = Unit\n")).isTrue();
+        assertThat(prefilter.mayChange("import arrow.core.Validated as V\n")).isTrue();
+        assertThat(prefilter.mayChange(PLAIN_KOTLIN)).isFalse();
+    }
+
+    @Test
+    void unknownRecipesDisableSkipping() {
+        ArrowSourcePrefilter prefilter = ArrowSourcePrefilter.forRecipes(new RaiseRefactorSinglePass(), new Recipe() {
+            @Override
+            public String getDisplayName() {
+                return "Unknown";
+            }
+
+            @Override
+            protected TreeVisitor<?, ExecutionContext> getVisitor() {
+                return new KotlinIsoVisitor<>();
+            }
+        });
+
+        assertThat(prefilter.getTokens()).isNull();
+        assertThat(prefilter.mayChange(PLAIN_KOTLIN)).isTrue();
+    }
+
+    @Test
+    void recipesVisitingAllSourceFilesDisableSkipping() {
+        ArrowSourcePrefilter prefilter = ArrowSourcePrefilter.forRecipes(new RaiseRefactorSinglePass(), new Recipe() {
+            @Override
+            public String getDisplayName() {
+                return "All source files";
+            }
+
+            @Override
+            protected List<SourceFile> visit(List<SourceFile> before, ExecutionContext ctx) {
+                return before;
+            }
+        });
+
+        assertThat(prefilter.getTokens()).isNull();
+    }
+
+    @Test
+    void reportsSkippedFilesAndBytes(@TempDir Path project) throws IOException {
+        Path arrow = Files.write(project.resolve("Arrow.kt"), "fun x() = effect<String, Int> { 1 }\n".getBytes(StandardCharsets.UTF_8));
+        Path plain = Files.write(project.resolve("Plain.kt"), PLAIN_KOTLIN.getBytes(StandardCharsets.UTF_8));
+
+        ArrowSourcePrefilter.Selection selection = ArrowSourcePrefilter.forRecipes(new RaiseRefactorSinglePass())
+          .select(project, Arrays.asList(arrow, plain));
+
+        assertThat(selection.getSources()).containsExactly(arrow);
+        assertThat(selection.getInputs()).extracting(input -> input.getPath().toString()).containsExactly("Arrow.kt");
+        assertThat(selection.getScannedFiles()).isEqualTo(2);
+        assertThat(selection.getSkippedFiles()).isEqualTo(1);
+        assertThat(selection.getSkippedBytes()).isEqualTo(Files.size(plain));
+        assertThat(selection.getScannedBytes()).isEqualTo(Files.size(plain) + Files.size(arrow));
+    }
+}
@@ -0,0 +1,115 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.search.UsesMethod;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.JavaSourceFile;
+import org.openrewrite.marker.SearchResult;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArrowUsageIndexTest {
+    private static final List<String> TYPES = Arrays.asList(
+      "arrow.core.raise.Raise",
+      "arrow.core.raise.Effect",
+      "arrow.core.continuations.EffectScope",
+      "arrow.core.continuations.EagerEffectScope",
+      "arrow.core.continuations.Effect",
+      "arrow.core.Validated",
+      "arrow.core.Either"
+    );
+    private static final List<String> METHODS = Arrays.asList(
+      "arrow.core.continuations.Effect fold(..)",
+      "arrow.core.continuations.Effect orNull()",
+      "arrow.core.continuations.EffectScope ensure(..)",
+      "arrow.core.continuations.EffectScopeKt ensureNotNull(..)",
+      "arrow.core.continuations.EffectKt effect(..)",
+      "arrow.core.continuations.either eager(..)",
+      "arrow.core.ValidatedKt valid()",
+      "arrow.core.IterableKt traverse(..)",
+      "arrow.core.continuations.* shift(..)"
+    );
+
+    @Test
+    void findsEverythingUsesTypeAndUsesMethodFind() {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        for (SourceFile sourceFile : RecipeDifferential.parse(new KotlinCorpusGenerator().seed(8).files(100))) {
+            ArrowUsageIndex index = ArrowUsageIndex.of((JavaSourceFile) sourceFile, ctx);
+            for (String type : TYPES) {
+                if (new UsesType<>(type, true).visit(sourceFile, ctx) != sourceFile) {
+                    assertThat(index.usesType(type)).as("%s in %s", type, sourceFile.getSourcePath()).isTrue();
+                }
+            }
+            for (String method : METHODS) {
+                assertThat(index.usesMethod(method))
+                  .as("%s in %s", method, sourceFile.getSourcePath())
+                  .isEqualTo(new UsesMethod<>(method).visit(sourceFile, ctx) != sourceFile);
+            }
+        }
+    }
+
+    @Test
+    void indexIsSharedUntilTheSourceFileChanges() {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        JavaSourceFile sourceFile = (JavaSourceFile) RecipeDifferential.parse(new KotlinCorpusGenerator().seed(8).files(1)).get(0);
+
+        ArrowUsageIndex index = ArrowUsageIndex.of(sourceFile, ctx);
+        assertThat(ArrowUsageIndex.of(sourceFile, ctx)).isSameAs(index);
+        assertThat(ArrowUsageIndex.of(SearchResult.found(sourceFile), ctx)).isNotSameAs(index);
+    }
+
+    @Test
+    void dropsTheIndexOfAChangedSourceFile() {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        JavaSourceFile sourceFile = (JavaSourceFile) RecipeDifferential.parse(new KotlinCorpusGenerator().seed(8).files(1)).get(0);
+
+        ArrowUsageIndex index = ArrowUsageIndex.of(sourceFile, ctx);
+        ArrowUsageIndex.drop(SearchResult.found(sourceFile), ctx);
+        assertThat(ArrowUsageIndex.of(sourceFile, ctx)).isSameAs(index);
+        ArrowUsageIndex.drop(sourceFile, ctx);
+        assertThat(ArrowUsageIndex.of(sourceFile, ctx)).isNotSameAs(index);
+    }
+
+    @Test
+    void answersDoNotDependOnOtherContexts() {
+        JavaSourceFile sourceFile = (JavaSourceFile) RecipeDifferential.parse(new KotlinCorpusGenerator().seed(8).files(0), """
+          package com.yourorg
+
+          import arrow.core.continuations.EffectScope
+
+          suspend fun EffectScope<String>.test(): Int = shift("failure")
+          """).get(0);
+
+        ExecutionContext first = new InMemoryExecutionContext(Throwable::printStackTrace);
+        assertThat(ArrowUsageIndex.of(sourceFile, first).usesMethod("arrow.core.continuations.EffectScope ensure(..)")).isFalse();
+
+        // The pattern ids are assigned per context, so the same id means another pattern here.
+        ExecutionContext second = new InMemoryExecutionContext(Throwable::printStackTrace);
+        ArrowUsageIndex index = ArrowUsageIndex.of(sourceFile, second);
+        assertThat(index.usesMethod("arrow.core.continuations.EffectScope shift(..)")).isTrue();
+        assertThat(index.usesMethod("arrow.core.continuations.EffectScope ensure(..)")).isFalse();
+    }
+
+    @Test
+    void applicabilityTestFindsAnyOfTheUsages() {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        SourceFile sourceFile = RecipeDifferential.parse(new KotlinCorpusGenerator().seed(8).files(0), """
+          package com.yourorg
+
+          import arrow.core.continuations.EffectScope
+
+          suspend fun EffectScope<String>.test(): Int = shift("failure")
+          """).get(0);
+
+        assertThat(ArrowUsageIndex.usesAnyType("arrow.core.continuations.EffectScope").visit(sourceFile, ctx)).isNotSameAs(sourceFile);
+        assertThat(ArrowUsageIndex.usesAnyMethod("arrow.core.continuations.EffectScope shift(..)").visit(sourceFile, ctx)).isNotSameAs(sourceFile);
+        assertThat(ArrowUsageIndex.usesAnyType("arrow.core.Validated").visit(sourceFile, ctx)).isSameAs(sourceFile);
+        assertThat(ArrowUsageIndex.usesAnyMethod("arrow.core.continuations.EffectScope ensure(..)").visit(sourceFile, ctx)).isSameAs(sourceFile);
+    }
+}
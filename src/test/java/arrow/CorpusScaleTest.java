@@ -0,0 +1,84 @@
+package arrow;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs `arrow.RaiseRefactor` over generated corpora of increasing size, and appends throughput and heap use per size to
+ * `build/stress/corpus-scale.csv`. Run with `./gradlew stressTest -Parrow.stress.sizes=1000,10000,100000`.
+ */
+@Tag("stress")
+class CorpusScaleTest {
+
+    static Stream<Integer> sizes() {
+        return Arrays.stream(System.getProperty("arrow.stress.sizes", "1000,5000").split(","))
+          .map(String::trim)
+          .map(Integer::valueOf);
+    }
+
+    @ParameterizedTest
+    @MethodSource("sizes")
+    void raiseRefactor(int files) throws IOException {
+        KotlinCorpusGenerator generator = new KotlinCorpusGenerator().seed(42).files(files).modules(10);
+        Recipe recipe = Environment.builder()
+          .scanRuntimeClasspath()
+          .build()
+          .activateRecipes("arrow.RaiseRefactor");
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        long parseStart = System.nanoTime();
+        List<SourceFile> sourceFiles = new ArrayList<>(KotlinParser.builder()
+          .classpath("arrow-core-jvm")
+          .build()
+          .parseInputs(generator.inputs(), null, new InMemoryExecutionContext(Throwable::printStackTrace)));
+        long parseNanos = System.nanoTime() - parseStart;
+        System.gc();
+        long heapAfterParse = memory.getHeapMemoryUsage().getUsed();
+
+        long runStart = System.nanoTime();
+        RecipeRun run = recipe.run(sourceFiles, new InMemoryExecutionContext(Throwable::printStackTrace));
+        long runNanos = System.nanoTime() - runStart;
+        long heapAfterRun = memory.getHeapMemoryUsage().getUsed();
+
+        assertThat(sourceFiles).hasSize(files);
+        assertThat(run.getResults()).isNotEmpty();
+
+        Path report = Paths.get("build", "stress", "corpus-scale.csv");
+        Files.createDirectories(report.getParent());
+        if (!Files.exists(report)) {
+            Files.write(report, "files,parse_ms,run_ms,files_per_second,heap_after_parse_mb,heap_after_run_mb,changed_files\n"
+              .getBytes(StandardCharsets.UTF_8));
+        }
+        String row = String.format("%d,%d,%d,%.1f,%d,%d,%d%n",
+          files,
+          parseNanos / 1_000_000,
+          runNanos / 1_000_000,
+          files / (runNanos / 1e9),
+          heapAfterParse >> 20,
+          heapAfterRun >> 20,
+          run.getResults().size());
+        Files.write(report, row.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+}
@@ -108,4 +108,59 @@ class EitherDSLTest implements RewriteTest {
           )
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void optionEagerToOptionDSL() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+                            
+              import arrow.core.Option
+              import arrow.core.continuations.option
+              import arrow.core.continuations.eager
+
+              fun test(): Option<Int> = option.eager {
+                1
+              }
+              """,
+            """
+              package com.yourorg
+                            
+              import arrow.core.Option
+              import arrow.core.raise.option
+
+              fun test(): Option<Int> = option {
+                1
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void nullableImplicitInvokeToNullableDSL() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+                            
+              import arrow.core.continuations.nullable
+
+              suspend fun test(): Int? = nullable {
+                1
+              }
+              """,
+            """
+              package com.yourorg
+                            
+              import arrow.core.raise.nullable
+
+              suspend fun test(): Int? = nullable {
+                1
+              }
+              """
+          )
+        );
+    }
+}
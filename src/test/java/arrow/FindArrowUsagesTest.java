@@ -0,0 +1,82 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FindArrowUsagesTest {
+
+    @Test
+    void streamsUsagesWithoutChangingSources(@TempDir Path tempDir) throws IOException {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), """
+          package com.yourorg
+
+          import arrow.core.Either
+          import arrow.core.continuations.EffectScope
+          import arrow.core.continuations.either
+          import arrow.core.continuations.ensureNotNull
+
+          suspend fun EffectScope<String>.test(value: Int?): Int {
+            val x = ensureNotNull(value) { "missing" }
+            return if (x > 0) x else shift("negative")
+          }
+
+          fun eager(): Either<String, Int> = either.eager {
+            either.eager<String, Int> { 1 }.bind()
+          }
+          """);
+        Path csv = tempDir.resolve("usages.csv");
+
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+        try (CsvDataTableWriter<ArrowUsageTable.Row> writer = CsvDataTableWriter.open(ArrowUsageTable.Row.class, csv)) {
+            ArrowUsageTable.streamTo(ctx, writer);
+            assertThat(new FindArrowUsages().run(sourceFiles, ctx).getResults()).isEmpty();
+            assertThat(writer.getRowCount()).isEqualTo(3);
+        }
+
+        String path = sourceFiles.get(0).getSourcePath().toString();
+        assertThat(Files.readAllLines(csv, StandardCharsets.UTF_8)).containsExactlyInAnyOrder(
+          "module,sourcePath,usage,recipe,count",
+          ".," + path + ",EffectScopeKt.ensureNotNull,arrow.RaiseEnsureImport,1",
+          ".," + path + ",EffectScope.shift,arrow.migrate.EffectScope,1",
+          ".," + path + ",either.eager,arrow.RewriteEffectDSL,2"
+        );
+    }
+
+    @Test
+    void countsTheGeneratedCorpusPerModule(@TempDir Path tempDir) throws IOException {
+        KotlinCorpusGenerator generator = new KotlinCorpusGenerator().seed(15).files(40).modules(4);
+        Path csv = tempDir.resolve("usages.csv");
+
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        try (CsvDataTableWriter<ArrowUsageTable.Row> writer = CsvDataTableWriter.open(ArrowUsageTable.Row.class, csv)) {
+            ArrowUsageTable.streamTo(ctx, writer);
+            new FindArrowUsages().run(RecipeDifferential.parse(generator), ctx);
+        }
+
+        List<String> rows = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        assertThat(rows.subList(1, rows.size()))
+          .isNotEmpty()
+          .allSatisfy(row -> assertThat(row).matches("module-[0-3],.*"));
+    }
+
+    @Test
+    void moduleIsTheDirectoryBeforeSrc() {
+        assertThat(ArrowUsageTable.moduleOf(Paths.get("core", "api", "src", "main", "kotlin", "A.kt"))).isEqualTo("core/api");
+        assertThat(ArrowUsageTable.moduleOf(Paths.get("src", "main", "kotlin", "A.kt"))).isEqualTo(".");
+        assertThat(ArrowUsageTable.moduleOf(Paths.get("A.kt"))).isEqualTo(".");
+    }
+}
@@ -0,0 +1,70 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.kotlin.KotlinParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.kotlin.Assertions.kotlin;
+
+class ImportBatchingVisitorTest implements RewriteTest {
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new ChangeTopLevelFunction("arrow.core.continuations.EffectKt effect(..)", "effect", "arrow.core.raise.effect"))
+          .parser(
+            KotlinParser.builder()
+              .logCompilationWarningsAndErrors(true)
+              .classpath("arrow-core-jvm")
+          );
+    }
+
+    @Test
+    void manyCallSitesChangeTheImportsOnce() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+                            
+              import arrow.core.continuations.Effect
+              import arrow.core.continuations.effect
+
+              val a: Effect<String, Int> = effect { 1 }
+              val b: Effect<String, Int> = effect { 2 }
+              val c: Effect<String, Int> = effect { effect<String, Int> { 3 }.bind() }
+              """,
+            """
+              package com.yourorg
+                            
+              import arrow.core.continuations.Effect
+              import arrow.core.raise.effect
+
+              val a: Effect<String, Int> = effect { 1 }
+              val b: Effect<String, Int> = effect { 2 }
+              val c: Effect<String, Int> = effect { effect<String, Int> { 3 }.bind() }
+              """
+          )
+        );
+    }
+
+    @Test
+    void replacesTheOnlyImportInPlace() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+
+              import arrow.core.continuations.effect
+
+              val a = effect<String, Int> { 1 }
+              """,
+            """
+              package com.yourorg
+
+              import arrow.core.raise.effect
+
+              val a = effect<String, Int> { 1 }
+              """
+          )
+        );
+    }
+}
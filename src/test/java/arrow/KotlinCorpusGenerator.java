@@ -0,0 +1,298 @@
+package arrow;
+
+import org.openrewrite.Parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates deterministic Kotlin projects that use the Arrow 1.1 APIs the recipes migrate, to test how the recipes
+ * scale with the size of a code base.
+ * <p>
+ * Every file is derived from the seed and its own index only, so file `i` is identical regardless of the corpus size,
+ * and corpora of any size can be generated lazily without holding them in memory.
+ */
+public class KotlinCorpusGenerator {
+
+    /**
+     * The Arrow 1.1 API usages a generated function can exercise.
+     */
+    public enum Feature {
+        EFFECT_SCOPE,
+        EAGER_EFFECT_SCOPE,
+        EITHER_EAGER,
+        ENSURE_NOT_NULL,
+        VALIDATED_TRAVERSE,
+        FOLD_OR_NULL
+    }
+
+    private long seed = 42;
+    private int files = 1_000;
+    private int modules = 1;
+    private int minFunctionsPerFile = 2;
+    private int maxFunctionsPerFile = 8;
+    private int minNestingDepth = 1;
+    private int maxNestingDepth = 3;
+    private final Map<Feature, Integer> densities = new EnumMap<>(Feature.class);
+
+    public KotlinCorpusGenerator() {
+        for (Feature feature : Feature.values()) {
+            densities.put(feature, 1);
+        }
+    }
+
+    public KotlinCorpusGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public KotlinCorpusGenerator files(int files) {
+        this.files = files;
+        return this;
+    }
+
+    /**
+     * Spreads the files over this many Gradle modules, `module-0` up to `module-{modules - 1}`.
+     */
+    public KotlinCorpusGenerator modules(int modules) {
+        if (modules < 1) {
+            throw new IllegalArgumentException("A corpus needs at least one module");
+        }
+        this.modules = modules;
+        return this;
+    }
+
+    public KotlinCorpusGenerator functionsPerFile(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Expected 1 <= min <= max, but was " + min + " and " + max);
+        }
+        this.minFunctionsPerFile = min;
+        this.maxFunctionsPerFile = max;
+        return this;
+    }
+
+    /**
+     * The maximum depth of nested `either.eager` blocks and `traverse` lambdas.
+     */
+    public KotlinCorpusGenerator maxNestingDepth(int maxNestingDepth) {
+        return nestingDepth(1, maxNestingDepth);
+    }
+
+    /**
+     * The range of the depth of nested `either.eager` blocks and `traverse` lambdas, `nestingDepth(d, d)` nests all of
+     * them exactly `d` levels deep.
+     */
+    public KotlinCorpusGenerator nestingDepth(int min, int max) {
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException("Expected 1 <= min <= max, but was " + min + " and " + max);
+        }
+        this.minNestingDepth = min;
+        this.maxNestingDepth = max;
+        return this;
+    }
+
+    /**
+     * The relative weight of a feature when picking what a generated function does, `0` disables it.
+     */
+    public KotlinCorpusGenerator density(Feature feature, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("A density cannot be negative");
+        }
+        densities.put(feature, weight);
+        return this;
+    }
+
+    public int fileCount() {
+        return files;
+    }
+
+    public Path path(int index) {
+        return Paths.get("module-" + (index % modules), "src", "main", "kotlin", "gen", "f" + index, "Generated" + index + ".kt");
+    }
+
+    public String source(int index) {
+        Random random = new Random(seed ^ (index * 0x9E3779B97F4A7C15L));
+        Set<String> imports = new TreeSet<>();
+        StringBuilder body = new StringBuilder();
+        int functions = minFunctionsPerFile + random.nextInt(maxFunctionsPerFile - minFunctionsPerFile + 1);
+        for (int n = 0; n < functions; n++) {
+            body.append('\n');
+            function(pick(random), n, minNestingDepth + random.nextInt(maxNestingDepth - minNestingDepth + 1), imports, body);
+        }
+
+        StringBuilder source = new StringBuilder("package gen.f").append(index).append("\n\n");
+        for (String anImport : imports) {
+            source.append("import ").append(anImport).append('\n');
+        }
+        return source.append(body).toString();
+    }
+
+    /**
+     * The corpus as parser inputs, the sources are only generated when the parser reads them.
+     */
+    public List<Parser.Input> inputs() {
+        List<Parser.Input> inputs = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            int index = i;
+            inputs.add(new Parser.Input(path(index),
+                    () -> new ByteArrayInputStream(source(index).getBytes(StandardCharsets.UTF_8))));
+        }
+        return inputs;
+    }
+
+    /**
+     * Writes the corpus as a Gradle project, one `build.gradle.kts` per module, and returns the number of bytes written.
+     */
+    public long writeTo(Path root) {
+        try {
+            Files.createDirectories(root);
+            StringBuilder settings = new StringBuilder("rootProject.name = \"arrow-corpus\"\n");
+            for (int m = 0; m < modules; m++) {
+                settings.append("include(\"module-").append(m).append("\")\n");
+                Path module = Files.createDirectories(root.resolve("module-" + m));
+                Files.write(module.resolve("build.gradle.kts"), buildFile().getBytes(StandardCharsets.UTF_8));
+            }
+            Files.write(root.resolve("settings.gradle.kts"), settings.toString().getBytes(StandardCharsets.UTF_8));
+
+            long bytes = 0;
+            for (int i = 0; i < files; i++) {
+                Path file = root.resolve(path(i));
+                Files.createDirectories(file.getParent());
+                byte[] source = source(i).getBytes(StandardCharsets.UTF_8);
+                Files.write(file, source);
+                bytes += source.length;
+            }
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String buildFile() {
+        return "plugins {\n" +
+               "  kotlin(\"jvm\") version \"1.8.21\"\n" +
+               "}\n" +
+               "\n" +
+               "dependencies {\n" +
+               "  implementation(\"io.arrow-kt:arrow-core:1.1.6-alpha.91\")\n" +
+               "}\n";
+    }
+
+    private Feature pick(Random random) {
+        int total = 0;
+        for (int weight : densities.values()) {
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalStateException("At least one feature needs a positive density");
+        }
+        int remaining = random.nextInt(total);
+        for (Map.Entry<Feature, Integer> density : densities.entrySet()) {
+            remaining -= density.getValue();
+            if (remaining < 0) {
+                return density.getKey();
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    private static void function(Feature feature, int n, int depth, Set<String> imports, StringBuilder out) {
+        switch (feature) {
+            case EFFECT_SCOPE:
+                imports.add("arrow.core.continuations.EffectScope");
+                out.append("suspend fun EffectScope<String>.effect").append(n).append("(value: Int): Int {\n")
+                        .append("  ensure(value > 0) { \"non-positive\" }\n")
+                        .append("  return if (value > 100) shift(\"too large\") else value\n")
+                        .append("}\n");
+                break;
+            case EAGER_EFFECT_SCOPE:
+                imports.add("arrow.core.continuations.EagerEffectScope");
+                out.append("fun EagerEffectScope<String>.eager").append(n).append("(value: Int): Int {\n")
+                        .append("  ensure(value != 0) { \"zero\" }\n")
+                        .append("  return if (value < 0) shift(\"negative\") else value\n")
+                        .append("}\n");
+                break;
+            case EITHER_EAGER:
+                imports.add("arrow.core.Either");
+                imports.add("arrow.core.continuations.either");
+                out.append("fun either").append(n).append("(value: Int): Either<String, Int> = either.eager {\n");
+                eitherBody(1, depth, out);
+                out.append("}\n");
+                break;
+            case ENSURE_NOT_NULL:
+                imports.add("arrow.core.continuations.EffectScope");
+                imports.add("arrow.core.continuations.ensureNotNull");
+                out.append("suspend fun EffectScope<String>.notNull").append(n).append("(value: String?): String =\n")
+                        .append("  ensureNotNull(value) { \"missing\" }\n");
+                break;
+            case VALIDATED_TRAVERSE:
+                imports.add("arrow.core.Validated");
+                imports.add("arrow.core.invalid");
+                imports.add("arrow.core.traverse");
+                imports.add("arrow.core.valid");
+                imports.add("arrow.typeclasses.Semigroup");
+                out.append("fun validate").append(n).append("(value: Int): Validated<String, Int> =\n")
+                        .append("  if (value > 0) value.valid() else \"non-positive\".invalid()\n")
+                        .append('\n')
+                        .append("fun validateAll").append(n).append("(values: List<Int>): Validated<String, List<Int>> =\n")
+                        .append("  values.traverse(Semigroup.string()) { v0 -> ");
+                traverseBody(n, 1, depth, out);
+                out.append(" }\n");
+                break;
+            case FOLD_OR_NULL:
+                imports.add("arrow.core.continuations.effect");
+                out.append("suspend fun program").append(n).append("(value: Int): Int? {\n")
+                        .append("  val program = effect<String, Int> { if (value > 0) value else shift(\"non-positive\") }\n")
+                        .append("  val folded = program.fold({ 0 }, { it })\n")
+                        .append("  return program.orNull() ?: folded\n")
+                        .append("}\n");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown feature " + feature);
+        }
+    }
+
+    private static void eitherBody(int level, int depth, StringBuilder out) {
+        String indent = indent(level);
+        out.append(indent).append("ensure(value > ").append(level).append(") { \"too small\" }\n");
+        if (level < depth) {
+            out.append(indent).append("val nested").append(level).append(" = either.eager<String, Int> {\n");
+            eitherBody(level + 1, depth, out);
+            out.append(indent).append("}.bind()\n");
+            out.append(indent).append("nested").append(level).append(" + 1\n");
+        } else {
+            out.append(indent).append("value\n");
+        }
+    }
+
+    private static void traverseBody(int n, int level, int depth, StringBuilder out) {
+        String variable = "v" + (level - 1);
+        if (level < depth) {
+            out.append("listOf(").append(variable).append(").traverse(Semigroup.string()) { v").append(level).append(" -> ");
+            traverseBody(n, level + 1, depth, out);
+            out.append(" }.map { it.first() }");
+        } else {
+            out.append("validate").append(n).append('(').append(variable).append(')');
+        }
+    }
+
+    private static String indent(int level) {
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            indent.append("  ");
+        }
+        return indent.toString();
+    }
+}
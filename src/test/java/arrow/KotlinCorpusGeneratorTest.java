@@ -0,0 +1,51 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KotlinCorpusGeneratorTest {
+
+    @Test
+    void sameSeedGeneratesSameFiles() {
+        KotlinCorpusGenerator small = new KotlinCorpusGenerator().seed(7).files(10);
+        KotlinCorpusGenerator large = new KotlinCorpusGenerator().seed(7).files(10_000);
+
+        for (int i = 0; i < small.fileCount(); i++) {
+            assertThat(large.source(i)).isEqualTo(small.source(i));
+            assertThat(large.path(i)).isEqualTo(small.path(i));
+        }
+    }
+
+    @Test
+    void differentSeedsGenerateDifferentFiles() {
+        assertThat(new KotlinCorpusGenerator().seed(1).source(0))
+          .isNotEqualTo(new KotlinCorpusGenerator().seed(2).source(0));
+    }
+
+    @Test
+    void densityZeroDisablesFeature() {
+        KotlinCorpusGenerator generator = new KotlinCorpusGenerator()
+          .density(KotlinCorpusGenerator.Feature.VALIDATED_TRAVERSE, 0)
+          .files(100);
+
+        for (int i = 0; i < generator.fileCount(); i++) {
+            assertThat(generator.source(i)).doesNotContain("traverse");
+        }
+    }
+
+    @Test
+    void nestingDepthIsBounded() {
+        KotlinCorpusGenerator generator = new KotlinCorpusGenerator()
+          .density(KotlinCorpusGenerator.Feature.EFFECT_SCOPE, 0)
+          .density(KotlinCorpusGenerator.Feature.EAGER_EFFECT_SCOPE, 0)
+          .density(KotlinCorpusGenerator.Feature.ENSURE_NOT_NULL, 0)
+          .density(KotlinCorpusGenerator.Feature.FOLD_OR_NULL, 0)
+          .maxNestingDepth(2)
+          .files(100);
+
+        for (int i = 0; i < generator.fileCount(); i++) {
+            assertThat(generator.source(i)).doesNotContain("v2 ->").doesNotContain("nested2");
+        }
+    }
+}
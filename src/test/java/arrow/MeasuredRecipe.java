@@ -0,0 +1,81 @@
+package arrow;
+
+import org.openrewrite.Recipe;
+import org.openrewrite.config.Environment;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The recipes measured by the benchmarks and {@link RecipeAllocationTest}, configured the way `raise-change-type.yml`
+ * and `validated-to-either.yml` configure them.
+ * <p>
+ * Some recipes only match after an earlier step of the composite ran, e.g. `AddRaiseExtensionImport` matches on
+ * `arrow.core.raise.Effect`. Those declare the composites that have to run on the corpus before they are measured.
+ */
+public enum MeasuredRecipe {
+    RAISE_REFACTOR(() -> declarative("arrow.RaiseRefactor")),
+    RAISE_REFACTOR_SINGLE_PASS(RaiseRefactorSinglePass::new),
+    VALIDATED_TO_EITHER(() -> declarative("arrow.ValidatedToEitherRecipe")),
+    VALIDATED_TO_EITHER_SINGLE_PASS(ValidatedToEitherSinglePass::new),
+    ADD_RAISE_EXTENSION_IMPORT(() -> composite("AddRaiseExtensionImport",
+      new AddRaiseExtensionImport("fold(..)", null, "arrow.core.raise.fold"),
+      new AddRaiseExtensionImport("toEither()", null, "arrow.core.raise.toEither"),
+      new AddRaiseExtensionImport("toIor()", null, "arrow.core.raise.toIor"),
+      new AddRaiseExtensionImport("toValidated()", null, "arrow.core.raise.toValidated"),
+      new AddRaiseExtensionImport("orNull()", "getOrNull", "arrow.core.raise.getOrNull")
+    ), "arrow.migrate.EffectScope", "arrow.migrate.EagerEffectScope"),
+    RAISE_ENSURE_IMPORT(RaiseEnsureImport::new, "arrow.migrate.EffectScope", "arrow.migrate.EagerEffectScope"),
+    REWRITE_EFFECT_DSL(RewriteEffectDSL::new),
+    CHANGE_TOP_LEVEL_FUNCTION(() -> composite("ChangeTopLevelFunction",
+      new ChangeTopLevelFunction("arrow.core.continuations.EffectKt effect(..)", "effect", "arrow.core.raise.effect"),
+      new ChangeTopLevelFunction("arrow.core.continuations.EagerEffectKt eagerEffect(..)", "eagerEffect", "arrow.core.raise.eagerEffect"),
+      new ChangeTopLevelFunction("arrow.core.ValidatedKt valid()", "right", "arrow.core.right"),
+      new ChangeTopLevelFunction("arrow.core.ValidatedKt validNel()", "right", "arrow.core.right"),
+      new ChangeTopLevelFunction("arrow.core.ValidatedKt invalid()", "left", "arrow.core.left"),
+      new ChangeTopLevelFunction("arrow.core.ValidatedKt invalidNel()", "leftNel", "arrow.core.leftNel")
+    )),
+    CHANGE_VALIDATED_LAMBDA(ChangeValidatedLambda::new),
+    REWRITE_DEPRECATED_API(() -> new RewriteDeprecatedApi(null));
+
+    private final Supplier<Recipe> recipe;
+    private final List<String> prerequisites;
+
+    MeasuredRecipe(Supplier<Recipe> recipe, String... prerequisites) {
+        this.recipe = recipe;
+        this.prerequisites = Collections.unmodifiableList(Arrays.asList(prerequisites));
+    }
+
+    public Recipe recipe() {
+        return recipe.get();
+    }
+
+    /**
+     * The declarative recipes that bring the corpus into the state this recipe expects, in order.
+     */
+    public List<String> prerequisites() {
+        return prerequisites;
+    }
+
+    public static Recipe declarative(String name) {
+        return Environment.builder()
+          .scanRuntimeClasspath()
+          .build()
+          .activateRecipes(name);
+    }
+
+    static Recipe composite(String name, Recipe... recipes) {
+        Recipe composite = new Recipe() {
+            @Override
+            public String getDisplayName() {
+                return name;
+            }
+        };
+        for (Recipe recipe : recipes) {
+            composite.doNext(recipe);
+        }
+        return composite;
+    }
+}
@@ -0,0 +1,49 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.java.tree.JavaType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MethodMatcherIndexTest {
+
+    @Test
+    void findsByNameAndDeclaringType() {
+        MethodMatcherIndex<String> index = MethodMatcherIndex.<String>builder()
+          .add("arrow.core.raise.Raise ensure(..)", "raise")
+          .add("arrow.core.continuations.EffectScope ensure(..)", "effect")
+          .build();
+
+        assertThat(index.find(method("arrow.core.raise.Raise", "ensure"))).isEqualTo("raise");
+        assertThat(index.find(method("arrow.core.continuations.EffectScope", "ensure"))).isEqualTo("effect");
+        assertThat(index.find(method("arrow.core.raise.Raise", "ensureNotNull"))).isNull();
+        assertThat(index.find(method("arrow.core.continuations.EagerEffectScope", "ensure"))).isNull();
+        assertThat(index.find((JavaType.Method) null)).isNull();
+    }
+
+    @Test
+    void firstAddedPatternWins() {
+        MethodMatcherIndex<String> index = MethodMatcherIndex.<String>builder()
+          .add("arrow.core..* fold(..)", "wildcard type")
+          .add("arrow.core.raise.Effect fold(..)", "exact")
+          .add("arrow.core.raise.Effect *(..)", "wildcard name")
+          .build();
+
+        assertThat(index.find(method("arrow.core.raise.Effect", "fold"))).isEqualTo("wildcard type");
+        assertThat(index.find(method("arrow.core.raise.Effect", "toEither"))).isEqualTo("wildcard name");
+        assertThat(index.find(method("arrow.core.Either", "fold"))).isEqualTo("wildcard type");
+        assertThat(index.find(method("kotlin.Result", "fold"))).isNull();
+    }
+
+    @Test
+    void matchersAreInterned() {
+        assertThat(MethodMatchers.matcher("arrow.core.IterableKt traverse(..)"))
+          .isSameAs(MethodMatchers.matcher("arrow.core.IterableKt traverse(..)"));
+        assertThat(MethodMatchers.index("arrow.core.raise.Effect fold(..)", "arrow.core.raise.EagerEffect fold(..)"))
+          .isSameAs(MethodMatchers.index("arrow.core.raise.Effect fold(..)", "arrow.core.raise.EagerEffect fold(..)"));
+    }
+
+    private static JavaType.Method method(String declaringType, String name) {
+        return new JavaType.Method(null, 1, JavaType.ShallowClass.build(declaringType), name, null, null, null, null, null);
+    }
+}
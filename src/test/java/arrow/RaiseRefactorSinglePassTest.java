@@ -0,0 +1,125 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.config.Environment;
+import org.openrewrite.kotlin.KotlinParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.kotlin.Assertions.kotlin;
+
+class RaiseRefactorSinglePassTest implements RewriteTest {
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new RaiseRefactorSinglePass())
+          .parser(
+            KotlinParser.builder()
+              .logCompilationWarningsAndErrors(true)
+              .classpath("arrow-core-jvm")
+          );
+    }
+
+    @Test
+    void sameOutputAsRaiseRefactor() {
+        RecipeDifferential.assertSameOutput(
+          Environment.builder()
+            .scanRuntimeClasspath()
+            .build()
+            .activateRecipes("arrow.RaiseRefactor"),
+          new RaiseRefactorSinglePass(),
+          RecipeDifferential.parse(
+            new KotlinCorpusGenerator().seed(4).files(200),
+            """
+              package com.yourorg
+                            
+              import arrow.core.continuations.EffectScope
+              import arrow.core.continuations.ensureNotNull
+
+              suspend fun EffectScope<Int>.test(msg: String?): Unit {
+                ensureNotNull(msg) { -1 }
+                return Unit
+              }
+              """,
+            """
+              package com.yourorg
+                            
+              import arrow.core.Either
+              import arrow.core.continuations.Effect
+              import arrow.core.continuations.either
+              import arrow.core.continuations.effect
+              
+              fun example2(): Either<String, Int> = either.eager {
+                ensure(false) { "failure" }
+                1
+              }
+              
+              val x: Effect<String, Int> = effect {
+                3
+              }
+              """,
+            """
+              package com.yourorg
+                            
+              import arrow.core.continuations.EagerEffectScope
+
+              fun test(scope: EagerEffectScope<String>): Int {
+                return scope.shift("failure")
+              }
+              """,
+            """
+              package com.yourorg
+                            
+              import arrow.core.continuations.effect
+                            
+              suspend fun example(): Int? =
+                effect<String, Int> {
+                  1
+                }.orNull()
+              """
+          )
+        );
+    }
+
+    @Test
+    void multiple() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+                            
+              import arrow.core.Either
+              import arrow.core.continuations.Effect
+              import arrow.core.continuations.either
+              import arrow.core.continuations.effect
+              
+              fun example2(): Either<String, Int> = either.eager {
+                ensure(false) { "failure" }
+                1
+              }
+              
+              val x: Effect<String, Int> = effect {
+                3
+              }
+              """,
+            """
+              package com.yourorg
+                            
+              import arrow.core.Either
+              import arrow.core.raise.Effect
+              import arrow.core.raise.effect
+              import arrow.core.raise.either
+              import arrow.core.raise.ensure
+              
+              fun example2(): Either<String, Int> = either {
+                ensure(false) { "failure" }
+                1
+              }
+              
+              val x: Effect<String, Int> = effect {
+                3
+              }
+              """
+          )
+        );
+    }
+}
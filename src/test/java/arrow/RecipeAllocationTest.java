@@ -0,0 +1,218 @@
+package arrow;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Fails when a recipe class allocates more per file, needs more heap, or triggers more collections than recorded in
+ * `src/test/resources/allocation-baseline.properties` plus the margin configured there. Every {@link MeasuredRecipe}
+ * needs a budget, a recipe without one fails too.
+ * <p>
+ * Allocations are summed over all live threads, since the recipe scheduler visits source files on a fork-join pool.
+ * The budgets depend on the machine, so the test is not part of `test` but runs with `./gradlew allocationTest` on the
+ * machine they were recorded on. Record them, and re-record them after an intended change in allocation behaviour, with
+ * `./gradlew allocationTest -Parrow.allocation.updateBaseline=true`, which only rewrites the budget lines of the file and
+ * keeps its comments and order.
+ */
+@Tag("allocation")
+class RecipeAllocationTest {
+    private static final Path BASELINE = Paths.get("src", "test", "resources", "allocation-baseline.properties");
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("arrow.allocation.updateBaseline");
+
+    private static List<SourceFile> corpus;
+    private static Properties baseline;
+
+    @BeforeAll
+    static void parseCorpus() throws IOException {
+        KotlinCorpusGenerator generator = new KotlinCorpusGenerator().seed(42).files(200);
+        corpus = new ArrayList<>(KotlinParser.builder()
+          .classpath("arrow-core-jvm")
+          .build()
+          .parseInputs(generator.inputs(), null, ctx()));
+
+        baseline = new Properties();
+        try (InputStream in = Files.newInputStream(BASELINE)) {
+            baseline.load(in);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(MeasuredRecipe.class)
+    void staysWithinAllocationBudget(MeasuredRecipe measured) throws IOException {
+        List<SourceFile> sourceFiles = corpus;
+        for (String prerequisite : measured.prerequisites()) {
+            sourceFiles = applyResults(sourceFiles, MeasuredRecipe.declarative(prerequisite).run(sourceFiles, ctx()).getResults());
+        }
+        Recipe recipe = measured.recipe();
+
+        // The first run loads classes and fills caches, only the second one is measured.
+        List<SourceFile> input = sourceFiles;
+        recipe.run(input, ctx());
+        AllocationSample sample = AllocationSample.measure(() -> recipe.run(input, ctx()));
+
+        String key = measured.name();
+        long bytesPerFile = sample.allocatedBytes / sourceFiles.size();
+
+        if (UPDATE_BASELINE) {
+            Map<String, Long> recorded = new LinkedHashMap<>();
+            recorded.put(key + ".bytesPerFile", bytesPerFile);
+            recorded.put(key + ".peakHeapBytes", sample.peakHeapBytes);
+            recorded.put(key + ".gcCount", sample.gcCount);
+            record(recorded);
+            return;
+        }
+
+        double margin = Double.parseDouble(baseline.getProperty("margin", "0.25"));
+        assertThat(bytesPerFile)
+          .as("bytes allocated per file by %s", key)
+          .isLessThanOrEqualTo((long) (budget(key + ".bytesPerFile") * (1 + margin)));
+        assertThat(sample.peakHeapBytes)
+          .as("peak heap while running %s", key)
+          .isLessThanOrEqualTo((long) (budget(key + ".peakHeapBytes") * (1 + margin)));
+        // The counts are small, so one more collection than recorded is always allowed.
+        long gcCount = budget(key + ".gcCount");
+        assertThat(sample.gcCount)
+          .as("collections while running %s", key)
+          .isLessThanOrEqualTo(Math.max(gcCount + 1, (long) (gcCount * (1 + margin))));
+    }
+
+    private static long budget(String key) {
+        String budget = baseline.getProperty(key);
+        if (budget == null) {
+            fail("No allocation budget " + key + " in " + BASELINE + ", record it with " +
+                 "./gradlew allocationTest -Parrow.allocation.updateBaseline=true");
+        }
+        return Long.parseLong(budget.trim());
+    }
+
+    /**
+     * Replaces the recorded budgets in the baseline file in place, and appends the budgets it does not have yet, so
+     * the comments and the order of the file are kept.
+     */
+    private static void record(Map<String, Long> budgets) throws IOException {
+        List<String> lines = new ArrayList<>(Files.readAllLines(BASELINE, UTF_8));
+        for (Map.Entry<String, Long> budget : budgets.entrySet()) {
+            String line = budget.getKey() + "=" + budget.getValue();
+            int existing = -1;
+            for (int i = 0; i < lines.size(); i++) {
+                if (lines.get(i).startsWith(budget.getKey() + "=")) {
+                    existing = i;
+                    break;
+                }
+            }
+            if (existing < 0) {
+                lines.add(line);
+            } else {
+                lines.set(existing, line);
+            }
+            baseline.setProperty(budget.getKey(), Long.toString(budget.getValue()));
+        }
+        Files.write(BASELINE, lines, UTF_8);
+    }
+
+    private static List<SourceFile> applyResults(List<SourceFile> before, List<Result> results) {
+        Map<UUID, SourceFile> after = new HashMap<>();
+        for (Result result : results) {
+            if (result.getBefore() != null) {
+                after.put(result.getBefore().getId(), result.getAfter());
+            }
+        }
+        return ListUtils.map(before, s -> after.containsKey(s.getId()) ? after.get(s.getId()) : s);
+    }
+
+    private static ExecutionContext ctx() {
+        return new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+    }
+
+    private static class AllocationSample {
+        final long allocatedBytes;
+        final long peakHeapBytes;
+        final long gcCount;
+
+        private AllocationSample(long allocatedBytes, long peakHeapBytes, long gcCount) {
+            this.allocatedBytes = allocatedBytes;
+            this.peakHeapBytes = peakHeapBytes;
+            this.gcCount = gcCount;
+        }
+
+        static AllocationSample measure(Runnable work) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                    pool.resetPeakUsage();
+                    heapPools.add(pool);
+                }
+            }
+            long gcBefore = gcCount();
+            Map<Long, Long> allocatedBefore = allocatedBytesPerThread(threads);
+
+            work.run();
+
+            long allocated = 0;
+            for (Map.Entry<Long, Long> thread : allocatedBytesPerThread(threads).entrySet()) {
+                allocated += thread.getValue() - allocatedBefore.getOrDefault(thread.getKey(), 0L);
+            }
+            long gcs = gcCount() - gcBefore;
+            long peak = 0;
+            for (MemoryPoolMXBean pool : heapPools) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+            return new AllocationSample(allocated, peak, gcs);
+        }
+
+        private static Map<Long, Long> allocatedBytesPerThread(com.sun.management.ThreadMXBean threads) {
+            long[] ids = threads.getAllThreadIds();
+            long[] allocated = threads.getThreadAllocatedBytes(ids);
+            Map<Long, Long> perThread = new HashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (allocated[i] >= 0) {
+                    perThread.put(ids[i], allocated[i]);
+                }
+            }
+            return perThread;
+        }
+
+        private static long gcCount() {
+            long count = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RecipeBudgetTest {
+    private static final String SOURCE = """
+      package com.yourorg
+
+      import arrow.core.continuations.either
+
+      fun eager() = either.eager<String, Int> { either.eager<String, Int> { 1 }.bind() }
+      """;
+
+    @Test
+    void leavesAFileOverBudgetUnchangedAndReportsIt() {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), SOURCE);
+        List<Throwable> errors = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(errors::add);
+        RecipeBudget.perFile(Duration.ofNanos(1)).applyTo(ctx);
+
+        assertThat(new RewriteEffectDSL().run(sourceFiles, ctx).getResults()).isEmpty();
+
+        assertThat(errors).isNotEmpty().allSatisfy(error -> {
+            assertThat(error).isInstanceOf(RecipeBudgetExceededException.class)
+              .hasMessageContaining("exceeded the budget of 0 ms per file")
+              .hasMessageContaining("left unchanged");
+            RecipeBudgetExceededException exceeded = (RecipeBudgetExceededException) error;
+            assertThat(exceeded.getRecipe()).isEqualTo("arrow.RewriteEffectDSL");
+            assertThat(exceeded.getSourcePath()).isEqualTo(sourceFiles.get(0).getSourcePath());
+            assertThat(exceeded.getElapsed()).isPositive();
+        });
+        assertThat(RecipeBudget.exceededFiles(ctx)).containsExactly(sourceFiles.get(0).getSourcePath());
+    }
+
+    @Test
+    void laterRecipesLeaveAFileOverBudgetAlone() {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), SOURCE);
+        List<Throwable> errors = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(errors::add);
+        RecipeBudget.perFile(Duration.ofNanos(1)).applyTo(ctx);
+
+        MeasuredRecipe.composite("Twice", new RewriteEffectDSL(), new RewriteEffectDSL()).run(sourceFiles, ctx);
+
+        assertThat(errors).hasSize(1);
+    }
+
+    @Test
+    void leavesAFileOverTheBudgetOfTheRecipeUnchanged() {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), SOURCE);
+        List<Throwable> errors = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(errors::add);
+        RecipeBudget.perFile(Duration.ofMinutes(5)).withRecipe("arrow.RewriteEffectDSL", Duration.ofNanos(1)).applyTo(ctx);
+
+        assertThat(new RewriteEffectDSL().run(sourceFiles, ctx).getResults()).isEmpty();
+        assertThat(errors).singleElement().satisfies(error -> assertThat(error)
+          .hasMessageStartingWith("arrow.RewriteEffectDSL exceeded its budget of 0 ms"));
+    }
+
+    @Test
+    void otherRecipesKeepTheBudgetPerFile() {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), SOURCE);
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+        RecipeBudget.perFile(Duration.ofMinutes(5)).withRecipe("arrow.ChangeTopLevelFunction", Duration.ofNanos(1)).applyTo(ctx);
+
+        assertThat(new RewriteEffectDSL().run(sourceFiles, ctx).getResults()).hasSize(1);
+    }
+
+    @Test
+    void changesFilesWithinBudget() {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), SOURCE);
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+        RecipeBudget.perFile(Duration.ofMinutes(5)).applyTo(ctx);
+
+        assertThat(new RewriteEffectDSL().run(sourceFiles, ctx).getResults()).hasSize(1);
+    }
+
+    @Test
+    void cancelledBudgetLeavesFilesUnchanged() {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), SOURCE);
+        List<Throwable> errors = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(errors::add);
+        RecipeBudget.perFile(Duration.ofMinutes(5)).applyTo(ctx).cancel();
+
+        assertThat(new RewriteEffectDSL().run(sourceFiles, ctx).getResults()).isEmpty();
+        assertThat(errors).isNotEmpty().allSatisfy(error -> assertThat(error).hasMessageContaining("was cancelled"));
+    }
+
+    @Test
+    void marksFilesFromParallelVisits() {
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        RecipeBudget.perFile(Duration.ofSeconds(1)).applyTo(ctx);
+
+        IntStream.range(0, 1_000).parallel().forEach(i -> RecipeBudget.markExceeded(ctx, Paths.get("F" + i + ".kt")));
+        Set<Path> exceeded = RecipeBudget.exceededFiles(ctx);
+        RecipeBudget.markExceeded(ctx, Paths.get("Later.kt"));
+
+        assertThat(exceeded).hasSize(1_000);
+        assertThat(RecipeBudget.exceededFiles(ctx)).hasSize(1_001);
+    }
+
+    @Test
+    void rejectsAnEmptyBudget() {
+        assertThatThrownBy(() -> RecipeBudget.perFile(Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RecipeBudget.perFile(Duration.ofMinutes(5)).withRecipe("arrow.RewriteEffectDSL", Duration.ZERO))
+          .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package arrow;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.ListUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every recipe has to converge in a single cycle: running it again over its own output must not change anything,
+ * otherwise OpenRewrite repeats all the work of the recipe in another cycle. A run limited to one cycle then has the
+ * same output as a run with the default number of cycles.
+ */
+class RecipeConvergenceTest {
+
+    @ParameterizedTest
+    @EnumSource(MeasuredRecipe.class)
+    void convergesInASingleCycle(MeasuredRecipe measured) {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().seed(11).files(100));
+        for (String prerequisite : measured.prerequisites()) {
+            sourceFiles = apply(sourceFiles, MeasuredRecipe.declarative(prerequisite).run(sourceFiles, ctx()));
+        }
+
+        RecipeRun firstCycle = measured.recipe().run(sourceFiles, ctx());
+        List<SourceFile> afterFirstCycle = apply(sourceFiles, firstCycle);
+        List<Result> secondCycle = measured.recipe().run(afterFirstCycle, ctx()).getResults();
+
+        assertThat(secondCycle)
+          .as("%s changes its own output", measured)
+          .extracting(result -> result.getBefore() == null ? "<generated>" : result.getBefore().getSourcePath().toString())
+          .isEmpty();
+
+        Map<String, String> singleCycle = printed(measured.recipe().run(sourceFiles, ctx(), 1));
+        assertThat(singleCycle)
+          .as("%s needs more than one cycle", measured)
+          .isEqualTo(printed(firstCycle));
+    }
+
+    private static Map<String, String> printed(RecipeRun run) {
+        Map<String, String> printed = new TreeMap<>();
+        for (Result result : run.getResults()) {
+            String path = result.getBefore() == null ? result.getAfter().getSourcePath().toString() : result.getBefore().getSourcePath().toString();
+            printed.put(path, result.getAfter() == null ? "<deleted>" : result.getAfter().printAll());
+        }
+        return printed;
+    }
+
+    private static List<SourceFile> apply(List<SourceFile> before, RecipeRun run) {
+        Map<UUID, SourceFile> after = new HashMap<>();
+        for (Result result : run.getResults()) {
+            if (result.getBefore() != null) {
+                after.put(result.getBefore().getId(), result.getAfter());
+            }
+        }
+        return ListUtils.map(before, s -> after.containsKey(s.getId()) ? after.get(s.getId()) : s);
+    }
+
+    private static InMemoryExecutionContext ctx() {
+        return new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+    }
+}
@@ -0,0 +1,71 @@
+package arrow;
+
+import org.assertj.core.api.SoftAssertions;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compares the output of a recipe against a reference implementation, file by file.
+ */
+final class RecipeDifferential {
+
+    private RecipeDifferential() {
+    }
+
+    static List<SourceFile> parse(KotlinCorpusGenerator generator, String... snippets) {
+        List<SourceFile> sourceFiles = new ArrayList<>(parser().build()
+          .parseInputs(generator.inputs(), null, new InMemoryExecutionContext(Throwable::printStackTrace)));
+        // The snippets share a package and top-level names, so each one is parsed on its own.
+        for (String snippet : snippets) {
+            sourceFiles.addAll(parser().build().parse(new InMemoryExecutionContext(Throwable::printStackTrace), snippet));
+        }
+        return sourceFiles;
+    }
+
+    static void assertSameOutput(Recipe reference, Recipe candidate, List<SourceFile> sourceFiles) {
+        List<String> expected = print(sourceFiles, reference.run(sourceFiles, ctx()).getResults());
+        List<String> actual = print(sourceFiles, candidate.run(sourceFiles, ctx()).getResults());
+
+        SoftAssertions softly = new SoftAssertions();
+        for (int i = 0; i < sourceFiles.size(); i++) {
+            softly.assertThat(actual.get(i))
+              .as("%s of %s", candidate.getName(), sourceFiles.get(i).getSourcePath())
+              .isEqualTo(expected.get(i));
+        }
+        softly.assertAll();
+    }
+
+    private static List<String> print(List<SourceFile> before, List<Result> results) {
+        Map<UUID, SourceFile> after = new HashMap<>();
+        for (Result result : results) {
+            if (result.getBefore() != null) {
+                after.put(result.getBefore().getId(), result.getAfter());
+            }
+        }
+        List<String> printed = new ArrayList<>(before.size());
+        for (SourceFile sourceFile : before) {
+            SourceFile s = after.containsKey(sourceFile.getId()) ? after.get(sourceFile.getId()) : sourceFile;
+            printed.add(s == null ? "<deleted>" : s.printAll());
+        }
+        return printed;
+    }
+
+    private static KotlinParser.Builder parser() {
+        return KotlinParser.builder().classpath("arrow-core-jvm");
+    }
+
+    private static InMemoryExecutionContext ctx() {
+        return new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package arrow;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeEventsTest {
+
+    @Test
+    void recordsTheVisitsAndImportEditsOfARecipe(@TempDir Path tempDir) throws IOException {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), """
+          package com.yourorg
+
+          import arrow.core.continuations.either
+
+          fun eager() = either.eager<String, Int> { 1 }
+          """, """
+          package com.yourorg
+
+          fun unrelated(): Int = 1
+          """);
+        String changed = sourceFiles.get(0).getSourcePath().toString();
+        String skipped = sourceFiles.get(1).getSourcePath().toString();
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+
+        Path jfr = tempDir.resolve("recipes.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("arrow.RecipeVisit");
+            recording.enable("arrow.ImportEdits");
+            recording.start();
+            assertThat(new RewriteEffectDSL().run(sourceFiles, ctx).getResults()).hasSize(1);
+            recording.stop();
+            recording.dump(jfr);
+        }
+
+        List<RecordedEvent> visits = events(jfr, "arrow.RecipeVisit");
+        assertThat(visits).anySatisfy(event -> {
+            assertThat(event.getString("recipe")).isEqualTo("arrow.RewriteEffectDSL");
+            assertThat(event.getString("sourcePath")).isEqualTo(changed);
+            assertThat(event.getBoolean("applicable")).isTrue();
+            assertThat(event.getBoolean("changed")).isTrue();
+        });
+        assertThat(visits).anySatisfy(event -> {
+            assertThat(event.getString("sourcePath")).isEqualTo(skipped);
+            assertThat(event.getBoolean("applicable")).isFalse();
+            assertThat(event.getBoolean("changed")).isFalse();
+        });
+        assertThat(events(jfr, "arrow.ImportEdits")).anySatisfy(event -> {
+            assertThat(event.getString("sourcePath")).isEqualTo(changed);
+            assertThat(event.getInt("added")).isPositive();
+        });
+    }
+
+    @Test
+    void emitsNothingWhileDisabled() {
+        assertThat(RecipeEvents.INSTANCE).isNotSameAs(RecipeEvents.NONE);
+        assertThat(RecipeEvents.INSTANCE.beginVisit()).isNull();
+        assertThat(RecipeEvents.INSTANCE.isImportEditsEnabled()).isFalse();
+    }
+
+    private static List<RecordedEvent> events(Path jfr, String name) throws IOException {
+        return RecordingFile.readAllEvents(jfr).stream()
+          .filter(event -> event.getEventType().getName().equals(name))
+          .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,82 @@
+package arrow;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeMetricsTest {
+
+    @Test
+    void recordsTheWorkPerRecipeAndOptions() {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), """
+          package com.yourorg
+
+          import arrow.core.Either
+          import arrow.core.continuations.either
+
+          fun eager(): Either<String, Int> = either.eager {
+            either.eager<String, Int> { 1 }.bind()
+          }
+          """, """
+          package com.yourorg
+
+          fun unrelated(): Int = 1
+          """);
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+        RecipeMetrics.register(ctx, registry);
+
+        assertThat(new RewriteEffectDSL().run(sourceFiles, ctx).getResults()).hasSize(1);
+
+        Tags tags = Tags.of("recipe", "arrow.RewriteEffectDSL");
+        assertThat(registry.get(RecipeMetrics.FILES).tags(tags).tag("outcome", "applicable").counter().count()).isEqualTo(1);
+        assertThat(registry.get(RecipeMetrics.FILES).tags(tags).tag("outcome", "skipped").counter().count()).isEqualTo(1);
+        assertThat(registry.get(RecipeMetrics.VISIT).tags(tags).timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(registry.get(RecipeMetrics.VISIT).tags(tags).timer().totalTime(TimeUnit.NANOSECONDS)).isPositive();
+        assertThat(registry.get(RecipeMetrics.MATCHER_HITS).tags(tags).counter().count()).isGreaterThanOrEqualTo(2);
+        assertThat(registry.get(RecipeMetrics.MATCHER_EVALUATIONS).tags(tags).counter().count())
+          .isGreaterThanOrEqualTo(registry.get(RecipeMetrics.MATCHER_HITS).tags(tags).counter().count());
+        assertThat(registry.get(RecipeMetrics.IMPORTS).tags(tags).tag("edit", "added").counter().count()).isGreaterThanOrEqualTo(1);
+        assertThat(registry.get(RecipeMetrics.CHANGED).tags(tags).counter().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void tagsTheOptionValues() {
+        assertThat(RecipeMetrics.tags(new ChangeTopLevelFunction("arrow.core.continuations.EffectKt effect(..)", "effect", null)))
+          .containsExactlyInAnyOrder(
+            Tag.of("recipe", "arrow.ChangeTopLevelFunction"),
+            Tag.of("methodPattern", "arrow.core.continuations.EffectKt effect(..)"),
+            Tag.of("newMethodName", "effect"),
+            Tag.of("newMethodImport", "none")
+          );
+    }
+
+    @Test
+    void recordsNothingWithoutARegistry() {
+        List<SourceFile> sourceFiles = RecipeDifferential.parse(new KotlinCorpusGenerator().files(0), """
+          package com.yourorg
+
+          import arrow.core.continuations.either
+
+          fun eager() = either.eager<String, Int> { 1 }
+          """);
+        ExecutionContext ctx = new InMemoryExecutionContext(t -> {
+            throw new AssertionError("Recipe failed", t);
+        });
+
+        assertThat(new RewriteEffectDSL().run(sourceFiles, ctx).getResults()).hasSize(1);
+        assertThat(RecipeMetrics.registry(ctx)).isNull();
+    }
+}
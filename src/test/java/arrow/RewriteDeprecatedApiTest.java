@@ -0,0 +1,108 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.kotlin.KotlinParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.openrewrite.kotlin.Assertions.kotlin;
+
+class RewriteDeprecatedApiTest implements RewriteTest {
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new RewriteDeprecatedApi(null))
+          .parser(
+            KotlinParser.builder()
+              .logCompilationWarningsAndErrors(true)
+              .classpath("arrow-core-jvm")
+          );
+    }
+
+    @Test
+    void eitherTapToOnRight() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+
+              import arrow.core.Either
+
+              fun test(e: Either<String, Int>): Int? =
+                e.tap { println(it) }.tapLeft { println(it) }.orNull()
+              """,
+            """
+              package com.yourorg
+
+              import arrow.core.Either
+
+              fun test(e: Either<String, Int>): Int? =
+                e.onRight { println(it) }.onLeft { println(it) }.getOrNull()
+              """
+          )
+        );
+    }
+
+    @Test
+    void optionOrNullToGetOrNull() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+
+              import arrow.core.Option
+
+              fun test(o: Option<Int>): Int? = o.tapNone { println("none") }.orNull()
+              """,
+            """
+              package com.yourorg
+
+              import arrow.core.Option
+
+              fun test(o: Option<Int>): Int? = o.onNone { println("none") }.getOrNull()
+              """
+          )
+        );
+    }
+
+    @Test
+    void parsesTheTableFormat() throws IOException {
+        DeprecatedApiTable table = DeprecatedApiTable.parse(new StringReader(
+          "# comment\n" +
+          "\n" +
+          "arrow.core.continuations.either eager(..)\teither\tarrow.core.raise.either\tr\tarrow.core.continuations.either,arrow.core.continuations.eager\n" +
+          "arrow.core.ValidatedKt valid()\tright\tarrow.core.right\tt\t-\n"
+        ));
+
+        assertThat(table.getRewrites()).containsExactly(
+          MethodRewrite.addImport("arrow.core.continuations.either eager(..)", "either", "arrow.core.raise.either")
+            .withRemoveReceiver(true)
+            .removingImports("arrow.core.continuations.either", "arrow.core.continuations.eager"),
+          MethodRewrite.topLevelFunction("arrow.core.ValidatedKt valid()", "right", "arrow.core.right")
+        );
+        assertThat(table.getIndex().getMethodPatterns())
+          .containsExactly("arrow.core.continuations.either eager(..)", "arrow.core.ValidatedKt valid()");
+    }
+
+    @Test
+    void reportsTheLineOfAnInvalidRewrite() {
+        assertThatThrownBy(() -> DeprecatedApiTable.parse(new StringReader(
+          "arrow.core.Either orNull()\tgetOrNull\t-\t-\t-\n" +
+          "arrow.core.Either tap(..)\tonRight\n"
+        )))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("line 2");
+    }
+
+    @Test
+    void shippedTableIsLoadedOnce() {
+        DeprecatedApiTable table = new RewriteDeprecatedApi(null).table();
+
+        assertThat(table.getRewrites()).isNotEmpty();
+        assertThat(new RewriteDeprecatedApi(DeprecatedApiTable.DEFAULT_RESOURCE).table()).isSameAs(table);
+    }
+}
@@ -2,6 +2,7 @@ package arrow;
 
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.openrewrite.kotlin.KotlinParser;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
 
@@ -11,13 +12,88 @@ public class ValidatedLambdaToEitherTest implements RewriteTest {
 
     @Override
     public void defaults(RecipeSpec spec) {
-        spec.recipe(new ChangeValidatedLambda());
+        spec.recipe(new ChangeValidatedLambda())
+          .parser(
+            KotlinParser.builder()
+              .logCompilationWarningsAndErrors(true)
+              .classpath("arrow-core-jvm")
+          );
+    }
+
+    @Test
+    void bindsTheValidatedInsideTheLambda() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+              
+              import arrow.core.Validated
+              import arrow.core.traverse
+              
+              fun validate(int: Int): Validated<String, Int> = TODO()
+              fun foo() {
+                  listOf(1, 2, 3).traverse { validate(it) }
+              }
+              """,
+            """
+              package com.yourorg
+              
+              import arrow.core.Validated
+              import arrow.core.mapOrAccumulate
+              
+              fun validate(int: Int): Validated<String, Int> = TODO()
+              fun foo() {
+                  listOf(1, 2, 3).mapOrAccumulate { validate(it).bind() }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void keepsTheTraverseImportWhileATraverseIsLeft() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+              
+              import arrow.core.Either
+              import arrow.core.Validated
+              import arrow.core.traverse
+              
+              fun validate(int: Int): Validated<String, Int> = TODO()
+              fun parse(int: Int): Either<String, Int> = TODO()
+              fun foo() {
+                  listOf(1, 2, 3).traverse { validate(it) }
+                  listOf(1, 2, 3).traverse { parse(it) }
+              }
+              """,
+            """
+              package com.yourorg
+              
+              import arrow.core.Either
+              import arrow.core.Validated
+              import arrow.core.mapOrAccumulate
+              import arrow.core.traverse
+              
+              fun validate(int: Int): Validated<String, Int> = TODO()
+              fun parse(int: Int): Either<String, Int> = TODO()
+              fun foo() {
+                  listOf(1, 2, 3).mapOrAccumulate { validate(it).bind() }
+                  listOf(1, 2, 3).traverse { parse(it) }
+              }
+              """
+          )
+        );
     }
 
-    @Disabled("Added base for transformation. Unusure if Validated is transformed in a different visitor.")
     @Test
     void validatedLambda() {
         rewriteRun(
+          spec -> spec.recipe(MeasuredRecipe.composite("ChangeValidatedLambda and ValidatedToEitherRecipe",
+            new ChangeValidatedLambda(),
+            MeasuredRecipe.declarative("arrow.ValidatedToEitherRecipe")
+          )),
           kotlin(
             """
               package com.yourorg
@@ -34,10 +110,11 @@ public class ValidatedLambdaToEitherTest implements RewriteTest {
               package com.yourorg
               
               import arrow.core.Either
+              import arrow.core.mapOrAccumulate
               
               fun validate(int: Int): Either<String, Int> = TODO()
               fun foo() {
-                 listOf(1, 2, 3).mapOrAccumulate { validate(it).bind() }
+                  listOf(1, 2, 3).mapOrAccumulate { validate(it).bind() }
               }
               """
           )
@@ -0,0 +1,105 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.kotlin.KotlinParser;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import static org.openrewrite.kotlin.Assertions.kotlin;
+
+class ValidatedToEitherSinglePassTest implements RewriteTest {
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new ValidatedToEitherSinglePass())
+          .parser(
+            KotlinParser.builder()
+              .logCompilationWarningsAndErrors(true)
+              .classpath("arrow-core-jvm")
+          );
+    }
+
+    @Test
+    void sameOutputAsValidatedToEitherRecipe() {
+        RecipeDifferential.assertSameOutput(
+          MeasuredRecipe.composite("ChangeValidatedLambda and ValidatedToEitherRecipe",
+            new ChangeValidatedLambda(),
+            MeasuredRecipe.declarative("arrow.ValidatedToEitherRecipe")
+          ),
+          new ValidatedToEitherSinglePass(),
+          RecipeDifferential.parse(
+            new KotlinCorpusGenerator().seed(5).files(200),
+            """
+              package com.yourorg
+                            
+              import arrow.core.Validated
+              import arrow.core.valid
+
+              val x: Validated<String, Int> = 1.valid()
+              """,
+            """
+              package com.yourorg
+
+              import arrow.core.NonEmptyList
+              import arrow.core.Validated
+              import arrow.core.invalidNel
+
+              val x: Validated<NonEmptyList<String>, Int> = "failure".invalidNel()
+              """
+          )
+        );
+    }
+
+    @Test
+    void rewriteTraverseToMapOrAccumulate() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+
+              import arrow.core.Validated
+              import arrow.core.traverse
+
+              fun validate(int: Int): Validated<String, Int> = TODO()
+              fun foo() {
+                  listOf(1, 2, 3).traverse { validate(it) }
+              }
+              """,
+            """
+              package com.yourorg
+
+              import arrow.core.Either
+              import arrow.core.mapOrAccumulate
+
+              fun validate(int: Int): Either<String, Int> = TODO()
+              fun foo() {
+                  listOf(1, 2, 3).mapOrAccumulate { validate(it).bind() }
+              }
+              """
+          )
+        );
+    }
+
+    @Test
+    void rewriteInvalidToLeft() {
+        rewriteRun(
+          kotlin(
+            """
+              package com.yourorg
+                            
+              import arrow.core.Validated
+              import arrow.core.invalid
+
+              val x: Validated<String, Int> = "failure".invalid()
+              """,
+            """
+              package com.yourorg
+                            
+              import arrow.core.Either
+              import arrow.core.left
+
+              val x: Either<String, Int> = "failure".left()
+              """
+          )
+        );
+    }
+}
@@ -0,0 +1,203 @@
+package arrow;
+
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.*;
+import org.openrewrite.kotlin.KotlinIsoVisitor;
+import org.openrewrite.marker.Markers;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static arrow.KotlinCorpusGenerator.Feature.VALIDATED_TRAVERSE;
+
+/**
+ * Checks that the bottom-up {@link ValidatedTraverseVisitor} rewrites `traverse` exactly like the previous
+ * implementation, which searched every lambda argument and walked a rewritten `traverse` again with a new visitor.
+ */
+class ValidatedTraverseVisitorTest {
+
+    @Test
+    void sameOutputAsSearchingEveryLambda() {
+        KotlinCorpusGenerator generator = new KotlinCorpusGenerator().seed(9).files(100).nestingDepth(1, 6);
+        for (KotlinCorpusGenerator.Feature feature : KotlinCorpusGenerator.Feature.values()) {
+            generator.density(feature, feature == VALIDATED_TRAVERSE ? 4 : 1);
+        }
+        RecipeDifferential.assertSameOutput(
+          new LegacyChangeValidatedLambda(),
+          new ChangeValidatedLambda(),
+          RecipeDifferential.parse(generator,
+            """
+              package com.yourorg
+
+              import arrow.core.Validated
+              import arrow.core.traverse
+              import arrow.typeclasses.Semigroup
+
+              fun validate(int: Int): Validated<String, Int> = TODO()
+              fun foo(): Validated<String, List<Int>> =
+                  listOf(1, 2, 3).traverse(Semigroup.string(), ::validate)
+              """,
+            """
+              package com.yourorg
+
+              import arrow.core.Either
+              import arrow.core.Validated
+              import arrow.core.traverse
+              import arrow.typeclasses.Semigroup
+
+              fun validate(int: Int): Validated<String, Int> = TODO()
+              fun parse(int: Int): Either<String, Int> = TODO()
+              fun foo(): Validated<String, List<Int>> =
+                  listOf(1, 2, 3).traverse(Semigroup.string()) { x ->
+                      val parsed = listOf(x).traverse { parse(it) }
+                      run { run { validate(x) } }
+                  }
+              """
+          )
+        );
+    }
+
+    static class LegacyChangeValidatedLambda extends Recipe {
+        @Override
+        public String getDisplayName() {
+            return "Legacy ChangeValidatedLambda";
+        }
+
+        @Override
+        protected TreeVisitor<?, ExecutionContext> getVisitor() {
+            return new LegacyValidatedTraverseVisitor(MethodMatcherIndex.<MethodRewrite>builder().build(), Collections.emptyMap());
+        }
+    }
+
+    static class LegacyValidatedTraverseVisitor extends ArrowRewriteVisitor {
+        private static final String TRAVERSE_IMPORT = "arrow.core.traverse";
+        private static final String MAP_OR_ACCUMULATE_IMPORT = "arrow.core.mapOrAccumulate";
+
+        private static final MethodMatcher TRAVERSE_MATCHER = MethodMatchers.matcher(ValidatedTraverseVisitor.TRAVERSE_PATTERN);
+
+        private final String oldFqn = "arrow.core.Validated";
+        // Fill in method type.
+        private final JavaType.Method newMethodType = new JavaType.Method(
+                null,
+                1,
+                JavaType.ShallowClass.build("arrow.core.Either"),
+                "bind",
+                null,
+                null,
+                null,
+                null,
+                null
+        );
+
+        LegacyValidatedTraverseVisitor(MethodMatcherIndex<MethodRewrite> methodRewrites, Map<String, String> typeRewrites) {
+            super(methodRewrites, typeRewrites);
+        }
+
+        @Override
+        public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
+            J.MethodInvocation m = super.visitMethodInvocation(method, executionContext);
+            JavaType.Method methodType = m.getMethodType();
+            if (methodType != null && TRAVERSE_MATCHER.matches(methodType)) {
+                if (containsTargetArgument(m.getArguments())) {
+                    m = m.withName(m.getName().withSimpleName("mapOrAccumulate"));
+                    m = m.withMethodType(methodType.withName("mapOrAccumulate"));
+                    AppendBindFunction appendBind = new AppendBindFunction();
+                    m = m.withArguments(ListUtils.map(m.getArguments(), arg -> (Expression) appendBind.visit(arg, executionContext, getCursor())));
+                    removeImport(TRAVERSE_IMPORT);
+                    addImport(MAP_OR_ACCUMULATE_IMPORT, false);
+                } else {
+                    // A `traverse` that is not rewritten still needs its import.
+                    keepImport(TRAVERSE_IMPORT);
+                }
+            }
+            return m;
+        }
+
+        class AppendBindFunction extends KotlinIsoVisitor<ExecutionContext> {
+            /*
+            For Lambda blocks use:
+            String uniqueName = VariableNameUtils.generateVariableName(newName, getCursor(), VariableNameUtils.GenerationStrategy.INCREMENT_NUMBER);
+            to generate a unique name in the scope of the cursor.
+             */
+
+            @Override
+            public J visitLambda(J.Lambda lambda, ExecutionContext executionContext) {
+                // Check for multiple statements in block.
+                // handle multiple statements.
+                // single return can be handled in visitMethodInvocation.
+                return super.visitLambda(lambda, executionContext);
+            }
+
+            @Override
+            public J visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
+                if (isTargetFqn(method.getMethodType())) {
+                    return addBind(method);
+                }
+                return super.visitMethodInvocation(method, executionContext);
+            }
+        }
+
+        private boolean containsTargetArgument(List<Expression> arguments) {
+            for (Expression e : arguments) {
+                if (e instanceof J.Lambda) {
+                    J.Lambda lambda = (J.Lambda) e;
+                    if (containedInLambda(lambda.getBody())) {
+                        return true;
+                    }
+                } else if (e instanceof J.MemberReference) {
+                    J.MemberReference memberRef = (J.MemberReference) e;
+                    if (isTargetFqn(memberRef.getMethodType())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private boolean containedInLambda(J body) {
+            AtomicBoolean found = new AtomicBoolean(false);
+            KotlinIsoVisitor<AtomicBoolean> visitor = new KotlinIsoVisitor<AtomicBoolean>() {
+                @Override
+                public J visitMethodInvocation(J.MethodInvocation method, AtomicBoolean atomicBoolean) {
+                    if (isTargetFqn(method.getMethodType())) {
+                        atomicBoolean.set(true);
+                    }
+                    return atomicBoolean.get() ? method : super.visitMethodInvocation(method, atomicBoolean);
+                }
+            };
+            visitor.visit(body, found);
+            return found.get();
+        }
+
+        private boolean isTargetFqn(@Nullable JavaType.Method methodType) {
+            return methodType != null && TypeUtils.isOfClassType(methodType.getReturnType(), oldFqn);
+        }
+
+        private J.MethodInvocation addBind(J.MethodInvocation method) {
+            return new J.MethodInvocation(Tree.randomId(),
+                    Space.EMPTY,
+                    Markers.EMPTY,
+                    JRightPadded.build(method),
+                    null,
+                    new J.Identifier(Tree.randomId(),
+                            Space.EMPTY,
+                            Markers.EMPTY,
+                            "bind",
+                            null,
+                            null
+                    ),
+                    JContainer.build(Collections.singletonList(JRightPadded.build(new J.Empty(Tree.randomId(), Space.EMPTY, Markers.EMPTY)))),
+                    newMethodType
+            );
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package arrow.generator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the generator on a small jar, with the class files written the way `kotlinc` writes them: the `kotlin.Metadata`
+ * kind of the class, `kotlin.Deprecated` annotations, and the parameter names in the local variable table.
+ */
+class DeprecationTableGeneratorTest {
+
+    @Test
+    void generatesTheRowsOfTheDeprecatedFunctions(@TempDir Path tempDir) throws IOException {
+        Path jar = tempDir.resolve("fixture.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            write(out, "fixture/Box", box());
+            write(out, "fixture/BoxKt", boxKt());
+            write(out, "fixture/ListsKt__ListsKt", listsKtPart());
+        }
+        Path manual = tempDir.resolve("manual.tsv");
+        Files.write(manual, List.of(
+          "# The overloads of fold disagree, so the row is written by hand.",
+          "fixture.Box fold(..)\tfoldLeft\t-\t-\t-"
+        ));
+        Path output = tempDir.resolve("out/table.tsv");
+
+        DeprecationTableGenerator.main(new String[]{output.toString(), manual.toString(), jar.toString()});
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertThat(lines).filteredOn(line -> line.startsWith("#"))
+          .anySatisfy(line -> assertThat(line).contains("Generated from fixture.jar"));
+        assertThat(lines).filteredOn(line -> !line.startsWith("#")).containsExactly(
+          // The manual rows come first.
+          "fixture.Box fold(..)\tfoldLeft\t-\t-\t-",
+          // A member function.
+          "fixture.Box orNull(..)\tgetOrNull\t-\t-\t-",
+          // A suspend function, without its `$completion`.
+          "fixture.BoxKt awaitBox(..)\tawait\tfixture.other.await\tt\t-",
+          // A top-level function, whose old import is removed.
+          "fixture.BoxKt box(..)\tboxOf\tfixture.other.boxOf\tt\t-",
+          // An extension function, without its `$this` receiver.
+          "fixture.BoxKt mapBox(..)\tmap\t-\t-\t-",
+          // A part of a multi-file facade, declared on the facade.
+          "fixture.ListsKt firstOrNone(..)\tfirstOrNull\t-\t-\t-"
+        );
+    }
+
+    @Test
+    void overloadsThatDisagreeHaveNoRow(@TempDir Path tempDir) throws IOException {
+        Path jar = tempDir.resolve("fixture.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            write(out, "fixture/Box", box());
+        }
+        Path manual = tempDir.resolve("manual.tsv");
+        Files.write(manual, List.of("# No manual rows."));
+        Path output = tempDir.resolve("table.tsv");
+
+        DeprecationTableGenerator.main(new String[]{output.toString(), manual.toString(), jar.toString()});
+
+        assertThat(Files.readAllLines(output, StandardCharsets.UTF_8))
+          .filteredOn(line -> !line.startsWith("#"))
+          .containsExactly("fixture.Box orNull(..)\tgetOrNull\t-\t-\t-");
+    }
+
+    // class Box { fun orNull(); fun getOrNull(); fun fold(f); fun fold(initial, f) }
+    private static byte[] box() {
+        ClassWriter cw = classWriter("fixture/Box", 1, null);
+        method(cw, 0, "orNull", "()Ljava/lang/Object;", deprecated("getOrNull()"), "this");
+        method(cw, 0, "getOrNull", "()Ljava/lang/Object;", null, "this");
+        method(cw, 0, "fold", "(Lkotlin/jvm/functions/Function1;)Ljava/lang/Object;", deprecated("foldLeft(f)"), "this", "f");
+        method(cw, 0, "fold", "(Ljava/lang/Object;Lkotlin/jvm/functions/Function2;)Ljava/lang/Object;",
+          deprecated("reduce(initial, f)"), "this", "initial", "f");
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    // fun box(value); fun Box.mapBox(f); suspend fun awaitBox(value)
+    private static byte[] boxKt() {
+        ClassWriter cw = classWriter("fixture/BoxKt", 2, null);
+        method(cw, Opcodes.ACC_STATIC, "box", "(Ljava/lang/Object;)Ljava/lang/Object;",
+          deprecated("boxOf(value)", "fixture.other.boxOf"), "value");
+        method(cw, Opcodes.ACC_STATIC, "mapBox", "(Lfixture/Box;Lkotlin/jvm/functions/Function1;)Ljava/lang/Object;",
+          deprecated("map(f)"), "$this$mapBox", "f");
+        method(cw, Opcodes.ACC_STATIC, "awaitBox", "(Ljava/lang/Object;Lkotlin/coroutines/Continuation;)Ljava/lang/Object;",
+          deprecated("await(value)", "fixture.other.await"), "value", "$completion");
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    // @file:JvmMultifileClass @file:JvmName("ListsKt") fun <A> List<A>.firstOrNone()
+    private static byte[] listsKtPart() {
+        ClassWriter cw = classWriter("fixture/ListsKt__ListsKt", 5, "fixture/ListsKt");
+        method(cw, Opcodes.ACC_STATIC, "firstOrNone", "(Ljava/util/List;)Ljava/lang/Object;",
+          deprecated("firstOrNull()"), "$this$firstOrNone");
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static ClassWriter classWriter(String name, int kind, String multiFileClassName) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name, null, "java/lang/Object", null);
+        AnnotationVisitor metadata = cw.visitAnnotation("Lkotlin/Metadata;", true);
+        metadata.visit("k", kind);
+        if (multiFileClassName != null) {
+            metadata.visit("xs", multiFileClassName);
+        }
+        metadata.visitEnd();
+        return cw;
+    }
+
+    private static String[] deprecated(String expression, String... imports) {
+        String[] replaceWith = new String[imports.length + 1];
+        replaceWith[0] = expression;
+        System.arraycopy(imports, 0, replaceWith, 1, imports.length);
+        return replaceWith;
+    }
+
+    /**
+     * A method returning `null`, with a local variable for every slot of its receiver and parameters.
+     */
+    private static void method(ClassWriter cw, int access, String name, String descriptor, String[] replaceWith, String... locals) {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | access, name, descriptor, null, null);
+        if (replaceWith != null) {
+            AnnotationVisitor deprecated = mv.visitAnnotation("Lkotlin/Deprecated;", true);
+            deprecated.visit("message", name + " is deprecated");
+            AnnotationVisitor replacement = deprecated.visitAnnotation("replaceWith", "Lkotlin/ReplaceWith;");
+            replacement.visit("expression", replaceWith[0]);
+            AnnotationVisitor imports = replacement.visitArray("imports");
+            for (int i = 1; i < replaceWith.length; i++) {
+                imports.visit(null, replaceWith[i]);
+            }
+            imports.visitEnd();
+            replacement.visitEnd();
+            deprecated.visitEnd();
+        }
+        mv.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        mv.visitLabel(start);
+        mv.visitInsn(Opcodes.ACONST_NULL);
+        mv.visitInsn(Opcodes.ARETURN);
+        mv.visitLabel(end);
+        for (int slot = 0; slot < locals.length; slot++) {
+            mv.visitLocalVariable(locals[slot], "Ljava/lang/Object;", null, start, end, slot);
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void write(JarOutputStream jar, String className, byte[] bytes) throws IOException {
+        jar.putNextEntry(new JarEntry(className + ".class"));
+        jar.write(bytes);
+        jar.closeEntry();
+    }
+}
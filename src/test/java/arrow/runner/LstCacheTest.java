@@ -0,0 +1,134 @@
+package arrow.runner;
+
+import arrow.ArrowUsageTable;
+import arrow.KotlinCorpusGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LstCacheTest {
+
+    @Test
+    void loadsTheStoredLsts(@TempDir Path root, @TempDir Path cacheDirectory) {
+        new KotlinCorpusGenerator().seed(22).files(20).modules(2).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+
+        LstCache first = new LstCache(cacheDirectory, Collections.emptyList(), Long.MAX_VALUE);
+        List<SourceFile> parsed = runner().lstCache(first).parse(root, sources);
+        LstCache second = new LstCache(cacheDirectory, Collections.emptyList(), Long.MAX_VALUE);
+        List<SourceFile> loaded = runner().lstCache(second).parse(root, sources);
+
+        assertThat(first.getHits()).isZero();
+        assertThat(second.getHits()).isEqualTo(20);
+        assertThat(second.getMisses()).isZero();
+        assertThat(loaded).extracting(SourceFile::getSourcePath).containsExactlyElementsOf(
+          parsed.stream().map(SourceFile::getSourcePath).collect(Collectors.toList()));
+        assertThat(loaded).extracting(SourceFile::printAll).containsExactlyElementsOf(
+          parsed.stream().map(SourceFile::printAll).collect(Collectors.toList()));
+        assertThat(printed(runner().lstCache(second).migrate(root, sources)))
+          .containsExactlyElementsOf(printed(runner().migrate(root, sources)));
+    }
+
+    @Test
+    void parsesAModuleAgainWhenOneOfItsSourcesChanged(@TempDir Path root, @TempDir Path cacheDirectory) throws IOException {
+        new KotlinCorpusGenerator().seed(22).files(20).modules(2).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        runner().lstCache(new LstCache(cacheDirectory, Collections.emptyList(), Long.MAX_VALUE)).parse(root, sources);
+        List<Path> changedModule = modules(root, sources).get("module-0");
+        Files.write(changedModule.get(0), "\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        LstCache cache = new LstCache(cacheDirectory, Collections.emptyList(), Long.MAX_VALUE);
+        List<SourceFile> parsed = runner().lstCache(cache).parse(root, sources);
+
+        assertThat(cache.getMisses()).isEqualTo(changedModule.size());
+        assertThat(cache.getHits()).isEqualTo(sources.size() - changedModule.size());
+        assertThat(parsed).extracting(SourceFile::printAll).containsExactlyElementsOf(
+          runner().parse(root, sources).stream().map(SourceFile::printAll).collect(Collectors.toList()));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedLsts(@TempDir Path root, @TempDir Path cacheDirectory) throws IOException {
+        new KotlinCorpusGenerator().seed(22).files(20).modules(10).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        LstCache unbounded = new LstCache(cacheDirectory, Collections.emptyList(), Long.MAX_VALUE);
+        runner().lstCache(unbounded).parse(root, sources);
+
+        LstCache bounded = new LstCache(cacheDirectory, Collections.emptyList(), unbounded.getTotalBytes() / 2);
+        runner().lstCache(bounded).parse(root, sources);
+
+        assertThat(bounded.getTotalBytes()).isLessThanOrEqualTo(unbounded.getTotalBytes() / 2);
+        assertThat(storedBytes(cacheDirectory)).isEqualTo(bounded.getTotalBytes());
+        // The module used last survives the evictions.
+        List<List<Path>> modules = new ArrayList<>(modules(root, sources).values());
+        List<Path> lastModule = modules.get(modules.size() - 1);
+        LstCache reopened = new LstCache(cacheDirectory, Collections.emptyList(), Long.MAX_VALUE);
+        runner().lstCache(reopened).parse(root, lastModule);
+        assertThat(reopened.getHits()).isEqualTo(lastModule.size());
+    }
+
+    @Test
+    void parsesAgainWhenAnEntryCannotBeRead(@TempDir Path root, @TempDir Path cacheDirectory) throws IOException {
+        new KotlinCorpusGenerator().seed(22).files(3).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        runner().lstCache(new LstCache(cacheDirectory, Collections.emptyList(), Long.MAX_VALUE)).parse(root, sources);
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            for (Path entry : entries.collect(Collectors.toList())) {
+                Files.write(entry, new byte[]{1, 2, 3});
+            }
+        }
+
+        LstCache corrupt = new LstCache(cacheDirectory, Collections.emptyList(), Long.MAX_VALUE);
+        List<SourceFile> parsed = runner().onError(e -> {
+        }).lstCache(corrupt).parse(root, sources);
+
+        assertThat(parsed).hasSize(3);
+        assertThat(corrupt.getHits()).isZero();
+        assertThat(corrupt.getMisses()).isEqualTo(3);
+    }
+
+    private static Map<String, List<Path>> modules(Path root, List<Path> sources) {
+        Map<String, List<Path>> modules = new LinkedHashMap<>();
+        for (Path source : sources) {
+            modules.computeIfAbsent(ArrowUsageTable.moduleOf(root.relativize(source)), m -> new ArrayList<>()).add(source);
+        }
+        return modules;
+    }
+
+    private static long storedBytes(Path cacheDirectory) throws IOException {
+        try (Stream<Path> entries = Files.list(cacheDirectory)) {
+            long total = 0;
+            for (Path entry : entries.collect(Collectors.toList())) {
+                total += Files.size(entry);
+            }
+            return total;
+        }
+    }
+
+    private static List<String> printed(List<Result> results) {
+        return results.stream()
+          .map(result -> result.getBefore().getSourcePath() + "\n" + result.getAfter().printAll())
+          .collect(Collectors.toList());
+    }
+
+    private static MigrationRunner runner() {
+        return new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), KotlinParser.builder().classpath("arrow-core-jvm"))
+          .parallelism(2);
+    }
+}
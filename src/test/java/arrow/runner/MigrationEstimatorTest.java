@@ -0,0 +1,91 @@
+package arrow.runner;
+
+import arrow.KotlinCorpusGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.config.Environment;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class MigrationEstimatorTest {
+
+    @Test
+    void sampleOfEverySourceIsExact(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(16).files(30).modules(3).writeTo(root);
+
+        MigrationEstimate estimate = estimator().sampleFraction(1).estimate(root);
+
+        List<Path> sources = KotlinSources.find(root);
+        List<SourceFile> sourceFiles = new ArrayList<>(parser().build().parse(sources, root, new InMemoryExecutionContext(Throwable::printStackTrace)));
+        int changedLines = 0;
+        List<Result> results = recipe().run(sourceFiles, new InMemoryExecutionContext(Throwable::printStackTrace)).getResults();
+        for (Result result : results) {
+            changedLines += MigrationEstimator.changedLines(result.diff());
+        }
+
+        assertThat(estimate.getFiles()).isEqualTo(30);
+        assertThat(estimate.getSampledFiles()).isEqualTo(30);
+        assertThat(estimate.getChangedFiles().getEstimate()).isEqualTo(results.size());
+        assertThat(estimate.getChangedFiles().getLower()).isEqualTo(estimate.getChangedFiles().getUpper());
+        assertThat(estimate.getChangedLines().getEstimate()).isEqualTo(changedLines);
+        assertThat(estimate.getChangedLines().getLower()).isEqualTo(estimate.getChangedLines().getUpper());
+    }
+
+    @Test
+    void sameSeedSamplesTheSameSources(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(16).files(60).modules(3).writeTo(root);
+
+        MigrationEstimate first = estimator().sampleFraction(0.2).seed(7).estimate(root);
+        MigrationEstimate second = estimator().sampleFraction(0.2).seed(7).estimate(root);
+
+        assertThat(first.getSampledFiles()).isLessThan(60).isEqualTo(second.getSampledFiles());
+        assertThat(first.getStrata()).isGreaterThanOrEqualTo(3);
+        assertThat(first.getChangedFiles()).isEqualTo(second.getChangedFiles());
+        assertThat(first.getChangedLines()).isEqualTo(second.getChangedLines());
+        assertThat(first.getChangedLines().getLower()).isLessThanOrEqualTo(first.getChangedLines().getEstimate());
+        assertThat(first.getChangedLines().getUpper()).isGreaterThanOrEqualTo(first.getChangedLines().getEstimate());
+    }
+
+    @Test
+    void zScore() {
+        assertThat(MigrationEstimator.zScore(0.95)).isCloseTo(1.960, within(1e-3));
+        assertThat(MigrationEstimator.zScore(0.99)).isCloseTo(2.576, within(1e-3));
+    }
+
+    @Test
+    void countsAddedAndRemovedLines() {
+        assertThat(MigrationEstimator.changedLines(
+          "--- a/A.kt\n" +
+          "+++ b/A.kt\n" +
+          "@@ -1,2 +1,2 @@\n" +
+          " package a\n" +
+          "-import arrow.core.continuations.either\n" +
+          "+import arrow.core.raise.either\n"
+        )).isEqualTo(2);
+    }
+
+    private static MigrationEstimator estimator() {
+        return new MigrationEstimator(recipe(), parser());
+    }
+
+    private static Recipe recipe() {
+        return Environment.builder()
+          .scanRuntimeClasspath()
+          .build()
+          .activateRecipes("arrow.RaiseRefactor");
+    }
+
+    private static KotlinParser.Builder parser() {
+        return KotlinParser.builder().classpath("arrow-core-jvm");
+    }
+}
@@ -0,0 +1,243 @@
+package arrow.runner;
+
+import arrow.ArrowSourcePrefilter;
+import arrow.ArrowUsageTable;
+import arrow.CsvDataTableWriter;
+import arrow.FindArrowUsages;
+import arrow.KotlinCorpusGenerator;
+import arrow.RecipeBudget;
+import arrow.RecipeBudgetExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.DataTable;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.kotlin.KotlinParser;
+import org.openrewrite.text.PlainTextParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MigrationRunnerTest {
+
+    @Test
+    void parallelRunMatchesSerialRun(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(17).files(80).modules(4).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+
+        List<SourceFile> serialInput = new ArrayList<>(parser().build().parse(sources, root, new InMemoryExecutionContext(Throwable::printStackTrace)));
+        List<Result> serial = MigrationRunner.recipe("arrow.RaiseRefactor").run(serialInput, new InMemoryExecutionContext(Throwable::printStackTrace)).getResults();
+
+        List<Result> parallel = new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .parallelism(4)
+          .parseBatchSize(7)
+          .migrate(root, sources);
+
+        assertThat(serial).isNotEmpty();
+        assertThat(printed(parallel)).containsExactlyElementsOf(printed(serial));
+    }
+
+    @Test
+    void parallelRunCollectsTheDataTablesOfASerialRun(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(17).files(60).modules(3).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+
+        ExecutionContext serialCtx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        new FindArrowUsages().run(new ArrayList<>(parser().build().parse(sources, root, serialCtx)), serialCtx);
+
+        ExecutionContext parallelCtx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        new MigrationRunner(new FindArrowUsages(), parser())
+          .parallelism(4)
+          .migrate(root, sources, parallelCtx);
+
+        assertThat(rows(serialCtx)).isNotEmpty();
+        assertThat(rows(parallelCtx)).containsExactlyInAnyOrderElementsOf(rows(serialCtx));
+    }
+
+    @Test
+    void parallelRunStreamsTheRowsOfTheTasks(@TempDir Path root, @TempDir Path output) throws IOException {
+        new KotlinCorpusGenerator().seed(17).files(60).modules(3).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        ExecutionContext serialCtx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        new FindArrowUsages().run(new ArrayList<>(parser().build().parse(sources, root, serialCtx)), serialCtx);
+
+        Path csv = output.resolve("usages.csv");
+        ExecutionContext parallelCtx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        try (CsvDataTableWriter<ArrowUsageTable.Row> writer = CsvDataTableWriter.open(ArrowUsageTable.Row.class, csv)) {
+            ArrowUsageTable.streamTo(parallelCtx, writer);
+            new MigrationRunner(new FindArrowUsages(), parser())
+              .parallelism(4)
+              .migrate(root, sources, parallelCtx);
+        }
+
+        List<Object> usages = rows(serialCtx).stream().filter(ArrowUsageTable.Row.class::isInstance).collect(Collectors.toList());
+        assertThat(usages).isNotEmpty();
+        assertThat(rows(parallelCtx)).noneMatch(ArrowUsageTable.Row.class::isInstance);
+        assertThat(Files.readAllLines(csv, StandardCharsets.UTF_8)).hasSize(usages.size() + 1);
+    }
+
+    @Test
+    void parallelRunKeepsGeneratedSourceFiles(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(17).files(20).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        List<SourceFile> sourceFiles = new ArrayList<>(parser().build().parse(sources, root, new InMemoryExecutionContext(Throwable::printStackTrace)));
+
+        List<Result> serial = new GeneratesASummary().run(sourceFiles, new InMemoryExecutionContext(Throwable::printStackTrace)).getResults();
+        List<Result> parallel = new MigrationRunner(new GeneratesASummary(), parser())
+          .parallelism(4)
+          .run(sourceFiles, sourceFile -> 1);
+
+        assertThat(serial).hasSize(sourceFiles.size());
+        assertThat(parallel).extracting(result -> result.getAfter().getSourcePath())
+          .containsExactlyInAnyOrderElementsOf(serial.stream().map(result -> result.getAfter().getSourcePath()).collect(Collectors.toList()));
+    }
+
+    @Test
+    void discardsEveryChangeToAFileOverBudget(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(17).files(20).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+
+        ExecutionContext ctx = new InMemoryExecutionContext();
+        List<Result> results = new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .parallelism(2)
+          .onError(errors::add)
+          .fileBudget(Duration.ofNanos(1))
+          .migrate(root, sources, ctx);
+
+        assertThat(errors).isNotEmpty().allSatisfy(error -> assertThat(error).isInstanceOf(RecipeBudgetExceededException.class));
+        // Every file is reported once, by the first recipe over its budget.
+        assertThat(RecipeBudget.exceededFiles(ctx)).hasSameSizeAs(errors);
+        assertThat(results).extracting(result -> result.getBefore().getSourcePath())
+          .doesNotContainAnyElementsOf(RecipeBudget.exceededFiles(ctx));
+    }
+
+    @Test
+    void skipsSourcesWithoutArrowUsage(@TempDir Path root) throws IOException {
+        new KotlinCorpusGenerator().seed(17).files(10).writeTo(root);
+        Path plain = Files.write(root.resolve("Plain.kt"), """
+          package com.yourorg
+
+          fun greet(name: String): String = "Hello, $name"
+          """.getBytes(StandardCharsets.UTF_8));
+
+        List<ArrowSourcePrefilter.Selection> selections = new ArrayList<>();
+        new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .onSelection(selections::add)
+          .migrate(root, KotlinSources.find(root));
+
+        assertThat(selections).hasSize(1);
+        assertThat(selections.get(0).getSources()).isNotEmpty().doesNotContain(plain);
+        assertThat(selections.get(0).getSkippedFiles()).isPositive();
+    }
+
+    @Test
+    void parsesInTheOrderOfTheSources(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(17).files(20).modules(3).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+
+        List<SourceFile> sourceFiles = new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .parseBatchSize(2)
+          .parse(root, sources);
+
+        assertThat(sourceFiles).extracting(SourceFile::getSourcePath)
+          .containsExactlyElementsOf(sources.stream().map(root::relativize).collect(Collectors.toList()));
+    }
+
+    @Test
+    void neverSplitsAModuleAcrossParses(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(17).files(40).modules(2).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        List<SourceFile> batched = new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .parseBatchSize(3)
+          .meterRegistry(registry)
+          .parse(root, sources);
+
+        assertThat(registry.timer(MigrationRunner.PARSE_METER).count()).isEqualTo(2);
+        assertThat(batched).extracting(SourceFile::printAll).containsExactlyElementsOf(
+          new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), parser()).parse(root, sources).stream()
+            .map(SourceFile::printAll).collect(Collectors.toList()));
+    }
+
+    @Test
+    void sharesTheRecipeInstances() {
+        assertThat(MigrationRunner.recipe("arrow.RaiseRefactor")).isSameAs(MigrationRunner.recipe("arrow.RaiseRefactor"));
+    }
+
+    @Test
+    void removesOptionsFromTheArguments() {
+        List<String> arguments = new ArrayList<>(Arrays.asList("repo", "--threads", "8", "arrow.RaiseRefactor"));
+
+        assertThat(MigrationRunner.option(arguments, "--threads")).isEqualTo("8");
+        assertThat(MigrationRunner.option(arguments, "--patch")).isNull();
+        assertThat(arguments).containsExactly("repo", "arrow.RaiseRefactor");
+    }
+
+    @Test
+    void parsesRecipeBudgets(@TempDir Path root) {
+        assertThatThrownBy(() -> MigrationRunner.main(new String[]{root.toString(), "arrow.RaiseRefactor", "--recipe-budget", "arrow.RewriteEffectDSL"}))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining("recipe=seconds");
+    }
+
+    @Test
+    void rejectsOptionsTheWindowIgnores(@TempDir Path root) {
+        assertThatThrownBy(() -> MigrationRunner.main(new String[]{root.toString(), "arrow.RaiseRefactor", "--window", "10", "--threads", "4", "--file-budget", "1"}))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessage("--window cannot be combined with --threads, --file-budget");
+    }
+
+    private static List<String> printed(List<Result> results) {
+        return results.stream()
+          .map(result -> result.getBefore().getSourcePath() + "\n" + result.getAfter().printAll())
+          .collect(Collectors.toList());
+    }
+
+    private static List<Object> rows(ExecutionContext ctx) {
+        Map<DataTable<?>, List<?>> dataTables = ctx.getMessage(ExecutionContext.DATA_TABLES, Collections.emptyMap());
+        return dataTables.values().stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    private static KotlinParser.Builder parser() {
+        return KotlinParser.builder().classpath("arrow-core-jvm");
+    }
+
+    /**
+     * Generates a summary of every Kotlin source file, next to it.
+     */
+    private static class GeneratesASummary extends Recipe {
+        @Override
+        public String getDisplayName() {
+            return "Generates a summary";
+        }
+
+        @Override
+        protected List<SourceFile> visit(List<SourceFile> before, ExecutionContext ctx) {
+            List<SourceFile> after = new ArrayList<>(before);
+            for (SourceFile sourceFile : before) {
+                SourceFile summary = new PlainTextParser().parse(sourceFile.getSourcePath().toString()).get(0);
+                after.add(summary.withSourcePath(Paths.get(sourceFile.getSourcePath() + ".txt")));
+            }
+            return after;
+        }
+    }
+}
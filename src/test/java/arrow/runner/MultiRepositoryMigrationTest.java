@@ -0,0 +1,61 @@
+package arrow.runner;
+
+import arrow.KotlinCorpusGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MultiRepositoryMigrationTest {
+
+    @Test
+    void migratesEveryRepositoryWithinTheHeapCeiling(@TempDir Path tempDir) throws IOException {
+        Path repositories = tempDir.resolve("repositories");
+        for (int i = 0; i < 3; i++) {
+            new KotlinCorpusGenerator().seed(19 + i).files(20 + 10 * i).modules(2).writeTo(repositories.resolve("repo-" + i));
+        }
+        Path output = tempDir.resolve("output");
+
+        // A ceiling that only fits one module at a time still migrates everything.
+        List<MultiRepositoryMigration.Throughput> throughput = new MultiRepositoryMigration(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .parallelism(4)
+          .heapCeiling(1)
+          .migrate(repositories, output);
+
+        assertThat(throughput).extracting(MultiRepositoryMigration.Throughput::getRepository)
+          .containsExactly("repo-0", "repo-1", "repo-2");
+        assertThat(throughput).extracting(MultiRepositoryMigration.Throughput::getFiles)
+          .containsExactly(20, 30, 40);
+        assertThat(Files.readAllLines(output.resolve("throughput.csv"), StandardCharsets.UTF_8))
+          .hasSize(4)
+          .first().isEqualTo("repository,files,skippedFiles,bytes,changedFiles,millis,filesPerSecond");
+
+        Path repository = repositories.resolve("repo-1");
+        StringWriter expected = new StringWriter();
+        MigrationRunner.writePatch(new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), parser()).migrate(repository), expected);
+        Path expectedPatch = Files.write(tempDir.resolve("expected.patch"), expected.toString().getBytes(StandardCharsets.UTF_8));
+        assertThat(PatchMerger.merge(Collections.singletonList(output.resolve("repo-1.patch"))))
+          .isNotEmpty()
+          .isEqualTo(PatchMerger.merge(Collections.singletonList(expectedPatch)));
+    }
+
+    @Test
+    void calibratesTheHeapPerSourceByte(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(19).files(50).writeTo(root);
+
+        assertThat(MultiRepositoryMigration.calibrate(root, KotlinSources.find(root), parser())).isPositive();
+    }
+
+    private static KotlinParser.Builder parser() {
+        return KotlinParser.builder().classpath("arrow-core-jvm");
+    }
+}
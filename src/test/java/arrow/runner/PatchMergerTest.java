@@ -0,0 +1,58 @@
+package arrow.runner;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PatchMergerTest {
+    private static final String A = "" +
+      "diff --git a/a/src/A.kt b/a/src/A.kt\n" +
+      "--- a/a/src/A.kt\n" +
+      "+++ b/a/src/A.kt\n" +
+      "@@ -1 +1 @@\n" +
+      "-import arrow.core.continuations.either\n" +
+      "+import arrow.core.raise.either\n";
+    private static final String B = "" +
+      "diff --git a/b/src/B.kt b/b/src/B.kt\n" +
+      "--- a/b/src/B.kt\n" +
+      "+++ b/b/src/B.kt\n" +
+      "@@ -1 +1 @@\n" +
+      "-import arrow.core.continuations.Effect\n" +
+      "+import arrow.core.raise.Effect\n";
+
+    @Test
+    void combinesShardPatchesOrderedByPath(@TempDir Path tempDir) throws IOException {
+        Path first = write(tempDir.resolve("0.patch"), B);
+        Path second = write(tempDir.resolve("1.patch"), A);
+        Path empty = write(tempDir.resolve("2.patch"), "");
+
+        assertThat(PatchMerger.merge(Arrays.asList(first, second, empty))).isEqualTo(A + B);
+    }
+
+    @Test
+    void rejectsFilesChangedByTwoShards(@TempDir Path tempDir) throws IOException {
+        Path first = write(tempDir.resolve("0.patch"), A + B);
+        Path second = write(tempDir.resolve("1.patch"), A);
+
+        assertThatThrownBy(() -> PatchMerger.merge(Arrays.asList(first, second)))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("a/src/A.kt");
+    }
+
+    @Test
+    void splitsByTheOldPath() {
+        assertThat(PatchMerger.split(A + B)).containsOnlyKeys("a/src/A.kt", "b/src/B.kt");
+    }
+
+    private static Path write(Path patch, String content) throws IOException {
+        return Files.write(patch, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
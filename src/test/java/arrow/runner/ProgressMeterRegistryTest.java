@@ -0,0 +1,43 @@
+package arrow.runner;
+
+import arrow.KotlinCorpusGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProgressMeterRegistryTest {
+
+    @Test
+    void logsTheProgressOfARun(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(23).files(30).modules(2).writeTo(root);
+        List<String> lines = new ArrayList<>();
+        ProgressMeterRegistry registry = new ProgressMeterRegistry(30, Duration.ofHours(1), lines::add);
+
+        new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), KotlinParser.builder().classpath("arrow-core-jvm"))
+          .parallelism(1)
+          .meterRegistry(registry)
+          .migrate(root);
+        registry.close();
+
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0))
+          .startsWith("30/30 files (100%)")
+          .contains("; parse ")
+          .contains(", visit ")
+          .contains("arrow.");
+    }
+
+    @Test
+    void formatsDurations() {
+        assertThat(ProgressMeterRegistry.duration(4.25)).isEqualTo("4.3s");
+        assertThat(ProgressMeterRegistry.duration(116)).isEqualTo("1m 56s");
+        assertThat(ProgressMeterRegistry.duration(7320)).isEqualTo("2h 2m");
+    }
+}
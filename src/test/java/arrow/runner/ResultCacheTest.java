@@ -0,0 +1,152 @@
+package arrow.runner;
+
+import arrow.KotlinCorpusGenerator;
+import arrow.RewriteDeprecatedApi;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResultCacheTest {
+
+    @Test
+    void secondRunIsServedFromTheCache(@TempDir Path root, @TempDir Path cacheDirectory) throws IOException {
+        new KotlinCorpusGenerator().seed(21).files(30).modules(2).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        ResultCache cache = new ResultCache(cacheDirectory, MigrationRunner.recipe("arrow.RaiseRefactor"), Collections.emptyList());
+
+        ResultCache.CachedRun first = cache.migrate(runner(), root, sources);
+        ResultCache.CachedRun second = cache.migrate(runner(), root, sources);
+
+        assertThat(first.getPatch()).isEqualTo(patch(runner().migrate(root, sources)));
+        assertThat(first.getHits()).isZero();
+        assertThat(second.getMigrated()).isZero();
+        assertThat(second.getHits()).isEqualTo(first.getMigrated());
+        assertThat(second.getPatch()).isEqualTo(first.getPatch());
+    }
+
+    @Test
+    void migratesIdenticalFilesOnce(@TempDir Path root, @TempDir Path cacheDirectory) throws IOException {
+        new KotlinCorpusGenerator().seed(21).files(10).writeTo(root);
+        List<Path> generated = KotlinSources.find(root);
+        List<Result> results = runner().migrate(root, generated);
+        Path changed = root.resolve(results.get(0).getBefore().getSourcePath());
+        Path copy = root.resolve("module-0/src/main/kotlin/generated/Copy.kt");
+        Files.createDirectories(copy.getParent());
+        Files.copy(changed, copy);
+
+        ResultCache.CachedRun run = new ResultCache(cacheDirectory, MigrationRunner.recipe("arrow.RaiseRefactor"), Collections.emptyList())
+          .migrate(runner(), root, KotlinSources.find(root));
+
+        assertThat(run.getFiles()).isEqualTo(11);
+        assertThat(run.getDuplicates()).isEqualTo(1);
+        assertThat(run.getMigrated()).isEqualTo(10);
+        assertThat(run.getPatch())
+          .contains("--- a/" + root.relativize(changed))
+          .contains("--- a/" + root.relativize(copy))
+          .isEqualTo(patch(runner().migrate(root, KotlinSources.find(root))));
+    }
+
+    @Test
+    void changeToASiblingMigratesTheModuleAgain(@TempDir Path root, @TempDir Path cacheDirectory) throws IOException {
+        new KotlinCorpusGenerator().seed(21).files(10).modules(2).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        ResultCache cache = new ResultCache(cacheDirectory, MigrationRunner.recipe("arrow.RaiseRefactor"), Collections.emptyList());
+        cache.migrate(runner(), root, sources);
+
+        Path sibling = sources.stream().filter(source -> root.relativize(source).startsWith("module-0")).findFirst().orElseThrow();
+        Files.write(sibling, "\n// changed\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        ResultCache.CachedRun run = cache.migrate(runner(), root, sources);
+
+        assertThat(run.getMigrated()).isEqualTo(5);
+        assertThat(run.getHits()).isEqualTo(5);
+        assertThat(run.getPatch()).isEqualTo(patch(runner().migrate(root, sources)));
+    }
+
+    @Test
+    void runsWithErrorsAreNotStored(@TempDir Path root, @TempDir Path cacheDirectory) throws IOException {
+        new KotlinCorpusGenerator().seed(21).files(4).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        Recipe failing = new FailsOnEveryFile();
+        ResultCache cache = new ResultCache(cacheDirectory, failing, Collections.emptyList());
+        MigrationRunner runner = new MigrationRunner(failing, KotlinParser.builder().classpath("arrow-core-jvm"))
+          .onError(t -> {
+          });
+
+        ResultCache.CachedRun first = cache.migrate(runner, root, sources);
+        ResultCache.CachedRun second = cache.migrate(runner, root, sources);
+
+        assertThat(first.getMigrated()).isEqualTo(4);
+        assertThat(second.getHits()).isZero();
+        assertThat(second.getMigrated()).isEqualTo(4);
+    }
+
+    @Test
+    void filesOverBudgetAreNotStored(@TempDir Path root, @TempDir Path cacheDirectory) throws IOException {
+        new KotlinCorpusGenerator().seed(21).files(10).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        ResultCache cache = new ResultCache(cacheDirectory, MigrationRunner.recipe("arrow.RaiseRefactor"), Collections.emptyList());
+
+        cache.migrate(runner().fileBudget(Duration.ofNanos(1)).onError(t -> {
+        }), root, sources);
+        ResultCache.CachedRun run = cache.migrate(runner(), root, sources);
+
+        assertThat(run.getMigrated()).isPositive();
+        assertThat(run.getPatch()).isEqualTo(patch(runner().migrate(root, sources)));
+    }
+
+    @Test
+    void fingerprintCoversTheOptions() {
+        assertThat(ResultCache.recipeFingerprint(new RewriteDeprecatedApi(null)))
+          .isEqualTo(ResultCache.recipeFingerprint(new RewriteDeprecatedApi(null)))
+          .isNotEqualTo(ResultCache.recipeFingerprint(new RewriteDeprecatedApi("META-INF/rewrite/other.tsv")));
+        assertThat(ResultCache.recipeFingerprint(MigrationRunner.recipe("arrow.RaiseRefactor")))
+          .contains("arrow.ChangeTopLevelFunction")
+          .contains("arrow.core.raise.effect");
+    }
+
+    private static String patch(List<Result> results) throws IOException {
+        StringWriter patch = new StringWriter();
+        MigrationRunner.writePatch(results, patch);
+        return patch.toString();
+    }
+
+    private static MigrationRunner runner() {
+        return new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), KotlinParser.builder().classpath("arrow-core-jvm"))
+          .parallelism(2);
+    }
+
+    private static class FailsOnEveryFile extends Recipe {
+        @Override
+        public String getDisplayName() {
+            return "Fails on every file";
+        }
+
+        @Override
+        protected TreeVisitor<?, ExecutionContext> getVisitor() {
+            return new TreeVisitor<Tree, ExecutionContext>() {
+                @Override
+                public Tree visit(@Nullable Tree tree, ExecutionContext executionContext) {
+                    throw new IllegalStateException("Failed on " + tree);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package arrow.runner;
+
+import arrow.ArrowUsageTable;
+import arrow.KotlinCorpusGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardTest {
+
+    @Test
+    void everySourceBelongsToOneShardWithItsModule(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(18).files(100).modules(7).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+
+        List<Path> all = new ArrayList<>();
+        Set<String> modules = new HashSet<>();
+        for (int i = 0; i < 3; i++) {
+            List<Path> shard = Shard.parse(i + "/3").select(root, sources);
+            assertThat(shard).isEqualTo(Shard.parse(i + "/3").select(root, sources));
+            assertThat(shard).isNotEmpty();
+            Set<String> shardModules = new HashSet<>();
+            for (Path source : shard) {
+                shardModules.add(ArrowUsageTable.moduleOf(root.relativize(source)));
+            }
+            assertThat(modules).doesNotContainAnyElementsOf(shardModules);
+            modules.addAll(shardModules);
+            all.addAll(shard);
+        }
+        assertThat(all).containsExactlyInAnyOrderElementsOf(sources);
+    }
+
+    @Test
+    void rejectsInvalidShards() {
+        assertThat(Shard.parse("1/4")).isEqualTo(new Shard(1, 4));
+        assertThatThrownBy(() -> Shard.parse("4/4")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Shard.parse("4")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void mergedShardPatchesMatchTheUnshardedPatch(@TempDir Path tempDir) throws IOException {
+        Path root = tempDir.resolve("repo");
+        new KotlinCorpusGenerator().seed(18).files(40).modules(4).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+        MigrationRunner runner = new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), KotlinParser.builder().classpath("arrow-core-jvm"));
+
+        Path unsharded = tempDir.resolve("all.patch");
+        write(runner, root, sources, unsharded);
+        List<Path> patches = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Path patch = tempDir.resolve("shard-" + i + ".patch");
+            write(runner, root, new Shard(i, 2).select(root, sources), patch);
+            patches.add(patch);
+        }
+
+        assertThat(PatchMerger.merge(patches))
+          .isNotEmpty()
+          .isEqualTo(PatchMerger.merge(Arrays.asList(unsharded)));
+    }
+
+    private static void write(MigrationRunner runner, Path root, List<Path> sources, Path patch) throws IOException {
+        StringWriter out = new StringWriter();
+        MigrationRunner.writePatch(runner.migrate(root, sources), out);
+        Files.write(patch, out.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
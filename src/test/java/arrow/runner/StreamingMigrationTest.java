@@ -0,0 +1,91 @@
+package arrow.runner;
+
+import arrow.KotlinCorpusGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.kotlin.KotlinParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingMigrationTest {
+
+    @Test
+    void windowsGiveTheSameResultsAsOneRun(@TempDir Path root) {
+        new KotlinCorpusGenerator().seed(20).files(50).modules(3).writeTo(root);
+        List<Path> sources = KotlinSources.find(root);
+
+        List<Result> streamed = new ArrayList<>();
+        StreamingMigration.Summary summary = new StreamingMigration(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .windowSize(4)
+          .migrate(root, sources, streamed::add);
+        List<Result> regular = new MigrationRunner(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .parallelism(1)
+          .migrate(root, sources);
+
+        assertThat(summary.getFiles()).isEqualTo(50);
+        assertThat(summary.getWindows()).isGreaterThanOrEqualTo(13);
+        assertThat(summary.getChangedFiles()).isEqualTo(regular.size());
+        assertThat(printed(streamed)).containsExactlyInAnyOrderElementsOf(printed(regular));
+    }
+
+    @Test
+    void writesChangedFilesInPlace(@TempDir Path root) throws IOException {
+        new KotlinCorpusGenerator().seed(20).files(10).writeTo(root);
+
+        new StreamingMigration(MigrationRunner.recipe("arrow.RaiseRefactor"), parser())
+          .windowSize(3)
+          .migrate(root, StreamingMigration.writeTo(root));
+
+        for (Path source : KotlinSources.find(root)) {
+            assertThat(new String(Files.readAllBytes(source), StandardCharsets.UTF_8))
+              .doesNotContain("arrow.core.continuations.EffectScope");
+        }
+    }
+
+    @Test
+    void rejectsRecipesThatNeedOtherFiles() {
+        Recipe composite = MigrationRunner.recipe("arrow.RaiseRefactor");
+        assertThat(StreamingMigration.crossFileRecipes(composite)).isEmpty();
+
+        Recipe crossFile = new CrossFileRecipe();
+        assertThat(StreamingMigration.crossFileRecipes(crossFile)).containsExactly(crossFile.getName());
+        assertThatThrownBy(() -> new StreamingMigration(crossFile, parser()))
+          .isInstanceOf(IllegalArgumentException.class)
+          .hasMessageContaining(crossFile.getName());
+    }
+
+    private static List<String> printed(List<Result> results) {
+        return results.stream()
+          .map(result -> result.getBefore().getSourcePath() + "\n" + result.getAfter().printAll())
+          .collect(Collectors.toList());
+    }
+
+    private static KotlinParser.Builder parser() {
+        return KotlinParser.builder().classpath("arrow-core-jvm");
+    }
+
+    static class CrossFileRecipe extends Recipe {
+        @Override
+        public String getDisplayName() {
+            return "Cross file";
+        }
+
+        @Override
+        protected List<SourceFile> visit(List<SourceFile> before, ExecutionContext ctx) {
+            return before;
+        }
+    }
+}